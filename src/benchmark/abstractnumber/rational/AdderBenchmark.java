@@ -0,0 +1,39 @@
+package benchmark.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalAdder;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shared running total updated by four threads: a compare and set loop on an
+ * {@link AtomicReference} against the striped {@link RationalAdder}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AdderBenchmark {
+
+    private final static RationalNumber ADDEND = RationalNumber.valueOf(1,3);
+
+    private AtomicReference<RationalNumber> reference;
+    private RationalAdder adder;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        reference = new AtomicReference<>(RationalNumber.ZERO);
+        adder = new RationalAdder();
+    }
+
+    @Benchmark
+    public RationalNumber atomicReference() { return reference.accumulateAndGet(ADDEND, RationalNumber::add); }
+
+    @Benchmark
+    public RationalAdder rationalAdder() { return adder.add(ADDEND); }
+}
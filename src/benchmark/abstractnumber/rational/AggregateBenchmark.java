@@ -0,0 +1,61 @@
+package benchmark.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Varargs reductions, powers and ranges. The varargs operands telescope, the sum of
+ * 1/(i(i+1)) and the product of (i+1)/i, so every intermediate result needs a reduction but
+ * none overflows whatever the length.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AggregateBenchmark {
+
+    @Param({"4", "16", "256"})
+    private int length;
+
+    private RationalNumber[] addends;
+    private RationalNumber[] factors;
+    private RationalNumber base;
+    private RationalNumber rangeStop;
+    private RationalNumber rangeStep;
+
+    @Setup
+    public void setup() {
+        addends = new RationalNumber[length];
+        factors = new RationalNumber[length];
+        for (int i = 0; i < length; ++i) {
+            addends[i] = RationalNumber.valueOf(1, (i + 2L) * (i + 3L));
+            factors[i] = RationalNumber.valueOf(i + 3L, i + 2L);
+        }
+        base = RationalNumber.valueOf(3,2);
+        rangeStop = RationalNumber.valueOf(length);
+        rangeStep = RationalNumber.valueOf(1,3);
+    }
+
+    @Benchmark
+    public RationalNumber sum() { return RationalNumber.ONE_HALF.sum(addends); }
+
+    @Benchmark
+    public RationalNumber product() { return RationalNumber.ONE_HALF.product(factors); }
+
+    /* 3^39 is the largest power of 3 that fits in a long */
+    @Benchmark
+    public RationalNumber power() { return base.power(Math.min(length, 39)); }
+
+    @Benchmark
+    public int rangeCreate() { return RationalNumber.ZERO.range(rangeStop, rangeStep).size(); }
+
+    @Benchmark
+    public void rangeIterate(Blackhole blackhole) {
+        for (RationalNumber number : RationalNumber.ZERO.range(rangeStop, rangeStep)) blackhole.consume(number);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArithmeticBenchmark {
+
+    @Param({"SMALL", "LARGE", "NEAR_OVERFLOW"})
+    private Operands operands;
+
+    private RationalNumber left;
+    private RationalNumber right;
+
+    @Setup
+    public void setup() {
+        left = operands.left;
+        right = operands.right;
+    }
+
+    @Benchmark
+    public RationalNumber add() { return left.add(right); }
+
+    @Benchmark
+    public RationalNumber subtract() { return left.subtract(right); }
+
+    @Benchmark
+    public RationalNumber multiply() { return left.multiply(right); }
+
+    @Benchmark
+    public RationalNumber divide() { return left.divide(right); }
+
+    @Benchmark
+    public int compareTo() { return left.compareTo(right); }
+
+    @Benchmark
+    public RationalNumber square() { return left.power(2); }
+
+    @Benchmark
+    public String toStringValue() { return left.toString(); }
+
+    @Benchmark
+    public BigDecimal bigDecimalValue() { return left.bigDecimalValue(); }
+}
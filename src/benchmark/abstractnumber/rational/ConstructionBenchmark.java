@@ -0,0 +1,54 @@
+package benchmark.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConstructionBenchmark {
+
+    @Param({"SMALL", "LARGE", "NEAR_OVERFLOW"})
+    private Operands operands;
+
+    private long numerator;
+    private long denominator;
+    private String fraction;
+    private String decimal;
+    private double doubleValue;
+    private BigDecimal bigDecimal;
+
+    @Setup
+    public void setup() {
+        numerator = operands.left.numerator();
+        denominator = operands.left.denominator();
+        fraction = operands.left.toString();
+        doubleValue = operands.left.doubleValue();
+        decimal = Double.toString(doubleValue);
+        bigDecimal = BigDecimal.valueOf(doubleValue);
+    }
+
+    @Benchmark
+    public RationalNumber valueOfLong() { return RationalNumber.valueOf(numerator); }
+
+    @Benchmark
+    public RationalNumber valueOfFraction() { return RationalNumber.valueOf(numerator, denominator); }
+
+    @Benchmark
+    public RationalNumber valueOfFractionString() { return RationalNumber.valueOf(fraction); }
+
+    @Benchmark
+    public RationalNumber valueOfDecimalString() { return RationalNumber.valueOf(decimal); }
+
+    @Benchmark
+    public RationalNumber valueOfDouble() { return RationalNumber.valueOf(doubleValue); }
+
+    @Benchmark
+    public RationalNumber valueOfBigDecimal() { return RationalNumber.valueOf(bigDecimal); }
+}
@@ -0,0 +1,80 @@
+package benchmark.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.CompiledRationalExpression;
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalExpression;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pricing formula over a column of rows: chained {@link RationalNumber} calls against the
+ * batch evaluation of the compiled expression.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+
+    private final static RationalNumber PERCENT = RationalNumber.valueOf(1, 100);
+
+    @Param({"1000"})
+    private int length;
+
+    private RationalArray prices;
+    private RationalArray rates;
+    private RationalArray discounts;
+    private RationalArray target;
+    private CompiledRationalExpression compiled;
+    private RationalArray[] shares;
+    private CompiledRationalExpression sum;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        prices = new RationalArray(length);
+        rates = new RationalArray(length);
+        discounts = new RationalArray(length);
+        for (int i = 0; i < length; ++i) {
+            prices.set(i, random.nextInt(1_000_000), 100);
+            rates.set(i, random.nextInt(3000), 100);
+            discounts.set(i, random.nextInt(500), 100);
+        }
+        target = new RationalArray(length);
+        compiled = RationalExpression.parse("price * (1 + rate / 100) - discount").compile("price", "rate", "discount");
+
+        // denominators sharing large factors: the unreduced cross products overflow a long
+        long[] denominators = {600_000_000L, 400_000_000L, 300_000_000L, 200_000_000L};
+        shares = new RationalArray[denominators.length];
+        for (int j = 0; j < denominators.length; ++j) {
+            shares[j] = new RationalArray(length);
+            for (int i = 0; i < length; ++i)
+                shares[j].set(i, 1 + random.nextInt(1_000_000), denominators[j]);
+        }
+        sum = RationalExpression.parse("a + b + c + d").compile("a", "b", "c", "d");
+    }
+
+    @Benchmark
+    public RationalArray chainedCalls() {
+        for (int i = 0; i < length; ++i)
+            target.set(i, prices.get(i).multiply(RationalNumber.ONE.add(rates.get(i).multiply(PERCENT))).subtract(discounts.get(i)));
+        return target;
+    }
+
+    @Benchmark
+    public RationalArray compiled() {
+        compiled.evaluateAll(new RationalArray[] {prices, rates, discounts}, target);
+        return target;
+    }
+
+    @Benchmark
+    public RationalArray compiledSharedFactors() {
+        sum.evaluateAll(shares, target);
+        return target;
+    }
+}
@@ -0,0 +1,31 @@
+package benchmark.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalNumber;
+
+/**
+ * Operand pairs shared by the benchmarks. Every binary operation of a pair has a result that
+ * fits in a {@link RationalNumber}, so the benchmarks measure the arithmetic and not the
+ * overflow exception.
+ */
+public enum Operands {
+
+    /** single digit numerators and denominators */
+    SMALL(RationalNumber.valueOf(3,4), RationalNumber.valueOf(5,6)),
+
+    /** about 30 and 20 bits, the cross products stay far from overflow */
+    LARGE(RationalNumber.valueOf(123456789,987654), RationalNumber.valueOf(987654321,123457)),
+
+    /**
+     * Numerators and denominators just below the square root of {@code Long.MAX_VALUE}: the cross
+     * products and the sum are the largest the long fast path can handle.
+     */
+    NEAR_OVERFLOW(RationalNumber.valueOf(1518500249,3037000499L), RationalNumber.valueOf(1518500247,3037000497L));
+
+    final RationalNumber left;
+    final RationalNumber right;
+
+    Operands(RationalNumber left, RationalNumber right) {
+        this.left = left;
+        this.right = right;
+    }
+}
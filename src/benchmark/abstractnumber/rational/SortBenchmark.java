@@ -0,0 +1,58 @@
+package benchmark.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting a list of {@link RationalNumber} against the primitive sorts and the selection of
+ * {@link RationalArray}, on random fractions with denominators up to 1000.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SortBenchmark {
+
+    @Param({"1000", "100000"})
+    private int length;
+
+    private List<RationalNumber> numbers;
+    private RationalArray array;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        numbers = new ArrayList<>(length);
+        for (int i = 0; i < length; ++i)
+            numbers.add(RationalNumber.valueOf(random.nextInt(2_000_001) - 1_000_000, random.nextInt(1000) + 1));
+        array = RationalArray.valueOf(numbers);
+    }
+
+    @Benchmark
+    public List<RationalNumber> listSort() {
+        List<RationalNumber> copy = new ArrayList<>(numbers);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public RationalArray sort() { return array.duplicateThis().sort(); }
+
+    @Benchmark
+    public RationalArray parallelSort() { return array.duplicateThis().parallelSort(); }
+
+    @Benchmark
+    public RationalNumber median() { return array.median(); }
+
+    @Benchmark
+    public RationalArray largest() { return array.largest(10); }
+}
@@ -1,16 +1,14 @@
 package org.jnum.abstractnumber;
 
-import org.jnum.abstractnumber.rational.RationalNumber;
-
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 
 public interface AbstractNumber<T> extends Comparable<T> {
 
-    RationalNumber toggleSign();
+    T toggleSign();
 
-    RationalNumber abs();
+    T abs();
 
     double doubleValue();
 
@@ -0,0 +1,401 @@
+package org.jnum.abstractnumber.nmal;
+
+import org.jnum.abstractnumber.AbstractNumber;
+import org.jnum.abstractnumber.rational.BigRationalNumber;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException;
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Exact rational number written and read in a radix between 2 and 36.
+ * <p>
+ * The value is held as a {@link BigRationalNumber}, so the arithmetic is exact and runs on longs
+ * while the numerator and the denominator fit in a long; the radix only affects the conversions
+ * from and to digit strings. The digits are {@code 0-9} and {@code a-z}, read in any case and
+ * written in lower case, with an optional sign, a point and the repeating fractional digits in
+ * parentheses: in radix 10 {@code 1/6} is {@code 0.1(6)}, in radix 2 {@code -5/2} is
+ * {@code -10.1} and in radix 16 {@code 1/3} is {@code 0.(5)}. See {@link RadixConversion} for
+ * the conversion algorithms.
+ * <p>
+ * The result of an operation has the radix of the number it is called on. Two numbers are
+ * {@link #equals(Object) equal} when they have the same value and the same radix, while
+ * {@link #compareTo(NmalNumber)} compares the values only.
+ */
+public final class NmalNumber extends Number implements AbstractNumber<NmalNumber> {
+
+    public final static int MIN_RADIX = RadixConversion.MIN_RADIX;
+    public final static int MAX_RADIX = RadixConversion.MAX_RADIX;
+
+    private final BigRationalNumber value;
+    private final int radix;
+
+    private NmalNumber(BigRationalNumber value, int radix) {
+        this.value = value;
+        this.radix = radix;
+    }
+
+    /**
+     * Reads a number such as {@code -1a.f}, {@code 0.1(6)} or {@code .(01)} in the given radix.
+     *
+     * @throws InvalidFormatStringException if the input is not a number in the radix
+     */
+    public static NmalNumber valueOf(CharSequence digits, int radix) {
+
+        if (digits == null) throw new NullParamenterException();
+        RadixConversion.checkRadix(radix);
+
+        int length = digits.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (digits.charAt(i) == '-' || digits.charAt(i) == '+')) negative = digits.charAt(i++) == '-';
+
+        int integerStart = i;
+        i = skipDigits(digits, i, radix);
+        int integerEnd = i;
+        int fractionStart = i;
+        int fractionEnd = i;
+        int repetendStart = i;
+        int repetendEnd = i;
+        if (i < length && digits.charAt(i) == '.') {
+            fractionStart = i + 1;
+            fractionEnd = i = skipDigits(digits, fractionStart, radix);
+            repetendStart = repetendEnd = i;
+            if (i < length && digits.charAt(i) == '(') {
+                repetendStart = i + 1;
+                repetendEnd = i = skipDigits(digits, repetendStart, radix);
+                if (repetendEnd == repetendStart || i == length || digits.charAt(i++) != ')')
+                    throw new InvalidFormatStringException();
+            }
+        }
+        if (i != length || integerEnd == integerStart && fractionEnd == fractionStart && repetendEnd == repetendStart)
+            throw new InvalidFormatStringException();
+
+        int fractionDigits = fractionEnd - fractionStart;
+        BigRationalNumber value;
+        if (repetendEnd == repetendStart && integerEnd - integerStart + fractionDigits <= RadixConversion.chunkDigits(radix)) {
+            // the digits and the power of the radix fit in a long
+            long numerator = RadixConversion.parseLong(digits, integerStart, integerEnd, radix);
+            for (int j = fractionStart; j < fractionEnd; ++j)
+                numerator = numerator * radix + RadixConversion.digit(digits.charAt(j), radix);
+            long denominator = 1;
+            for (int j = 0; j < fractionDigits; ++j) denominator *= radix;
+            value = BigRationalNumber.valueOf(negative ? -numerator : numerator, denominator);
+        } else {
+            // I.F(R) is (IF * (radix^r - 1) + R) / (radix^f * (radix^r - 1))
+            BigInteger fractionPower = BigInteger.valueOf(radix).pow(fractionDigits);
+            BigInteger numerator = RadixConversion.parse(digits, integerStart, integerEnd, radix)
+                    .multiply(fractionPower)
+                    .add(RadixConversion.parse(digits, fractionStart, fractionEnd, radix));
+            BigInteger denominator = fractionPower;
+            if (repetendEnd != repetendStart) {
+                BigInteger repetendPower = BigInteger.valueOf(radix).pow(repetendEnd - repetendStart).subtract(BigInteger.ONE);
+                numerator = numerator.multiply(repetendPower).add(RadixConversion.parse(digits, repetendStart, repetendEnd, radix));
+                denominator = denominator.multiply(repetendPower);
+            }
+            value = BigRationalNumber.valueOf(negative ? numerator.negate() : numerator, denominator);
+        }
+        return new NmalNumber(value, radix);
+    }
+
+    private static int skipDigits(CharSequence digits, int from, int radix) {
+        while (from < digits.length() && RadixConversion.digit(digits.charAt(from), radix) >= 0) ++from;
+        return from;
+    }
+
+    public static NmalNumber valueOf(long number, int radix) {
+        RadixConversion.checkRadix(radix);
+        return new NmalNumber(BigRationalNumber.valueOf(number), radix);
+    }
+
+    public static NmalNumber valueOf(BigInteger number, int radix) {
+
+        if (number == null) throw new NullParamenterException();
+        RadixConversion.checkRadix(radix);
+
+        return new NmalNumber(BigRationalNumber.valueOf(number), radix);
+    }
+
+    public static NmalNumber valueOf(RationalNumber number, int radix) {
+
+        if (number == null) throw new NullParamenterException();
+        RadixConversion.checkRadix(radix);
+
+        return new NmalNumber(BigRationalNumber.valueOf(number), radix);
+    }
+
+    public static NmalNumber valueOf(BigRationalNumber number, int radix) {
+
+        if (number == null) throw new NullParamenterException();
+        RadixConversion.checkRadix(radix);
+
+        return new NmalNumber(number, radix);
+    }
+
+    public int radix() { return radix; }
+
+    /**
+     * @return the same value written in another radix
+     */
+    public NmalNumber toRadix(int radix) {
+        RadixConversion.checkRadix(radix);
+        return radix == this.radix ? this : new NmalNumber(value, radix);
+    }
+
+    /**
+     * @throws org.jnum.abstractnumber.rational.exceptions.RationalOverflowException if the
+     *         numerator or the denominator does not fit in a long
+     */
+    public RationalNumber rationalNumberValue() { return value.rationalNumberValueExact(); }
+
+    public BigRationalNumber bigRationalNumberValue() { return value; }
+
+    private NmalNumber with(BigRationalNumber value) {
+        return new NmalNumber(value, radix);
+    }
+
+    public int signum() { return value.signum(); }
+
+    @Override
+    public NmalNumber toggleSign() { return with(value.toggleSign()); }
+
+    @Override
+    public NmalNumber abs() { return value.signum() < 0 ? toggleSign() : this; }
+
+    @Override
+    public int intValue() { return value.intValue(); }
+
+    @Override
+    public long longValue() { return value.longValue(); }
+
+    @Override
+    public float floatValue() { return value.floatValue(); }
+
+    @Override
+    public double doubleValue() { return value.doubleValue(); }
+
+    @Override
+    public BigDecimal bigDecimalValue() { return value.bigDecimalValue(); }
+
+    @Override
+    public BigDecimal bigDecimalValueWithCustomRounding(int scale, RoundingMode roundingMode) {
+        return value.bigDecimalValueWithCustomRounding(scale, roundingMode);
+    }
+
+    @Override
+    public NmalNumber reciprocal() { return with(value.reciprocal()); }
+
+    @Override
+    public NmalNumber multiply(NmalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        return with(value.multiply(other.value));
+    }
+
+    @Override
+    public NmalNumber divide(NmalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        return with(value.divide(other.value));
+    }
+
+    @Override
+    public NmalNumber add(NmalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        return with(value.add(other.value));
+    }
+
+    @Override
+    public NmalNumber subtract(NmalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        return with(value.subtract(other.value));
+    }
+
+    @Override
+    public NmalNumber multiply(long other) { return with(value.multiply(other)); }
+
+    @Override
+    public NmalNumber divide(long other) { return with(value.divide(other)); }
+
+    @Override
+    public NmalNumber add(long other) { return with(value.add(other)); }
+
+    @Override
+    public NmalNumber subtract(long other) { return with(value.subtract(other)); }
+
+    @Override
+    public NmalNumber increment() { return with(value.increment()); }
+
+    @Override
+    public NmalNumber decrement() { return with(value.decrement()); }
+
+    @Override
+    public NmalNumber duplicateThis() { return new NmalNumber(value, radix); }
+
+    @Override
+    public NmalNumber sum(NmalNumber... others) {
+
+        if (others == null) throw new NullParamenterException();
+
+        BigRationalNumber result = value;
+        for (NmalNumber other : others) result = result.add(other.value);
+        return with(result);
+    }
+
+    @Override
+    public NmalNumber product(NmalNumber... others) {
+
+        if (others == null) throw new NullParamenterException();
+
+        BigRationalNumber result = value;
+        for (NmalNumber other : others) result = result.multiply(other.value);
+        return with(result);
+    }
+
+    @Override
+    public NmalNumber difference(NmalNumber... others) {
+
+        if (others == null) throw new NullParamenterException();
+
+        BigRationalNumber result = value;
+        for (NmalNumber other : others) result = result.subtract(other.value);
+        return with(result);
+    }
+
+    @Override
+    public NmalNumber quotient(NmalNumber... others) {
+
+        if (others == null) throw new NullParamenterException();
+
+        BigRationalNumber result = value;
+        for (NmalNumber other : others) result = result.divide(other.value);
+        return with(result);
+    }
+
+    @Override
+    public NmalNumber applyPercentage() { return with(value.applyPercentage()); }
+
+    @Override
+    public NmalNumber getPercentageOf(NmalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return with(value.getPercentageOf(number.value));
+    }
+
+    @Override
+    public NmalNumber power(long exponent) { return with(value.power(exponent)); }
+
+    @Override
+    public NmalNumber power(NmalNumber exponent) {
+
+        if (exponent == null) throw new NullParamenterException();
+
+        return with(value.power(exponent.value));
+    }
+
+    @Override
+    public List<NmalNumber> range(NmalNumber stop) {
+
+        if (stop == null) throw new NullParamenterException();
+
+        return wrap(value.range(stop.value));
+    }
+
+    @Override
+    public List<NmalNumber> range(NmalNumber stop, long step) {
+
+        if (stop == null) throw new NullParamenterException();
+
+        return wrap(value.range(stop.value, step));
+    }
+
+    /**
+     * @see BigRationalNumber#range(BigRationalNumber, BigRationalNumber, BigRationalNumber)
+     * @throws IllegalArgumentException if the step is zero or the range is too long for a list
+     */
+    @Override
+    public List<NmalNumber> range(NmalNumber stop, NmalNumber step) {
+
+        if (stop == null || step == null) throw new NullParamenterException();
+
+        return wrap(value.range(stop.value, step.value));
+    }
+
+    /* a view over the lazy range: elements are computed and wrapped on access */
+    private List<NmalNumber> wrap(List<BigRationalNumber> values) {
+        return new WrappedList(values);
+    }
+
+    private final class WrappedList extends AbstractList<NmalNumber> implements RandomAccess {
+
+        private final List<BigRationalNumber> values;
+
+        private WrappedList(List<BigRationalNumber> values) {
+            this.values = values;
+        }
+
+        @Override
+        public NmalNumber get(int index) {
+            return with(values.get(index));
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+    }
+
+    @Override
+    public int compareTo(NmalNumber o) {
+
+        if (o == null) throw new NullParamenterException();
+
+        return value.compareTo(o.value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        NmalNumber that = (NmalNumber) o;
+        return radix == that.radix && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * value.hashCode() + radix;
+    }
+
+    /**
+     * @return the exact digits in the radix of this number, with the repeating fractional digits
+     *         in parentheses; note that the period of {@code 1/d} can be up to {@code d - 1}
+     *         digits long
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        BigInteger numerator = value.numerator();
+        if (numerator.signum() < 0) builder.append('-');
+
+        BigInteger[] qr = numerator.abs().divideAndRemainder(value.denominator());
+        RadixConversion.appendInteger(qr[0], radix, builder);
+        if (qr[1].signum() != 0) {
+            builder.append('.');
+            RadixConversion.appendFraction(qr[1], value.denominator(), radix, builder);
+        }
+        return builder.toString();
+    }
+}
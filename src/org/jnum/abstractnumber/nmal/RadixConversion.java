@@ -0,0 +1,271 @@
+package org.jnum.abstractnumber.nmal;
+
+import org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Digit strings in radix 2 to 36, read and written through lookup tables.
+ * <p>
+ * The digits are grouped in chunks, as many as fit in a long ({@link #CHUNK_DIGITS}), so the
+ * {@link BigInteger} arithmetic runs once per chunk and never once per digit. Long digit strings
+ * are converted by divide and conquer on the powers {@code radix^(chunk * 2^k)}: a string is read
+ * as {@code high * radix^n + low}, and a number is written as the quotient and the zero padded
+ * remainder of its division by such a power, so the conversions take the time of a few large
+ * multiplications or divisions instead of a quadratic number of small ones.
+ * <p>
+ * The fractional digits of a fraction are written by long division. The digits before the period
+ * are as many as needed to remove from the denominator its prime factors shared with the radix,
+ * and the repeating digits are enclosed in parentheses: {@code 1/6} is {@code 0.1(6)} in radix 10
+ * and {@code 1/5} is {@code 0.(2497)} in radix 12.
+ */
+final class RadixConversion {
+
+    static final int MIN_RADIX = 2;
+    static final int MAX_RADIX = 36;
+
+    private final static char[] DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    /* the value of an ASCII digit in any case, -1 for the other characters */
+    private final static byte[] DIGIT_VALUES = new byte[128];
+
+    /* the largest number of digits whose value always fits in a long, and radix to that power */
+    private final static int[] CHUNK_DIGITS = new int[MAX_RADIX + 1];
+    private final static long[] CHUNK_POWERS = new long[MAX_RADIX + 1];
+
+    /* radix^(chunk * 2^k) for every radix, grown on demand */
+    private final static BigInteger[][] POWERS = new BigInteger[MAX_RADIX + 1][0];
+
+    /* strings of at most this many chunks are read chunk after chunk */
+    private final static int PARSE_THRESHOLD_CHUNKS = 16;
+
+    static {
+        Arrays.fill(DIGIT_VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; ++i) {
+            DIGIT_VALUES[DIGITS[i]] = (byte) i;
+            DIGIT_VALUES[Character.toUpperCase(DIGITS[i])] = (byte) i;
+        }
+
+        for (int radix = MIN_RADIX; radix <= MAX_RADIX; ++radix) {
+            int digits = 0;
+            long power = 1;
+            while (power <= Long.MAX_VALUE / radix) {
+                power *= radix;
+                ++digits;
+            }
+            CHUNK_DIGITS[radix] = digits;
+            CHUNK_POWERS[radix] = power;
+        }
+    }
+
+    private RadixConversion() { }
+
+    static void checkRadix(int radix) {
+        if (radix < MIN_RADIX || radix > MAX_RADIX)
+            throw new IllegalArgumentException("the radix must be between " + MIN_RADIX + " and " + MAX_RADIX + ": " + radix);
+    }
+
+    /**
+     * @return the number of digits whose value always fits in a long
+     */
+    static int chunkDigits(int radix) { return CHUNK_DIGITS[radix]; }
+
+    /**
+     * @return the value of the digit, or -1 if the character is not a digit of the radix
+     */
+    static int digit(char c, int radix) {
+        int value = c < DIGIT_VALUES.length ? DIGIT_VALUES[c] : -1;
+        return value < radix ? value : -1;
+    }
+
+    /**
+     * Reads the digits {@code [from, to)} of {@code sequence}, which must all be digits of the
+     * radix.
+     */
+    static BigInteger parse(CharSequence sequence, int from, int to, int radix) {
+        int chunk = CHUNK_DIGITS[radix];
+        int length = to - from;
+        if (length <= chunk) return BigInteger.valueOf(parseLong(sequence, from, to, radix));
+        if (length <= chunk * PARSE_THRESHOLD_CHUNKS) return parseChunks(sequence, from, to, radix);
+
+        // the low part is the largest chunk * 2^k digits shorter than the string
+        int k = 0;
+        while ((long) chunk << (k + 1) < length) ++k;
+        int split = to - (chunk << k);
+        BigInteger high = parse(sequence, from, split, radix);
+        BigInteger low = parse(sequence, split, to, radix);
+        return high.multiply(power(radix, k)).add(low);
+    }
+
+    private static BigInteger parseChunks(CharSequence sequence, int from, int to, int radix) {
+        int chunk = CHUNK_DIGITS[radix];
+        BigInteger chunkPower = BigInteger.valueOf(CHUNK_POWERS[radix]);
+
+        // the first chunk takes the digits that do not fill a whole chunk
+        int end = from + (to - from) % chunk;
+        if (end == from) end += chunk;
+        BigInteger value = BigInteger.valueOf(parseLong(sequence, from, end, radix));
+        for (int start = end; start < to; start += chunk)
+            value = value.multiply(chunkPower).add(BigInteger.valueOf(parseLong(sequence, start, start + chunk, radix)));
+        return value;
+    }
+
+    /* at most one chunk of digits */
+    static long parseLong(CharSequence sequence, int from, int to, int radix) {
+        long value = 0;
+        for (int i = from; i < to; ++i) {
+            int digit = digit(sequence.charAt(i), radix);
+            if (digit < 0) throw new InvalidFormatStringException();
+            value = value * radix + digit;
+        }
+        return value;
+    }
+
+    /**
+     * @return {@code radix^(chunk * 2^k)}
+     */
+    static BigInteger power(int radix, int k) {
+        synchronized (POWERS) {
+            BigInteger[] powers = POWERS[radix];
+            if (k >= powers.length) {
+                int length = powers.length;
+                powers = Arrays.copyOf(powers, k + 1);
+                if (length == 0) powers[length++] = BigInteger.valueOf(CHUNK_POWERS[radix]);
+                for (int i = length; i <= k; ++i) powers[i] = powers[i - 1].multiply(powers[i - 1]);
+                POWERS[radix] = powers;
+            }
+            return powers[k];
+        }
+    }
+
+    /**
+     * Writes the digits of a non negative integer.
+     */
+    static void appendInteger(BigInteger value, int radix, StringBuilder out) {
+        appendInteger(value, radix, 0, out);
+    }
+
+    private static void appendInteger(BigInteger value, int radix, int minDigits, StringBuilder out) {
+        if (value.bitLength() < Long.SIZE) {
+            appendLong(value.longValue(), radix, minDigits, out);
+            return;
+        }
+
+        // the largest power with about half the bits of the value, at least radix^chunk
+        int k = 0;
+        while (2 * power(radix, k).bitLength() <= value.bitLength() / 2 + 1) ++k;
+        int lowDigits = CHUNK_DIGITS[radix] << k;
+        BigInteger[] qr = value.divideAndRemainder(power(radix, k));
+        appendInteger(qr[0], radix, minDigits - lowDigits, out);
+        appendInteger(qr[1], radix, lowDigits, out);
+    }
+
+    /**
+     * Writes the digits of a non negative long, left padded with zeros to {@code minDigits}.
+     */
+    static void appendLong(long value, int radix, int minDigits, StringBuilder out) {
+        int digits = 1;
+        for (long power = radix; power <= value && digits < Long.SIZE; power *= radix) {
+            ++digits;
+            if (power > Long.MAX_VALUE / radix) break;
+        }
+        for (int i = digits; i < minDigits; ++i) out.append('0');
+
+        int start = out.length();
+        out.setLength(start + digits);
+        for (int i = start + digits - 1; i >= start; --i) {
+            out.setCharAt(i, DIGITS[(int) (value % radix)]);
+            value /= radix;
+        }
+    }
+
+    /**
+     * Writes the fractional digits of {@code remainder / denominator}, with
+     * {@code 0 < remainder < denominator} and a positive denominator.
+     */
+    static void appendFraction(BigInteger remainder, BigInteger denominator, int radix, StringBuilder out) {
+        // the digits before the period remove from the denominator the primes of the radix
+        int preperiod = 0;
+        int rest = radix;
+        for (int prime = 2; rest > 1; ++prime) {
+            if (rest % prime != 0) continue;
+            int exponent = 0;
+            for (; rest % prime == 0; rest /= prime) ++exponent;
+            int multiplicity = multiplicity(denominator, prime);
+            preperiod = Math.max(preperiod, (multiplicity + exponent - 1) / exponent);
+        }
+
+        // the remainders times the radix fit in a long
+        if (denominator.bitLength() < Long.SIZE - 6) {
+            appendFraction(remainder.longValue(), denominator.longValue(), radix, preperiod, out);
+            return;
+        }
+
+        int chunk = CHUNK_DIGITS[radix];
+        BigInteger chunkPower = BigInteger.valueOf(CHUNK_POWERS[radix]);
+        for (int i = 0; i < preperiod / chunk; ++i) remainder = appendChunk(remainder, chunkPower, denominator, radix, chunk, out);
+        if (preperiod % chunk != 0)
+            remainder = appendChunk(remainder, BigInteger.valueOf(radix).pow(preperiod % chunk), denominator,
+                                    radix, preperiod % chunk, out);
+        if (remainder.signum() == 0) return;
+
+        // whole chunks until the remainder comes back, then the shortest period of those digits
+        out.append('(');
+        int start = out.length();
+        BigInteger first = remainder;
+        do {
+            remainder = appendChunk(remainder, chunkPower, denominator, radix, chunk, out);
+        } while (!remainder.equals(first));
+        int length = out.length() - start;
+        for (int period = 1; period <= length; ++period) {
+            if (length % period == 0 && isPeriodic(out, start, length, period)) {
+                out.setLength(start + period);
+                break;
+            }
+        }
+        out.append(')');
+    }
+
+    private static void appendFraction(long remainder, long denominator, int radix, int preperiod, StringBuilder out) {
+        for (int i = 0; i < preperiod; ++i) {
+            remainder *= radix;
+            out.append(DIGITS[(int) (remainder / denominator)]);
+            remainder %= denominator;
+        }
+        if (remainder == 0) return;
+
+        out.append('(');
+        long first = remainder;
+        do {
+            remainder *= radix;
+            out.append(DIGITS[(int) (remainder / denominator)]);
+            remainder %= denominator;
+        } while (remainder != first);
+        out.append(')');
+    }
+
+    /* writes the next digits of remainder / denominator, power = radix^digits */
+    private static BigInteger appendChunk(BigInteger remainder, BigInteger power, BigInteger denominator,
+                                          int radix, int digits, StringBuilder out) {
+        BigInteger[] qr = remainder.multiply(power).divideAndRemainder(denominator);
+        appendLong(qr[0].longValue(), radix, digits, out);
+        return qr[1];
+    }
+
+    private static boolean isPeriodic(CharSequence digits, int start, int length, int period) {
+        for (int i = start + period; i < start + length; ++i)
+            if (digits.charAt(i) != digits.charAt(i - period)) return false;
+        return true;
+    }
+
+    private static int multiplicity(BigInteger value, int prime) {
+        if (prime == 2) return value.getLowestSetBit();
+
+        BigInteger divisor = BigInteger.valueOf(prime);
+        int multiplicity = 0;
+        for (BigInteger[] qr = value.divideAndRemainder(divisor); qr[1].signum() == 0; qr = qr[0].divideAndRemainder(divisor))
+            ++multiplicity;
+        return multiplicity;
+    }
+}
@@ -0,0 +1,588 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.AbstractNumber;
+import org.jnum.abstractnumber.rational.exceptions.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Arbitrary precision rational number.
+ * <p>
+ * Like {@link BigDecimal} with its compact long representation, a value whose reduced numerator and
+ * denominator both fit in a long is held as a {@link RationalNumber} and every operation between two
+ * compact values runs on the long fast path. The value is promoted to a pair of {@link BigInteger}s
+ * only when a result overflows, and it is demoted back as soon as the reduced result fits again.
+ */
+public class BigRationalNumber extends Number implements AbstractNumber<BigRationalNumber> {
+
+    private final static int DEFAULT_SCALE = 2;
+    private final static RoundingMode DEFAULT_ROUNDING_MODE = RoundingMode.HALF_UP;
+
+    public final static BigRationalNumber ZERO = new BigRationalNumber(RationalNumber.ZERO);
+    public final static BigRationalNumber ONE = new BigRationalNumber(RationalNumber.ONE);
+    public final static BigRationalNumber MINUS_ONE = new BigRationalNumber(RationalNumber.MINUS_ONE);
+    public final static BigRationalNumber TEN = new BigRationalNumber(RationalNumber.TEN);
+    public final static BigRationalNumber HUNDRED = new BigRationalNumber(RationalNumber.HUNDRED);
+
+    /* non null if and only if the reduced value fits in a RationalNumber */
+    private final RationalNumber compact;
+
+    /* null when the value is compact */
+    private final BigInteger numerator;
+    private final BigInteger denominator;
+
+    public BigRationalNumber(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        this.compact = number;
+        this.numerator = null;
+        this.denominator = null;
+    }
+
+    public BigRationalNumber(BigInteger numerator, BigInteger denominator) {
+
+        if (numerator == null || denominator == null) throw new NullParamenterException();
+        if (denominator.signum() == 0) throw new ZeroDenominatorException();
+
+        if (denominator.signum() < 0) {
+            numerator = numerator.negate();
+            denominator = denominator.negate();
+        }
+
+        BigInteger gcd = numerator.gcd(denominator);
+        if (!gcd.equals(BigInteger.ONE)) {
+            numerator = numerator.divide(gcd);
+            denominator = denominator.divide(gcd);
+        }
+
+        if (numerator.bitLength() < Long.SIZE && denominator.bitLength() < Long.SIZE) {
+            this.compact = RationalNumber.valueOf(numerator.longValue(), denominator.longValue());
+            this.numerator = null;
+            this.denominator = null;
+        } else {
+            this.compact = null;
+            this.numerator = numerator;
+            this.denominator = denominator;
+        }
+    }
+
+    public BigRationalNumber(BigInteger numerator) { this(numerator, BigInteger.ONE); }
+
+    public BigRationalNumber(long numerator, long denominator) {
+        this(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+
+    public BigRationalNumber(long numerator) { this(RationalNumber.valueOf(numerator)); }
+
+    public BigRationalNumber(BigDecimal number) {
+        this(nonNull(number).scale() > 0 ? number.unscaledValue() : number.toBigIntegerExact(),
+                number.scale() > 0 ? BigInteger.TEN.pow(number.scale()) : BigInteger.ONE);
+    }
+
+    public BigRationalNumber(String number) { this(parseBigDecimal(nonNull(number))); }
+
+    /* the argument of a delegating constructor cannot be checked by a statement */
+    private static <T> T nonNull(T value) {
+        if (value == null) throw new NullParamenterException();
+        return value;
+    }
+
+    private static BigDecimal parseBigDecimal(String number) {
+        try {
+            return new BigDecimal(number.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidFormatStringException();
+        }
+    }
+
+    public BigInteger numerator() {
+        return compact != null ? BigInteger.valueOf(compact.numerator()) : numerator;
+    }
+
+    public BigInteger denominator() {
+        return compact != null ? BigInteger.valueOf(compact.denominator()) : denominator;
+    }
+
+    /**
+     * @return true if both the numerator and the denominator fit in a long
+     */
+    public boolean isCompact() { return compact != null; }
+
+    /**
+     * Demotes this number to a {@link RationalNumber}.
+     *
+     * @throws RationalOverflowException if the numerator or the denominator does not fit in a long
+     */
+    public RationalNumber rationalNumberValueExact() {
+        if (compact == null) {
+            RationalMetrics.overflow(numerator.bitLength(), denominator.bitLength());
+            throw new RationalOverflowException("the value does not fit in a RationalNumber, "
+                    + "numerator and denominator need " + numerator.bitLength() + " and "
+                    + denominator.bitLength() + " bits");
+        }
+        return compact;
+    }
+
+    static BigRationalNumber multiplyInflated(BigRationalNumber first, BigRationalNumber second) {
+        RationalMetrics.count(RationalMetrics.Counter.PROMOTIONS);
+        return new BigRationalNumber(
+                first.numerator().multiply(second.numerator()),
+                first.denominator().multiply(second.denominator()));
+    }
+
+    static BigRationalNumber divideInflated(BigRationalNumber first, BigRationalNumber second) {
+        RationalMetrics.count(RationalMetrics.Counter.PROMOTIONS);
+        return new BigRationalNumber(
+                first.numerator().multiply(second.denominator()),
+                first.denominator().multiply(second.numerator()));
+    }
+
+    static BigRationalNumber addInflated(BigRationalNumber first, BigRationalNumber second) {
+        RationalMetrics.count(RationalMetrics.Counter.PROMOTIONS);
+        return new BigRationalNumber(
+                first.numerator().multiply(second.denominator())
+                        .add(second.numerator().multiply(first.denominator())),
+                first.denominator().multiply(second.denominator()));
+    }
+
+    static BigRationalNumber subtractInflated(BigRationalNumber first, BigRationalNumber second) {
+        RationalMetrics.count(RationalMetrics.Counter.PROMOTIONS);
+        return new BigRationalNumber(
+                first.numerator().multiply(second.denominator())
+                        .subtract(second.numerator().multiply(first.denominator())),
+                first.denominator().multiply(second.denominator()));
+    }
+
+    /* not counted as a promotion: the roots also use it when nothing overflowed */
+    static BigRationalNumber powerInflated(BigRationalNumber base, long exponent) {
+
+        if (base.signum() == 0 && exponent == 0) throw new ZeroExponentialException();
+
+        int exp;
+        try {
+            exp = Math.toIntExact(Math.abs(exponent));
+        } catch (ArithmeticException e) {
+            throw new RationalOverflowException("exponent too large: " + exponent);
+        }
+
+        if (exponent >= 0)
+            return new BigRationalNumber(base.numerator().pow(exp), base.denominator().pow(exp));
+        return new BigRationalNumber(base.denominator().pow(exp), base.numerator().pow(exp));
+    }
+
+    public int signum() {
+        return compact != null ? Long.signum(compact.numerator()) : numerator.signum();
+    }
+
+    @Override
+    public BigRationalNumber toggleSign() {
+        if (compact != null && compact.numerator() != Long.MIN_VALUE)
+            return new BigRationalNumber(compact.toggleSign());
+        return new BigRationalNumber(numerator().negate(), denominator());
+    }
+
+    @Override
+    public BigRationalNumber abs() {
+        return signum() < 0 ? toggleSign() : this;
+    }
+
+    @Override
+    public float floatValue() {
+        if (compact != null) return compact.floatValue();
+        return (float) roundedQuotient(numerator, denominator, 24, -149);
+    }
+
+    @Override
+    public double doubleValue() {
+        if (compact != null) return compact.doubleValue();
+        return roundedQuotient(numerator, denominator, 53, -1074);
+    }
+
+    /**
+     * The quotient {@code numerator / denominator} rounded half even to a binary floating point
+     * number with {@code precision} significant bits whose smallest subnormal is
+     * {@code 2^minExponent}: 53 and -1074 for a double, 24 and -149 for a float. The result is
+     * exactly representable in the target format, so a narrowing cast does not round again.
+     */
+    static double roundedQuotient(BigInteger numerator, BigInteger denominator, int precision, int minExponent) {
+        if (numerator.signum() == 0) return 0.0;
+
+        boolean negative = numerator.signum() < 0;
+        BigInteger magnitude = numerator.abs();
+
+        // the scaled quotient has precision + 2 or precision + 3 bits
+        int shift = precision + 2 - (magnitude.bitLength() - denominator.bitLength());
+        BigInteger[] qr = shift >= 0 ?
+                magnitude.shiftLeft(shift).divideAndRemainder(denominator) :
+                magnitude.divideAndRemainder(denominator.shiftLeft(-shift));
+        long quotient = qr[0].longValueExact();
+        boolean sticky = qr[1].signum() != 0;
+
+        // bits below the last significant bit, more of them for subnormal results
+        int drop = Math.max(Long.SIZE - Long.numberOfLeadingZeros(quotient) - precision, minExponent + shift);
+        long kept;
+        if (drop <= 0) {
+            kept = quotient;
+        } else if (drop >= Long.SIZE - 1) {
+            kept = 0;
+        } else {
+            kept = quotient >>> drop;
+            long rest = quotient & ((1L << drop) - 1);
+            long half = 1L << (drop - 1);
+            if (rest > half || rest == half && (sticky || (kept & 1) != 0)) ++kept;
+        }
+
+        double result = Math.scalb((double) kept, Math.max(drop, 0) - shift);
+        return negative ? -result : result;
+    }
+
+    @Override
+    public int intValue() { return (int) longValue(); }
+
+    @Override
+    public long longValue() {
+        if (compact != null) return compact.longValue();
+        return numerator.divide(denominator).longValue();
+    }
+
+    @Override
+    public BigDecimal bigDecimalValue() {
+        return bigDecimalValueWithCustomRounding(DEFAULT_SCALE, DEFAULT_ROUNDING_MODE);
+    }
+
+    @Override
+    public BigDecimal bigDecimalValueWithCustomRounding(int scale, RoundingMode roundingMode) {
+        if (compact != null) return compact.bigDecimalValueWithCustomRounding(scale, roundingMode);
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator), scale, roundingMode);
+    }
+
+    @Override
+    public BigRationalNumber reciprocal() {
+        if (compact != null && compact.numerator() != Long.MIN_VALUE)
+            return new BigRationalNumber(compact.reciprocal());
+        return new BigRationalNumber(denominator(), numerator());
+    }
+
+    @Override
+    public BigRationalNumber multiply(BigRationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (compact != null && other.compact != null) {
+            try {
+                return new BigRationalNumber(compact.multiplyExact(other.compact.numerator(), other.compact.denominator()));
+            } catch (ArithmeticException ignored) {
+                // promoted below
+            }
+        }
+        return multiplyInflated(this, other);
+    }
+
+    @Override
+    public BigRationalNumber divide(BigRationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+        if (other.signum() == 0) throw new ZeroDenominatorException();
+
+        if (compact != null && other.compact != null) {
+            try {
+                return new BigRationalNumber(compact.multiplyExact(other.compact.denominator(), other.compact.numerator()));
+            } catch (ArithmeticException ignored) {
+                // promoted below
+            }
+        }
+        return divideInflated(this, other);
+    }
+
+    @Override
+    public BigRationalNumber add(BigRationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (compact != null && other.compact != null) {
+            try {
+                return new BigRationalNumber(compact.addExact(other.compact.numerator(), other.compact.denominator()));
+            } catch (ArithmeticException ignored) {
+                // promoted below
+            }
+        }
+        return addInflated(this, other);
+    }
+
+    @Override
+    public BigRationalNumber subtract(BigRationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (compact != null && other.compact != null && other.compact.numerator() != Long.MIN_VALUE) {
+            try {
+                return new BigRationalNumber(compact.addExact(-other.compact.numerator(), other.compact.denominator()));
+            } catch (ArithmeticException ignored) {
+                // promoted below
+            }
+        }
+        return subtractInflated(this, other);
+    }
+
+    @Override
+    public BigRationalNumber multiply(long other) {
+        return multiply(valueOf(other));
+    }
+
+    @Override
+    public BigRationalNumber divide(long other) {
+        return divide(valueOf(other));
+    }
+
+    @Override
+    public BigRationalNumber add(long other) {
+        return add(valueOf(other));
+    }
+
+    @Override
+    public BigRationalNumber subtract(long other) {
+        return subtract(valueOf(other));
+    }
+
+    @Override
+    public BigRationalNumber increment() {
+        return add(ONE);
+    }
+
+    @Override
+    public BigRationalNumber decrement() {
+        return subtract(ONE);
+    }
+
+    @Override
+    public BigRationalNumber duplicateThis() {
+        return compact != null ? new BigRationalNumber(compact) : new BigRationalNumber(numerator, denominator);
+    }
+
+    @Override
+    public BigRationalNumber sum(BigRationalNumber... others) {
+
+        if (others == null) throw new NullParamenterException();
+
+        BigRationalNumber result = this;
+        for (BigRationalNumber other : others) result = result.add(other);
+        return result;
+    }
+
+    @Override
+    public BigRationalNumber product(BigRationalNumber... others) {
+
+        if (others == null) throw new NullParamenterException();
+
+        BigRationalNumber result = this;
+        for (BigRationalNumber other : others) result = result.multiply(other);
+        return result;
+    }
+
+    @Override
+    public BigRationalNumber difference(BigRationalNumber... others) {
+
+        if (others == null) throw new NullParamenterException();
+
+        BigRationalNumber result = this;
+        for (BigRationalNumber other : others) result = result.subtract(other);
+        return result;
+    }
+
+    @Override
+    public BigRationalNumber quotient(BigRationalNumber... others) {
+
+        if (others == null) throw new NullParamenterException();
+
+        BigRationalNumber result = this;
+        for (BigRationalNumber other : others) result = result.divide(other);
+        return result;
+    }
+
+    @Override
+    public BigRationalNumber applyPercentage() {
+        return multiply(HUNDRED);
+    }
+
+    @Override
+    public BigRationalNumber getPercentageOf(BigRationalNumber number) {
+        return multiply(number).applyPercentage();
+    }
+
+    @Override
+    public BigRationalNumber power(long exponent) {
+        if (compact != null) {
+            try {
+                return new BigRationalNumber(compact.powerExact(exponent));
+            } catch (ArithmeticException e) {
+                // promoted below
+                RationalMetrics.count(RationalMetrics.Counter.PROMOTIONS);
+            }
+        }
+        return powerInflated(this, exponent);
+    }
+
+    @Override
+    public BigRationalNumber power(BigRationalNumber exponent) {
+
+        if (exponent == null) throw new NullParamenterException();
+        if (exponent.compact != null && exponent.compact.denominator() == 1)
+            return power(exponent.compact.numerator());
+        throw new NotImplementedFeatureException("powers with rational exponent");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BigRationalNumber that = (BigRationalNumber) o;
+        if (compact != null) return compact.equals(that.compact);
+        return that.compact == null && numerator.equals(that.numerator) && denominator.equals(that.denominator);
+    }
+
+    @Override
+    public int hashCode() {
+        return compact != null ? compact.hashCode() : Objects.hash(numerator, denominator);
+    }
+
+    @Override
+    public String toString() {
+        if (compact != null) return compact.toString();
+        return denominator.equals(BigInteger.ONE) ?
+                numerator.toString() :
+                "{" + numerator + "/" + denominator + "}";
+    }
+
+    public static BigRationalNumber valueOf(RationalNumber number) {
+        return new BigRationalNumber(number);
+    }
+
+    public static BigRationalNumber valueOf(BigInteger numerator, BigInteger denominator) {
+        return new BigRationalNumber(numerator, denominator);
+    }
+
+    public static BigRationalNumber valueOf(BigInteger numerator) {
+        return new BigRationalNumber(numerator);
+    }
+
+    public static BigRationalNumber valueOf(long numerator, long denominator) {
+        return new BigRationalNumber(numerator, denominator);
+    }
+
+    public static BigRationalNumber valueOf(long numerator) {
+        return new BigRationalNumber(numerator);
+    }
+
+    public static BigRationalNumber valueOf(BigDecimal decimalNumber) {
+
+        if (decimalNumber == null) throw new NullParamenterException();
+        return new BigRationalNumber(decimalNumber);
+    }
+
+    /**
+     * @return the exact value of {@code number}, like {@link RationalNumber#valueOfExact(double)} but
+     *         for every finite double
+     * @throws IllegalArgumentException if the number is NaN or infinite
+     */
+    public static BigRationalNumber valueOf(double number) {
+        long bits = Double.doubleToRawLongBits(number);
+        int biasedExponent = (int) (bits >>> 52) & 0x7FF;
+        if (biasedExponent == 0x7FF) throw new IllegalArgumentException("not a finite number: " + number);
+
+        long mantissa = bits & 0xFFFFFFFFFFFFFL;
+        int exponent = biasedExponent == 0 ? -1074 : biasedExponent - 1075;
+        if (biasedExponent != 0) mantissa |= 1L << 52;
+
+        BigInteger significand = BigInteger.valueOf(bits < 0 ? -mantissa : mantissa);
+        return exponent >= 0 ?
+                new BigRationalNumber(significand.shiftLeft(exponent)) :
+                new BigRationalNumber(significand, BigInteger.ONE.shiftLeft(-exponent));
+    }
+
+    public static BigRationalNumber valueOf(String number) {
+
+        if (number == null) throw new NullParamenterException();
+        return new BigRationalNumber(number);
+    }
+
+    @Override
+    public List<BigRationalNumber> range(BigRationalNumber stop) {
+        return range(this, stop, ONE);
+    }
+
+    @Override
+    public List<BigRationalNumber> range(BigRationalNumber stop, long step) {
+        return range(this, stop, valueOf(step));
+    }
+
+    @Override
+    public List<BigRationalNumber> range(BigRationalNumber stop, BigRationalNumber step) {
+        return range(this, stop, step);
+    }
+
+    /**
+     * Like {@link RationalNumber#range(RationalNumber, RationalNumber, RationalNumber)}, a lazy list
+     * whose i-th element is {@code start + i * step}; the absolute value of {@code step} is used in
+     * the direction from {@code start} to {@code stop}.
+     *
+     * @throws IllegalArgumentException if the step is zero or the range has more than
+     *         {@code Integer.MAX_VALUE} elements
+     */
+    public static List<BigRationalNumber> range(BigRationalNumber start, BigRationalNumber stop, BigRationalNumber step) {
+
+        if (start == null || stop == null || step == null) throw new NullParamenterException();
+        if (step.signum() == 0) throw new IllegalArgumentException("the step of a range cannot be zero");
+
+        BigRationalNumber directedStep = (start.compareTo(stop) > 0) == (step.signum() < 0) ? step : step.toggleSign();
+
+        // ceil((stop - start) / step)
+        BigRationalNumber steps = stop.subtract(start).divide(directedStep);
+        BigInteger[] quotientAndRemainder = steps.numerator().divideAndRemainder(steps.denominator());
+        BigInteger count = quotientAndRemainder[1].signum() == 0 ?
+                quotientAndRemainder[0] :
+                quotientAndRemainder[0].add(BigInteger.ONE);
+        if (count.bitLength() >= Integer.SIZE)
+            throw new IllegalArgumentException("the range has " + count + " elements");
+
+        return new Range(start, directedStep, count.intValue());
+    }
+
+    private static final class Range extends AbstractList<BigRationalNumber> implements RandomAccess {
+
+        private final BigRationalNumber start;
+        private final BigRationalNumber step;
+        private final int size;
+
+        Range(BigRationalNumber start, BigRationalNumber step, int size) {
+            this.start = start;
+            this.step = step;
+            this.size = size;
+        }
+
+        @Override
+        public BigRationalNumber get(int index) {
+            if (index < 0 || index >= size)
+                throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + size);
+            return index == 0 ? start : start.add(step.multiply(index));
+        }
+
+        @Override
+        public int size() { return size; }
+    }
+
+    @Override
+    public int compareTo(BigRationalNumber o) {
+
+        if (o == null) throw new NullParamenterException();
+
+        if (compact != null && o.compact != null) return compact.compareTo(o.compact);
+        return numerator().multiply(o.denominator()).compareTo(o.numerator().multiply(denominator()));
+    }
+}
@@ -0,0 +1,238 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+/**
+ * Static operations on rational numbers packed in a single {@code long}, for columns stored in a
+ * plain {@code long[]} and for primitive map keys.
+ * <p>
+ * A packed value holds a reduced fraction whose numerator fits in an {@code int} and whose
+ * denominator is between 1 and 2<sup>31</sup>: the high 32 bits are the numerator and the low 32
+ * bits the denominator minus one, so {@code 0L} is zero and a new {@code long[]} is a column of
+ * zeros. Every fraction has exactly one packing, so two packed values are equal if and only if
+ * the numbers are equal; the order of the longs is not the order of the numbers, use
+ * {@link #compare(long, long)}.
+ * <p>
+ * With these bounds every cross product of the arithmetic fits in a long, so the operations never
+ * overflow internally. When the reduced result does not fit in the packed format they return
+ * {@link #NOT_COMPACT} and the caller falls back to {@link RationalNumber}:
+ * <pre>{@code
+ * long sum = CompactRational.add(a, b);
+ * if (sum == CompactRational.NOT_COMPACT)
+ *     result = CompactRational.rationalNumberValue(a).add(CompactRational.rationalNumberValue(b));
+ * }</pre>
+ */
+public final class CompactRational {
+
+    public final static long ZERO = 0L;
+    public final static long ONE = 1L << 32;
+
+    /**
+     * Result of an operation that does not fit in the packed format. It is not a valid packed
+     * value: its denominator would be 2<sup>32</sup>.
+     */
+    public final static long NOT_COMPACT = 0xFFFF_FFFFL;
+
+    private final static long MAX_DENOMINATOR = 1L << 31;
+
+    private CompactRational() { }
+
+    /**
+     * @return true if the number can be packed
+     */
+    public static boolean fits(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return fitsReduced(number.numerator(), number.denominator());
+    }
+
+    private static boolean fitsReduced(long numerator, long denominator) {
+        return numerator == (int) numerator && denominator <= MAX_DENOMINATOR;
+    }
+
+    /**
+     * @throws RationalOverflowException if the number cannot be packed
+     */
+    public static long valueOf(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return checked(packReduced(number.numerator(), number.denominator()));
+    }
+
+    /**
+     * Reduces and packs the fraction.
+     *
+     * @throws RationalOverflowException if the reduced fraction cannot be packed
+     */
+    public static long valueOf(long numerator, long denominator) {
+
+        if (denominator == 0) throw new ZeroDenominatorException();
+
+        if (numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE)
+            return valueOf(RationalNumber.valueOf(numerator, denominator));
+        if (denominator < 0) {
+            numerator = -numerator;
+            denominator = -denominator;
+        }
+        return checked(pack(numerator, denominator));
+    }
+
+    public static long valueOf(int value) {
+        return (long) value << 32;
+    }
+
+    private static long checked(long packed) {
+        if (packed == NOT_COMPACT) throw new RationalOverflowException("the fraction does not fit in a compact rational");
+        return packed;
+    }
+
+    public static int numerator(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    public static long denominator(long packed) {
+        return (packed & 0xFFFF_FFFFL) + 1;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the argument is {@link #NOT_COMPACT}
+     */
+    public static RationalNumber rationalNumberValue(long packed) {
+        checkValid(packed);
+        return RationalNumber.valueOf(numerator(packed), denominator(packed));
+    }
+
+    /**
+     * @return {@code false} for {@link #NOT_COMPACT} and the other bit patterns that are not the
+     *         packing of a reduced fraction
+     */
+    public static boolean isValid(long packed) {
+        long denominator = denominator(packed);
+        return denominator <= MAX_DENOMINATOR
+               && RationalNumber.greatestCommonDenominator(numerator(packed), denominator) == 1;
+    }
+
+    public static long add(long first, long second) {
+        long firstDenominator = denominator(first);
+        long secondDenominator = denominator(second);
+        if (firstDenominator == secondDenominator)
+            return pack((long) numerator(first) + numerator(second), firstDenominator);
+
+        // n1 d2 + n2 d1 is between -2^63 and 2^63 - 2^32, and d1 d2 is at most 2^62
+        return pack((long) numerator(first) * secondDenominator + (long) numerator(second) * firstDenominator,
+                    firstDenominator * secondDenominator);
+    }
+
+    public static long subtract(long first, long second) {
+        long firstDenominator = denominator(first);
+        long secondDenominator = denominator(second);
+        if (firstDenominator == secondDenominator)
+            return pack((long) numerator(first) - numerator(second), firstDenominator);
+
+        return pack((long) numerator(first) * secondDenominator - (long) numerator(second) * firstDenominator,
+                    firstDenominator * secondDenominator);
+    }
+
+    public static long multiply(long first, long second) {
+        return pack((long) numerator(first) * numerator(second), denominator(first) * denominator(second));
+    }
+
+    public static long divide(long first, long second) {
+        int secondNumerator = numerator(second);
+
+        if (secondNumerator == 0) throw new ZeroDenominatorException();
+
+        long numerator = (long) numerator(first) * denominator(second);
+        long denominator = denominator(first) * secondNumerator;
+        return denominator < 0 ? pack(-numerator, -denominator) : pack(numerator, denominator);
+    }
+
+    public static long negate(long packed) {
+        return pack(-(long) numerator(packed), denominator(packed));
+    }
+
+    public static long reciprocal(long packed) {
+        return divide(ONE, packed);
+    }
+
+    public static int signum(long packed) {
+        return Integer.signum(numerator(packed));
+    }
+
+    public static int compare(long first, long second) {
+        long firstDenominator = denominator(first);
+        long secondDenominator = denominator(second);
+        if (firstDenominator == secondDenominator) return Integer.compare(numerator(first), numerator(second));
+
+        return Long.compare((long) numerator(first) * secondDenominator, (long) numerator(second) * firstDenominator);
+    }
+
+    /**
+     * Packs every element of the array.
+     *
+     * @throws RationalOverflowException if an element cannot be packed
+     */
+    public static long[] valueOf(RationalArray array) {
+
+        if (array == null) throw new NullParamenterException();
+
+        long[] column = new long[array.length()];
+        for (int i = 0; i < column.length; ++i) column[i] = checked(packReduced(array.numerator(i), array.denominator(i)));
+        return column;
+    }
+
+    public static RationalArray rationalArrayValue(long[] column) {
+
+        if (column == null) throw new NullParamenterException();
+
+        long[] numerators = new long[column.length];
+        long[] denominators = new long[column.length];
+        for (int i = 0; i < column.length; ++i) {
+            checkValid(column[i]);
+            numerators[i] = numerator(column[i]);
+            denominators[i] = denominator(column[i]);
+        }
+        return RationalArray.valueOf(numerators, denominators);
+    }
+
+    /**
+     * @return the exact sum of the column, which may not fit in the packed format
+     */
+    public static RationalNumber sum(long[] column) {
+
+        if (column == null) throw new NullParamenterException();
+
+        RationalAccumulator accumulator = new RationalAccumulator();
+        for (long packed : column) {
+            checkValid(packed);
+            accumulator.addFraction(numerator(packed), denominator(packed));
+        }
+        return accumulator.rationalNumberValue();
+    }
+
+    public static String toString(long packed) {
+        if (packed == NOT_COMPACT) return "NOT_COMPACT";
+        return rationalNumberValue(packed).toString();
+    }
+
+    private static void checkValid(long packed) {
+        if (packed == NOT_COMPACT) throw new IllegalArgumentException("the value is NOT_COMPACT");
+    }
+
+    /* the denominator is positive */
+    private static long pack(long numerator, long denominator) {
+        if (numerator == 0) return ZERO;
+
+        long gcd = RationalNumber.greatestCommonDenominator(numerator, denominator);
+        return packReduced(numerator / gcd, denominator / gcd);
+    }
+
+    private static long packReduced(long numerator, long denominator) {
+        if (!fitsReduced(numerator, denominator)) return NOT_COMPACT;
+        return numerator << 32 | (denominator - 1);
+    }
+}
@@ -0,0 +1,406 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link RationalExpression} compiled to a flat program over primitive registers, evaluated on
+ * single values or on whole columns in one pass.
+ * <p>
+ * Every node of the expression becomes one instruction, and identical subexpressions share one.
+ * An evaluation runs the instructions on numerator and denominator registers without reducing
+ * the intermediate results: the fractions are only kept with a positive denominator, additions of
+ * fractions with the same denominator just add the numerators, and the result is reduced once at
+ * the end. If an intermediate numerator or denominator overflows a long, the operands of that
+ * instruction are reduced and it is retried with the cross reducing kernels of the package; only
+ * if its reduced result does not fit either, that evaluation is redone on
+ * {@link BigRationalNumber}, so the result is exact and a
+ * {@link org.jnum.abstractnumber.rational.exceptions.RationalOverflowException} is thrown only
+ * if the reduced result does not fit in a {@link RationalNumber}.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+public final class CompiledRationalExpression {
+
+    private final static int CONSTANT = 0;
+    private final static int VARIABLE = 1;
+    private final static int ADD = 2;
+    private final static int SUBTRACT = 3;
+    private final static int MULTIPLY = 4;
+    private final static int DIVIDE = 5;
+    private final static int TOGGLE_SIGN = 6;
+    private final static int POWER = 7;
+
+    private final RationalExpression expression;
+    private final List<String> variables;
+
+    /* instruction i writes register i; the operands are registers, except for CONSTANT
+       (constant numerator and denominator), VARIABLE (variable index) and POWER (exponent) */
+    private final int[] operations;
+    private final int[] firstOperands;
+    private final int[] secondOperands;
+    private final long[] constantNumerators;
+    private final long[] constantDenominators;
+
+    CompiledRationalExpression(RationalExpression expression, List<String> variables) {
+        this.expression = expression;
+        this.variables = Collections.unmodifiableList(new ArrayList<>(variables));
+
+        Compiler compiler = new Compiler(this.variables);
+        compiler.emit(expression);
+        this.operations = compiler.toArray(compiler.operations);
+        this.firstOperands = compiler.toArray(compiler.firstOperands);
+        this.secondOperands = compiler.toArray(compiler.secondOperands);
+        this.constantNumerators = new long[operations.length];
+        this.constantDenominators = new long[operations.length];
+        for (int i = 0; i < operations.length; ++i) {
+            RationalNumber constant = compiler.constants.get(i);
+            if (constant == null) continue;
+            constantNumerators[i] = constant.numerator();
+            constantDenominators[i] = constant.denominator();
+        }
+    }
+
+    private static final class Compiler {
+
+        private final Map<String, Integer> variableIndexes = new HashMap<>();
+        private final Map<RationalExpression, Integer> registers = new HashMap<>();
+        private final List<Integer> operations = new ArrayList<>();
+        private final List<Integer> firstOperands = new ArrayList<>();
+        private final List<Integer> secondOperands = new ArrayList<>();
+        private final List<RationalNumber> constants = new ArrayList<>();
+
+        Compiler(List<String> variables) {
+            for (int i = 0; i < variables.size(); ++i) {
+                if (variables.get(i) == null) throw new NullParamenterException();
+                if (variableIndexes.putIfAbsent(variables.get(i), i) != null)
+                    throw new IllegalArgumentException("duplicate variable: " + variables.get(i));
+            }
+        }
+
+        int emit(RationalExpression node) {
+            Integer register = registers.get(node);
+            if (register != null) return register;
+
+            switch (node.kind) {
+                case CONSTANT:
+                    register = add(CONSTANT, 0, 0, node.value);
+                    break;
+                case VARIABLE:
+                    Integer index = variableIndexes.get(node.name);
+                    if (index == null) throw new IllegalArgumentException("the variable " + node.name + " is not in the list");
+                    register = add(VARIABLE, index, 0, null);
+                    break;
+                case TOGGLE_SIGN:
+                    register = add(TOGGLE_SIGN, emit(node.left), 0, null);
+                    break;
+                case POWER:
+                    register = add(POWER, emit(node.left), node.exponent, null);
+                    break;
+                default:
+                    int first = emit(node.left);
+                    int second = emit(node.right);
+                    register = add(binaryOperation(node.kind), first, second, null);
+            }
+            registers.put(node, register);
+            return register;
+        }
+
+        private static int binaryOperation(RationalExpression.Kind kind) {
+            switch (kind) {
+                case ADD:
+                    return ADD;
+                case SUBTRACT:
+                    return SUBTRACT;
+                case MULTIPLY:
+                    return MULTIPLY;
+                default:
+                    return DIVIDE;
+            }
+        }
+
+        private int add(int operation, int first, int second, RationalNumber constant) {
+            operations.add(operation);
+            firstOperands.add(first);
+            secondOperands.add(second);
+            constants.add(constant);
+            return operations.size() - 1;
+        }
+
+        int[] toArray(List<Integer> list) {
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; ++i) array[i] = list.get(i);
+            return array;
+        }
+    }
+
+    /**
+     * @return the variables in the order of the evaluation arguments
+     */
+    public List<String> variables() { return variables; }
+
+    public RationalExpression expression() { return expression; }
+
+    /**
+     * @param values the values of the variables, in the order of {@link #variables()}
+     */
+    public RationalNumber evaluate(RationalNumber... values) {
+
+        if (values == null) throw new NullParamenterException();
+        if (values.length != variables.size())
+            throw new IllegalArgumentException("expected " + variables.size() + " values, got " + values.length);
+
+        long[] argumentNumerators = new long[values.length];
+        long[] argumentDenominators = new long[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] == null) throw new NullParamenterException();
+            argumentNumerators[i] = values[i].numerator();
+            argumentDenominators[i] = values[i].denominator();
+        }
+
+        long[] result = new long[2];
+        run(argumentNumerators, argumentDenominators, new long[operations.length], new long[operations.length], result);
+        return RationalNumber.valueOf(result[0], result[1]);
+    }
+
+    /**
+     * @param columns the columns of the variables, in the order of {@link #variables()}, at
+     *                least one
+     * @return a new array with the value of the expression for every row of the columns
+     */
+    public RationalArray evaluateAll(RationalArray... columns) {
+
+        if (columns == null) throw new NullParamenterException();
+        if (columns.length == 0) throw new IllegalArgumentException("no column to take the length from");
+        if (columns[0] == null) throw new NullParamenterException();
+
+        RationalArray target = new RationalArray(columns[0].length());
+        evaluateAll(columns, target);
+        return target;
+    }
+
+    /**
+     * Evaluates the expression for every row of the columns into the same row of
+     * {@code target}, with no allocation unless a row overflows.
+     */
+    public void evaluateAll(RationalArray[] columns, RationalArray target) {
+
+        if (columns == null || target == null) throw new NullParamenterException();
+        if (columns.length != variables.size())
+            throw new IllegalArgumentException("expected " + variables.size() + " columns, got " + columns.length);
+        for (RationalArray column : columns) {
+            if (column == null) throw new NullParamenterException();
+            if (column.length() != target.length())
+                throw new IllegalArgumentException("columns have different lengths: " + column.length() + " and " + target.length());
+        }
+
+        long[] argumentNumerators = new long[columns.length];
+        long[] argumentDenominators = new long[columns.length];
+        long[] numerators = new long[operations.length];
+        long[] denominators = new long[operations.length];
+        long[] result = new long[2];
+        for (int row = 0; row < target.length(); ++row) {
+            for (int i = 0; i < columns.length; ++i) {
+                argumentNumerators[i] = columns[i].numerator(row);
+                argumentDenominators[i] = columns[i].denominator(row);
+            }
+            run(argumentNumerators, argumentDenominators, numerators, denominators, result);
+            target.set(row, result[0], result[1]);
+        }
+    }
+
+    private void run(long[] argumentNumerators, long[] argumentDenominators,
+                     long[] numerators, long[] denominators, long[] result) {
+        try {
+            runExact(argumentNumerators, argumentDenominators, numerators, denominators, result);
+            result[0] = numerators[operations.length - 1];
+            result[1] = denominators[operations.length - 1];
+        } catch (ArithmeticException e) {
+            RationalMetrics.count(RationalMetrics.Counter.PROMOTIONS);
+            RationalNumber exact = runInflated(argumentNumerators, argumentDenominators).rationalNumberValueExact();
+            result[0] = exact.numerator();
+            result[1] = exact.denominator();
+        }
+    }
+
+    /* the denominators stay positive, the fractions are reduced only when an instruction overflows */
+    private void runExact(long[] argumentNumerators, long[] argumentDenominators,
+                          long[] numerators, long[] denominators, long[] scratch) {
+        for (int i = 0; i < operations.length; ++i) {
+            try {
+                execute(i, argumentNumerators, argumentDenominators, numerators, denominators);
+            } catch (ArithmeticException e) {
+                executeReduced(i, numerators, denominators, scratch);
+            }
+        }
+    }
+
+    /*
+     * Retries an instruction that overflowed on its reduced operands, with the cross reducing
+     * kernels of RationalMath, which throw only if the reduced result does not fit in a long.
+     */
+    private void executeReduced(int i, long[] numerators, long[] denominators, long[] result) {
+        int a = firstOperands[i];
+        int b = secondOperands[i];
+        reduce(a, numerators, denominators);
+        switch (operations[i]) {
+            case ADD:
+                reduce(b, numerators, denominators);
+                RationalMath.add(numerators[a], denominators[a], numerators[b], denominators[b], result);
+                break;
+            case SUBTRACT:
+                reduce(b, numerators, denominators);
+                RationalMath.subtract(numerators[a], denominators[a], numerators[b], denominators[b], result);
+                break;
+            case MULTIPLY:
+                reduce(b, numerators, denominators);
+                RationalMath.multiply(numerators[a], denominators[a], numerators[b], denominators[b], result);
+                break;
+            case DIVIDE:
+                reduce(b, numerators, denominators);
+                RationalMath.divide(numerators[a], denominators[a], numerators[b], denominators[b], result);
+                break;
+            case TOGGLE_SIGN:
+                result[0] = Math.negateExact(numerators[a]);
+                result[1] = denominators[a];
+                break;
+            default:
+                // the power of the reduced base
+                execute(i, null, null, numerators, denominators);
+                return;
+        }
+        numerators[i] = result[0];
+        denominators[i] = result[1];
+    }
+
+    private static void reduce(int register, long[] numerators, long[] denominators) {
+        long gcd = RationalNumber.greatestCommonDenominator(numerators[register], denominators[register]);
+        if (gcd > 1) {
+            numerators[register] /= gcd;
+            denominators[register] /= gcd;
+        }
+    }
+
+    private void execute(int i, long[] argumentNumerators, long[] argumentDenominators,
+                         long[] numerators, long[] denominators) {
+        int a = firstOperands[i];
+        int b = secondOperands[i];
+        switch (operations[i]) {
+            case CONSTANT:
+                numerators[i] = constantNumerators[i];
+                denominators[i] = constantDenominators[i];
+                break;
+            case VARIABLE:
+                numerators[i] = argumentNumerators[a];
+                denominators[i] = argumentDenominators[a];
+                break;
+            case ADD:
+                if (denominators[a] == denominators[b]) {
+                    numerators[i] = Math.addExact(numerators[a], numerators[b]);
+                    denominators[i] = denominators[a];
+                } else {
+                    numerators[i] = Math.addExact(Math.multiplyExact(numerators[a], denominators[b]),
+                                                  Math.multiplyExact(numerators[b], denominators[a]));
+                    denominators[i] = Math.multiplyExact(denominators[a], denominators[b]);
+                }
+                break;
+            case SUBTRACT:
+                if (denominators[a] == denominators[b]) {
+                    numerators[i] = Math.subtractExact(numerators[a], numerators[b]);
+                    denominators[i] = denominators[a];
+                } else {
+                    numerators[i] = Math.subtractExact(Math.multiplyExact(numerators[a], denominators[b]),
+                                                       Math.multiplyExact(numerators[b], denominators[a]));
+                    denominators[i] = Math.multiplyExact(denominators[a], denominators[b]);
+                }
+                break;
+            case MULTIPLY:
+                numerators[i] = Math.multiplyExact(numerators[a], numerators[b]);
+                denominators[i] = Math.multiplyExact(denominators[a], denominators[b]);
+                break;
+            case DIVIDE:
+                if (numerators[b] == 0) throw new ZeroDenominatorException();
+                long numerator = Math.multiplyExact(numerators[a], denominators[b]);
+                long denominator = Math.multiplyExact(denominators[a], numerators[b]);
+                numerators[i] = denominator < 0 ? Math.negateExact(numerator) : numerator;
+                denominators[i] = denominator < 0 ? Math.negateExact(denominator) : denominator;
+                break;
+            case TOGGLE_SIGN:
+                numerators[i] = Math.negateExact(numerators[a]);
+                denominators[i] = denominators[a];
+                break;
+            default:
+                if (b > 0) {
+                    numerators[i] = powerExact(numerators[a], b);
+                    denominators[i] = powerExact(denominators[a], b);
+                } else {
+                    if (numerators[a] == 0) throw new ZeroDenominatorException();
+                    // -b read as unsigned, for Integer.MIN_VALUE
+                    long power = powerExact(numerators[a], -b);
+                    numerators[i] = powerExact(denominators[a], -b);
+                    denominators[i] = power;
+                    if (power < 0) {
+                        numerators[i] = Math.negateExact(numerators[i]);
+                        denominators[i] = Math.negateExact(power);
+                    }
+                }
+        }
+    }
+
+    /* exponentiation by squaring, the exponent is read as unsigned */
+    private static long powerExact(long base, int exponent) {
+        long power = 1;
+        while (true) {
+            if ((exponent & 1) != 0) power = Math.multiplyExact(power, base);
+            exponent >>>= 1;
+            if (exponent == 0) return power;
+            base = Math.multiplyExact(base, base);
+        }
+    }
+
+    private BigRationalNumber runInflated(long[] argumentNumerators, long[] argumentDenominators) {
+        BigRationalNumber[] registers = new BigRationalNumber[operations.length];
+        for (int i = 0; i < operations.length; ++i) {
+            int a = firstOperands[i];
+            int b = secondOperands[i];
+            switch (operations[i]) {
+                case CONSTANT:
+                    registers[i] = new BigRationalNumber(constantNumerators[i], constantDenominators[i]);
+                    break;
+                case VARIABLE:
+                    registers[i] = new BigRationalNumber(argumentNumerators[a], argumentDenominators[a]);
+                    break;
+                case ADD:
+                    registers[i] = registers[a].add(registers[b]);
+                    break;
+                case SUBTRACT:
+                    registers[i] = registers[a].subtract(registers[b]);
+                    break;
+                case MULTIPLY:
+                    registers[i] = registers[a].multiply(registers[b]);
+                    break;
+                case DIVIDE:
+                    if (registers[b].signum() == 0) throw new ZeroDenominatorException();
+                    registers[i] = registers[a].divide(registers[b]);
+                    break;
+                case TOGGLE_SIGN:
+                    registers[i] = registers[a].toggleSign();
+                    break;
+                default:
+                    registers[i] = registers[a].power(b);
+            }
+        }
+        return registers[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        return variables + " -> " + expression;
+    }
+}
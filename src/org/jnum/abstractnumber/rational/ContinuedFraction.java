@@ -0,0 +1,209 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+
+import java.math.BigInteger;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Regular continued fraction {@code a0 + 1/(a1 + 1/(a2 + ...))} of an exact rational value: a
+ * {@link RationalNumber}, a {@link BigRationalNumber} or the exact binary value of a double.
+ * <p>
+ * The terms and the convergents are computed lazily by the Euclidean algorithm, so taking the
+ * first few of them costs only a few divisions. The convergents are the best rational
+ * approximations of the value, and {@link #limitDenominator(long)} also considers the
+ * intermediate fractions between them to find the closest fraction with a bounded denominator.
+ */
+public final class ContinuedFraction {
+
+    private final BigInteger numerator;
+    private final BigInteger denominator;
+
+    private ContinuedFraction(BigInteger numerator, BigInteger denominator) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    public static ContinuedFraction of(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return new ContinuedFraction(BigInteger.valueOf(number.numerator()), BigInteger.valueOf(number.denominator()));
+    }
+
+    public static ContinuedFraction of(BigRationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return new ContinuedFraction(number.numerator(), number.denominator());
+    }
+
+    /**
+     * Expands the exact binary value of {@code number}, not its shortest decimal representation,
+     * so {@code of(0.1)} has the terms of 3602879701896397/36028797018963968.
+     *
+     * @throws IllegalArgumentException if the number is NaN or infinite
+     */
+    public static ContinuedFraction of(double number) {
+        return of(BigRationalNumber.valueOf(number));
+    }
+
+    /**
+     * @return the value of the continued fraction with the given terms
+     * @throws IllegalArgumentException if there are no terms or a term after the first is not positive
+     */
+    public static RationalNumber evaluate(long... terms) {
+
+        if (terms == null) throw new NullParamenterException();
+        if (terms.length == 0) throw new IllegalArgumentException("a continued fraction needs at least one term");
+
+        BigInteger h = BigInteger.ONE;
+        BigInteger k = BigInteger.ZERO;
+        for (int i = terms.length - 1; i >= 0; --i) {
+            if (i > 0 && terms[i] <= 0) throw new IllegalArgumentException("the terms after the first must be positive");
+            BigInteger next = BigInteger.valueOf(terms[i]).multiply(h).add(k);
+            k = h;
+            h = next;
+        }
+        return new BigRationalNumber(h, k).rationalNumberValueExact();
+    }
+
+    /**
+     * @throws RationalOverflowException while consuming the stream, if a term does not fit in a
+     *         long (possible only for very large or very small doubles and big rationals)
+     */
+    public LongStream terms() {
+        return StreamSupport.longStream(new TermSpliterator(), false);
+    }
+
+    /**
+     * The convergents {@code h(i)/k(i)}, from the integer part to the value itself. The stream
+     * ends early at the last convergent that fits in a {@link RationalNumber}.
+     */
+    public Stream<RationalNumber> convergents() {
+        return StreamSupport.stream(new ConvergentSpliterator(), false);
+    }
+
+    /**
+     * @return the closest fraction to the value with a denominator at most {@code maxDenominator},
+     *         the smaller one if two are equally close
+     * @throws IllegalArgumentException if {@code maxDenominator} is not positive
+     * @throws RationalOverflowException if the numerator of the result does not fit in a long
+     */
+    public RationalNumber limitDenominator(long maxDenominator) {
+        if (maxDenominator < 1) throw new IllegalArgumentException("the maximum denominator must be positive");
+
+        BigInteger max = BigInteger.valueOf(maxDenominator);
+        if (denominator.compareTo(max) <= 0) return new BigRationalNumber(numerator, denominator).rationalNumberValueExact();
+
+        BigInteger p0 = BigInteger.ZERO, q0 = BigInteger.ONE;
+        BigInteger p1 = BigInteger.ONE, q1 = BigInteger.ZERO;
+        BigInteger n = numerator, d = denominator;
+        while (true) {
+            BigInteger[] qr = floorDivideAndRemainder(n, d);
+            BigInteger q2 = q0.add(qr[0].multiply(q1));
+            if (q2.compareTo(max) > 0) break;
+            BigInteger p2 = p0.add(qr[0].multiply(p1));
+            p0 = p1;
+            q0 = q1;
+            p1 = p2;
+            q1 = q2;
+            n = d;
+            d = qr[1];
+        }
+
+        // the last convergent and the closest semiconvergent with a denominator in range
+        BigInteger k = max.subtract(q0).divide(q1);
+        BigRationalNumber semiconvergent = new BigRationalNumber(p0.add(k.multiply(p1)), q0.add(k.multiply(q1)));
+        BigRationalNumber convergent = new BigRationalNumber(p1, q1);
+        BigRationalNumber value = new BigRationalNumber(numerator, denominator);
+        int comparison = convergent.subtract(value).abs().compareTo(semiconvergent.subtract(value).abs());
+        BigRationalNumber closest = comparison < 0 || comparison == 0 && convergent.compareTo(semiconvergent) < 0 ?
+                convergent : semiconvergent;
+        return closest.rationalNumberValueExact();
+    }
+
+    /* quotient rounded towards negative infinity and non-negative remainder, for d > 0 */
+    private static BigInteger[] floorDivideAndRemainder(BigInteger n, BigInteger d) {
+        BigInteger[] qr = n.divideAndRemainder(d);
+        if (qr[1].signum() < 0) {
+            qr[0] = qr[0].subtract(BigInteger.ONE);
+            qr[1] = qr[1].add(d);
+        }
+        return qr;
+    }
+
+    /* Euclidean algorithm on the value, one quotient per step */
+    private final class Expansion {
+
+        private BigInteger n = numerator;
+        private BigInteger d = denominator;
+
+        /* the next term, or null once the expansion is complete */
+        BigInteger nextTerm() {
+            if (d.signum() == 0) return null;
+            BigInteger[] qr = floorDivideAndRemainder(n, d);
+            n = d;
+            d = qr[1];
+            return qr[0];
+        }
+    }
+
+    private final class TermSpliterator extends Spliterators.AbstractLongSpliterator {
+
+        private final Expansion expansion = new Expansion();
+
+        TermSpliterator() {
+            super(Long.MAX_VALUE, ORDERED | NONNULL | IMMUTABLE);
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+
+            if (action == null) throw new NullParamenterException();
+
+            BigInteger term = expansion.nextTerm();
+            if (term == null) return false;
+            if (term.bitLength() >= Long.SIZE)
+                throw new RationalOverflowException("the term " + term + " does not fit in a long");
+            action.accept(term.longValue());
+            return true;
+        }
+    }
+
+    private final class ConvergentSpliterator extends Spliterators.AbstractSpliterator<RationalNumber> {
+
+        private final Expansion expansion = new Expansion();
+        private BigInteger h1 = BigInteger.ONE, k1 = BigInteger.ZERO;
+        private BigInteger h2 = BigInteger.ZERO, k2 = BigInteger.ONE;
+
+        ConvergentSpliterator() {
+            super(Long.MAX_VALUE, ORDERED | NONNULL | IMMUTABLE);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super RationalNumber> action) {
+
+            if (action == null) throw new NullParamenterException();
+
+            BigInteger term = expansion.nextTerm();
+            if (term == null) return false;
+
+            BigInteger h = term.multiply(h1).add(h2);
+            BigInteger k = term.multiply(k1).add(k2);
+            if (h.bitLength() >= Long.SIZE || k.bitLength() >= Long.SIZE) return false;
+            h2 = h1;
+            k2 = k1;
+            h1 = h;
+            k1 = k;
+            action.accept(RationalNumber.valueOf(h.longValue(), k.longValue()));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+
+/**
+ * Decimal digits of a {@link RationalNumber} by long division on its numerator and denominator,
+ * written straight to a {@link StringBuilder}, an {@link Appendable} or an ASCII
+ * {@link ByteBuffer} without going through {@link java.math.BigDecimal}.
+ * <p>
+ * The exact expansion encloses the repeating digits in parentheses, {@code 1/7} is
+ * {@code 0.(142857)} and {@code 1/6} is {@code 0.1(6)}. The digits before the period are as many
+ * as the largest power of 2 or 5 dividing the denominator and the period ends when the remainder
+ * comes back to its value at the start, so the digits are streamed without being stored. The
+ * period of {@code 1/d} can be up to {@code d - 1} digits long, so the number of fractional
+ * digits is bounded, by {@link #DEFAULT_MAX_DIGITS} unless a limit is given.
+ * <p>
+ * The rounded expansion has exactly {@code scale} fractional digits, like
+ * {@link java.math.BigDecimal#toPlainString()} after {@code setScale(scale, roundingMode)}. It
+ * divides twice: the first pass finds the rounding direction and the digits reached by the
+ * carry, the second one writes the digits.
+ */
+public final class DecimalExpansion {
+
+    private DecimalExpansion() { }
+
+    /**
+     * The default limit of the fractional digits of an exact expansion.
+     */
+    public final static int DEFAULT_MAX_DIGITS = 10_000;
+
+    /**
+     * Same as {@link #appendExact(RationalNumber, int, StringBuilder)} with at most
+     * {@link #DEFAULT_MAX_DIGITS} fractional digits.
+     */
+    public static StringBuilder appendExact(RationalNumber number, StringBuilder builder) {
+        return appendExact(number, DEFAULT_MAX_DIGITS, builder);
+    }
+
+    /**
+     * @throws ArithmeticException if the expansion has more than {@code maxDigits} fractional
+     *         digits, the digits written so far are left in the builder
+     */
+    public static StringBuilder appendExact(RationalNumber number, int maxDigits, StringBuilder builder) {
+        try {
+            appendExact(number, maxDigits, (Appendable) builder);
+            return builder;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static <A extends Appendable> A appendExact(RationalNumber number, A out) throws IOException {
+        return appendExact(number, DEFAULT_MAX_DIGITS, out);
+    }
+
+    /**
+     * Writes the exact expansion, with the period in parentheses. The period of {@code 1/d} can
+     * be up to {@code d - 1} digits long, so the fractional digits, period included, are limited
+     * to {@code maxDigits}.
+     *
+     * @throws ArithmeticException if the expansion has more than {@code maxDigits} fractional
+     *         digits, the digits written so far are left in {@code out}
+     */
+    public static <A extends Appendable> A appendExact(RationalNumber number, int maxDigits, A out) throws IOException {
+
+        if (number == null || out == null) throw new NullParamenterException();
+        if (maxDigits < 0) throw new IllegalArgumentException("negative maximum number of digits: " + maxDigits);
+
+        long denominator = number.denominator();
+        long magnitude = magnitude(number);
+        int preperiod = preperiodLength(denominator);
+        Division division = new Division(Long.remainderUnsigned(magnitude, denominator), denominator);
+        if (division.remainder != 0 && preperiod > maxDigits) throw tooManyDigits(maxDigits);
+
+        if (number.numerator() < 0) out.append('-');
+        appendUnsigned(Long.divideUnsigned(magnitude, denominator), out);
+        if (division.remainder == 0) return out;
+
+        out.append('.');
+        for (int i = preperiod; i > 0; --i) out.append(division.nextDigit());
+        if (division.remainder == 0) return out;
+
+        out.append('(');
+        long start = division.remainder;
+        long digits = preperiod;
+        do {
+            if (++digits > maxDigits) throw tooManyDigits(maxDigits);
+            out.append(division.nextDigit());
+        } while (division.remainder != start);
+        out.append(')');
+        return out;
+    }
+
+    private static ArithmeticException tooManyDigits(int maxDigits) {
+        return new ArithmeticException("the decimal expansion has more than " + maxDigits + " fractional digits");
+    }
+
+    /**
+     * @throws java.nio.BufferOverflowException if the buffer is too small, the digits written so
+     *         far are left in the buffer
+     * @throws ArithmeticException if the expansion has more than {@link #DEFAULT_MAX_DIGITS}
+     *         fractional digits
+     */
+    public static ByteBuffer putExact(RationalNumber number, ByteBuffer buffer) {
+
+        if (buffer == null) throw new NullParamenterException();
+
+        try {
+            appendExact(number, new ByteBufferAppendable(buffer));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    public static StringBuilder append(RationalNumber number, int scale, RoundingMode roundingMode, StringBuilder builder) {
+        try {
+            append(number, scale, roundingMode, (Appendable) builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder;
+    }
+
+    /**
+     * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY} and
+     *         the number has more than {@code scale} fractional digits
+     */
+    public static <A extends Appendable> A append(RationalNumber number, int scale, RoundingMode roundingMode, A out)
+            throws IOException {
+
+        if (number == null || roundingMode == null || out == null) throw new NullParamenterException();
+        if (scale < 0) throw new IllegalArgumentException("the scale cannot be negative: " + scale);
+
+        long denominator = number.denominator();
+        long magnitude = magnitude(number);
+        boolean negative = number.numerator() < 0;
+        long integer = Long.divideUnsigned(magnitude, denominator);
+        long remainder = Long.remainderUnsigned(magnitude, denominator);
+
+        // first pass: rounding direction, and the last digit that absorbs the carry
+        Division division = new Division(remainder, denominator);
+        int lastDigit = (int) Long.remainderUnsigned(integer, 10);
+        int lastNonNine = -1;
+        boolean nonZeroDigits = false;
+        for (int i = 0; i < scale; ++i) {
+            lastDigit = division.nextDigit() - '0';
+            if (lastDigit != 9) lastNonNine = i;
+            if (lastDigit != 0) nonZeroDigits = true;
+        }
+        boolean roundUp = RationalMath.roundsAwayFromZero(roundingMode, negative, division.remainder, denominator,
+                                                          (lastDigit & 1) != 0);
+        if (roundUp && lastNonNine < 0) ++integer;
+
+        boolean zero = integer == 0 && !nonZeroDigits && !roundUp;
+        if (negative && !zero) out.append('-');
+        appendUnsigned(integer, out);
+        if (scale == 0) return out;
+
+        out.append('.');
+        division = new Division(remainder, denominator);
+        for (int i = 0; i < scale; ++i) {
+            char digit = division.nextDigit();
+            if (!roundUp || i < lastNonNine) out.append(digit);
+            else out.append(i == lastNonNine ? (char) (digit + 1) : '0');
+        }
+        return out;
+    }
+
+    public static ByteBuffer put(RationalNumber number, int scale, RoundingMode roundingMode, ByteBuffer buffer) {
+
+        if (buffer == null) throw new NullParamenterException();
+
+        try {
+            append(number, scale, roundingMode, new ByteBufferAppendable(buffer));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    /**
+     * @return the number of fractional digits before the repeating ones
+     */
+    public static int preperiodLength(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return preperiodLength(number.denominator());
+    }
+
+    /**
+     * @return the number of repeating digits, 0 if the expansion terminates; the digits are
+     *         computed, so this takes time proportional to the result
+     */
+    public static long periodLength(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        long denominator = number.denominator();
+        Division division = new Division(Long.remainderUnsigned(magnitude(number), denominator), denominator);
+        for (int i = preperiodLength(denominator); i > 0; --i) division.nextDigit();
+        if (division.remainder == 0) return 0;
+
+        long start = division.remainder;
+        long length = 0;
+        do {
+            division.nextDigit();
+            ++length;
+        } while (division.remainder != start);
+        return length;
+    }
+
+    private static int preperiodLength(long denominator) {
+        int twos = Long.numberOfTrailingZeros(denominator);
+        int fives = 0;
+        for (; denominator % 5 == 0; denominator /= 5) ++fives;
+        return Math.max(twos, fives);
+    }
+
+    /* the magnitude of the numerator as an unsigned long, 2^63 for Long.MIN_VALUE */
+    private static long magnitude(RationalNumber number) {
+        return number.numerator() < 0 ? -number.numerator() : number.numerator();
+    }
+
+    private static void appendUnsigned(long value, Appendable out) throws IOException {
+        if (value < 0) {
+            appendUnsigned(Long.divideUnsigned(value, 10), out);
+            out.append((char) ('0' + Long.remainderUnsigned(value, 10)));
+            return;
+        }
+
+        long power = 1;
+        while (power <= value / 10) power *= 10;
+        for (; power > 0; power /= 10) {
+            out.append((char) ('0' + value / power));
+            value %= power;
+        }
+    }
+
+    /* one decimal digit per step of the long division of remainder / divisor, remainder < divisor */
+    private static final class Division {
+
+        private final static long MAX_FAST_DIVISOR = Long.MAX_VALUE / 10;
+
+        long remainder;
+        private final long divisor;
+
+        Division(long remainder, long divisor) {
+            this.remainder = remainder;
+            this.divisor = divisor;
+        }
+
+        char nextDigit() {
+            if (divisor <= MAX_FAST_DIVISOR) {
+                long scaled = remainder * 10;
+                long digit = scaled / divisor;
+                remainder = scaled - digit * divisor;
+                return (char) ('0' + digit);
+            }
+
+            // 10 * remainder overflows: add the remainder ten times, reducing as we go
+            int digit = 0;
+            long accumulator = 0;
+            for (int i = 0; i < 10; ++i) {
+                accumulator += remainder;
+                if (Long.compareUnsigned(accumulator, divisor) >= 0) {
+                    accumulator -= divisor;
+                    ++digit;
+                }
+            }
+            remainder = accumulator;
+            return (char) ('0' + digit);
+        }
+    }
+
+    private static final class ByteBufferAppendable implements Appendable {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferAppendable(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Appendable append(CharSequence sequence) {
+            return append(sequence, 0, sequence.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence sequence, int start, int end) {
+            for (int i = start; i < end; ++i) buffer.put((byte) sequence.charAt(i));
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            buffer.put((byte) c);
+            return this;
+        }
+    }
+}
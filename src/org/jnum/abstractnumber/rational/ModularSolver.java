@@ -0,0 +1,326 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.SingularMatrixException;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Multi-modular solver of {@code A * X = B}, see {@link RationalMatrix#solveModular(RationalMatrix)}.
+ * <p>
+ * The system is solved by Gauss-Jordan elimination modulo primes just below 2^63, in batches of
+ * as many primes as the common fork-join pool has threads, with Montgomery multiplication on
+ * primitive longs. The residues are combined by the Chinese remainder theorem and after each
+ * batch the rational solution is recovered by rational reconstruction (Wang) and verified
+ * exactly, so the solver stops as soon as the modulus is large enough for the actual solution,
+ * and at the latest when it exceeds twice the square of the Hadamard bound, where the
+ * reconstruction is guaranteed to be correct.
+ * <p>
+ * Primes that divide a denominator of the input are skipped, as are primes for which the
+ * matrix is singular; if too many primes in a row are singular the system is handed to the
+ * Bareiss elimination, which decides whether the matrix is really singular.
+ */
+final class ModularSolver {
+
+    /* consecutive singular primes after which the matrix is assumed to be singular */
+    private final static int MAX_SINGULAR_PRIMES = 4;
+
+    /* Miller-Rabin bases that are deterministic for all 64 bit integers (Sinclair) */
+    private final static long[] WITNESSES = { 2, 325, 9375, 28178, 450775, 9780504, 1795265022 };
+
+    private static long[] primes = new long[0];
+
+    private ModularSolver() { }
+
+    static RationalMatrix solve(RationalMatrix a, RationalMatrix b) {
+        int n = a.rows();
+        int width = b.columns();
+        int batchSize = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        int guaranteedBits = 2 * hadamardBits(a, b) + 2;
+
+        BigInteger[] residues = new BigInteger[n * width];
+        Arrays.fill(residues, BigInteger.ZERO);
+        BigInteger modulus = BigInteger.ONE;
+        int singularPrimes = 0;
+
+        for (int next = 0; ; next += batchSize) {
+            final int first = next;
+            long[][] batch = IntStream.range(first, first + batchSize)
+                    .parallel()
+                    .mapToObj(i -> solve(a, b, new Modulus(prime(i))))
+                    .toArray(long[][]::new);
+
+            for (int k = 0; k < batch.length; ++k) {
+                long[] solution = batch[k];
+                if (solution == null) {
+                    if (++singularPrimes >= MAX_SINGULAR_PRIMES) return a.solve(b);
+                    continue;
+                }
+                if (solution.length == 0) continue;
+
+                singularPrimes = 0;
+                Modulus prime = new Modulus(prime(first + k));
+                long inverse = prime.inversePlain(modulus.mod(BigInteger.valueOf(prime.p)).longValue());
+                for (int i = 0; i < residues.length; ++i) {
+                    long current = residues[i].mod(BigInteger.valueOf(prime.p)).longValue();
+                    long delta = prime.multiplyPlain(prime.subtract(solution[i], current), inverse);
+                    residues[i] = residues[i].add(modulus.multiply(BigInteger.valueOf(delta)));
+                }
+                modulus = modulus.multiply(BigInteger.valueOf(prime.p));
+            }
+            if (modulus.equals(BigInteger.ONE)) continue;
+
+            boolean guaranteed = modulus.bitLength() > guaranteedBits;
+            RationalMatrix candidate = reconstruct(residues, modulus, n, width, guaranteed);
+            if (candidate != null && (guaranteed || verifies(a, b, candidate))) return candidate;
+        }
+    }
+
+    /*
+     * The numerators and denominators of the solution are minors of the system scaled to
+     * integers, bounded by the product of the euclidean norms of its rows (Hadamard).
+     */
+    private static int hadamardBits(RationalMatrix a, RationalMatrix b) {
+        int bits = 0;
+        for (int i = 0; i < a.rows(); ++i) {
+            BigInteger lcm = BigInteger.ONE;
+            for (int j = 0; j < a.columns(); ++j) lcm = lcm(lcm, a.denominator(i, j));
+            for (int j = 0; j < b.columns(); ++j) lcm = lcm(lcm, b.denominator(i, j));
+
+            BigInteger squares = BigInteger.ZERO;
+            for (int j = 0; j < a.columns() + b.columns(); ++j) {
+                RationalMatrix source = j < a.columns() ? a : b;
+                int column = j < a.columns() ? j : j - a.columns();
+                BigInteger value = lcm.divide(BigInteger.valueOf(source.denominator(i, column)))
+                        .multiply(BigInteger.valueOf(source.numerator(i, column)));
+                squares = squares.add(value.multiply(value));
+            }
+            bits += squares.bitLength() / 2 + 1;
+        }
+        return bits;
+    }
+
+    private static BigInteger lcm(BigInteger lcm, long denominator) {
+        if (denominator == 1) return lcm;
+        BigInteger value = BigInteger.valueOf(denominator);
+        return lcm.divide(lcm.gcd(value)).multiply(value);
+    }
+
+    /*
+     * Gauss-Jordan elimination of [A | B] modulo the prime, in the Montgomery domain.
+     * Returns the plain residues of X row by row, null if A is singular modulo the prime and an
+     * empty array if the prime divides a denominator.
+     */
+    private static long[] solve(RationalMatrix a, RationalMatrix b, Modulus prime) {
+        int n = a.rows();
+        int width = n + b.columns();
+        long[][] matrix = new long[n][width];
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < width; ++j) {
+                RationalMatrix source = j < n ? a : b;
+                int column = j < n ? j : j - n;
+                long denominator = source.denominator(i, column);
+                if (denominator % prime.p == 0) return new long[0];
+                matrix[i][j] = prime.multiply(
+                        prime.residue(source.numerator(i, column)),
+                        prime.inverse(prime.residue(denominator)));
+            }
+
+        for (int k = 0; k < n; ++k) {
+            int pivotRow = k;
+            while (pivotRow < n && matrix[pivotRow][k] == 0) ++pivotRow;
+            if (pivotRow == n) return null;
+
+            long[] pivot = matrix[pivotRow];
+            matrix[pivotRow] = matrix[k];
+            matrix[k] = pivot;
+
+            long inverse = prime.inverse(pivot[k]);
+            for (int j = k; j < width; ++j) pivot[j] = prime.multiply(pivot[j], inverse);
+
+            for (int i = 0; i < n; ++i) {
+                long factor = matrix[i][k];
+                if (i == k || factor == 0) continue;
+                long[] row = matrix[i];
+                for (int j = k; j < width; ++j) row[j] = prime.subtract(row[j], prime.multiply(factor, pivot[j]));
+            }
+        }
+
+        long[] solution = new long[n * b.columns()];
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < b.columns(); ++j)
+                solution[i * b.columns() + j] = prime.fromMontgomery(matrix[i][n + j]);
+        return solution;
+    }
+
+    private static RationalMatrix reconstruct(BigInteger[] residues, BigInteger modulus, int rows, int columns,
+                                              boolean guaranteed) {
+        BigInteger bound = modulus.shiftRight(1).sqrt();
+        RationalNumber[][] entries = new RationalNumber[rows][columns];
+        for (int i = 0; i < residues.length; ++i) {
+            BigRationalNumber value = reconstruct(residues[i], modulus, bound);
+            if (value == null) return null;
+            if (!value.isCompact()) {
+                if (guaranteed) value.rationalNumberValueExact();
+                return null;
+            }
+            entries[i / columns][i % columns] = value.rationalNumberValueExact();
+        }
+        return RationalMatrix.valueOf(entries);
+    }
+
+    /* the fraction r/t with |r|, |t| <= bound and r = t * residue (mod modulus), if any */
+    private static BigRationalNumber reconstruct(BigInteger residue, BigInteger modulus, BigInteger bound) {
+        BigInteger r0 = modulus;
+        BigInteger r1 = residue;
+        BigInteger t0 = BigInteger.ZERO;
+        BigInteger t1 = BigInteger.ONE;
+        while (r1.compareTo(bound) > 0) {
+            BigInteger[] qr = r0.divideAndRemainder(r1);
+            r0 = r1;
+            r1 = qr[1];
+            BigInteger t = t0.subtract(qr[0].multiply(t1));
+            t0 = t1;
+            t1 = t;
+        }
+        if (t1.abs().compareTo(bound) > 0 || !r1.gcd(t1).equals(BigInteger.ONE)) return null;
+        return new BigRationalNumber(r1, t1);
+    }
+
+    private static boolean verifies(RationalMatrix a, RationalMatrix b, RationalMatrix candidate) {
+        try {
+            return a.multiply(candidate).equals(b);
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /* the index-th prime below 2^63, in decreasing order */
+    private static synchronized long prime(int index) {
+        if (index >= primes.length) {
+            long[] grown = Arrays.copyOf(primes, Math.max(2 * primes.length, index + 16));
+            long candidate = primes.length == 0 ? Long.MAX_VALUE : primes[primes.length - 1] - 2;
+            for (int i = primes.length; i < grown.length; ++i) {
+                while (!isPrime(candidate)) candidate -= 2;
+                grown[i] = candidate;
+                candidate -= 2;
+            }
+            primes = grown;
+        }
+        return primes[index];
+    }
+
+    static boolean isPrime(long n) {
+        if (n < 2) return false;
+        if (n % 2 == 0) return n == 2;
+        if (n % 3 == 0) return n == 3;
+        if (n < 25) return true;
+
+        Modulus modulus = new Modulus(n);
+        long one = modulus.toMontgomery(1);
+        long minusOne = modulus.toMontgomery(n - 1);
+        int shift = Long.numberOfTrailingZeros(n - 1);
+        long odd = (n - 1) >>> shift;
+
+        for (long witness : WITNESSES) {
+            long base = witness % n;
+            if (base == 0) continue;
+            long x = modulus.power(modulus.toMontgomery(base), odd);
+            if (x == one || x == minusOne) continue;
+
+            boolean composite = true;
+            for (int i = 1; i < shift && composite; ++i) {
+                x = modulus.multiply(x, x);
+                if (x == minusOne) composite = false;
+            }
+            if (composite) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Arithmetic modulo an odd {@code p < 2^63}. {@link #multiply(long, long)} is the Montgomery
+     * product {@code a * b / 2^64 (mod p)}, so values are kept in the Montgomery domain
+     * ({@code x * 2^64 mod p}) except where the name says plain.
+     */
+    static final class Modulus {
+
+        final long p;
+        private final long negativeInverse;
+        /* 2^128 mod p, converts plain values to the Montgomery domain */
+        private final long r2;
+
+        Modulus(long p) {
+            this.p = p;
+
+            long inverse = p;   // correct to 3 bits for odd p, each Newton step doubles the bits
+            for (int i = 0; i < 5; ++i) inverse *= 2 - p * inverse;
+            this.negativeInverse = -inverse;
+
+            long r = Long.remainderUnsigned(-p, p);
+            long r2 = r;
+            for (int i = 0; i < 64; ++i) r2 = add(r2, r2);
+            this.r2 = r2;
+        }
+
+        long add(long a, long b) {
+            long sum = a + b;
+            return Long.compareUnsigned(sum, p) >= 0 ? sum - p : sum;
+        }
+
+        long subtract(long a, long b) {
+            long difference = a - b;
+            return difference < 0 ? difference + p : difference;
+        }
+
+        long multiply(long a, long b) {
+            long low = a * b;
+            long high = Math.multiplyHigh(a, b);
+            long m = low * negativeInverse;
+            long mpHigh = Math.multiplyHigh(m, p) + ((m >> 63) & p);
+            // low + low(m * p) is 0 or 2^64
+            long t = high + mpHigh + (low != 0 ? 1 : 0);
+            return Long.compareUnsigned(t, p) >= 0 ? t - p : t;
+        }
+
+        long power(long base, long exponent) {
+            long result = toMontgomery(1);
+            while (exponent != 0) {
+                if ((exponent & 1) != 0) result = multiply(result, base);
+                base = multiply(base, base);
+                exponent >>>= 1;
+            }
+            return result;
+        }
+
+        long toMontgomery(long plain) { return multiply(plain, r2); }
+
+        long fromMontgomery(long value) { return multiply(value, 1); }
+
+        long residue(long value) { return toMontgomery(Math.floorMod(value, p)); }
+
+        long inverse(long value) { return toMontgomery(inversePlain(fromMontgomery(value))); }
+
+        long multiplyPlain(long a, long b) { return multiply(multiply(a, b), r2); }
+
+        /* extended Euclid, the argument must not be a multiple of p */
+        long inversePlain(long value) {
+            long t = 0;
+            long newT = 1;
+            long r = p;
+            long newR = value;
+            while (newR != 0) {
+                long q = r / newR;
+                long tmp = t - q * newT;
+                t = newT;
+                newT = tmp;
+                tmp = r - q * newR;
+                r = newR;
+                newR = tmp;
+            }
+            return t < 0 ? t + p : t;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+import java.math.BigInteger;
+
+/**
+ * Mutable accumulator for sums, differences, products and quotients of rational numbers.
+ * <p>
+ * The running value is kept in two primitive fields and it is reduced only every
+ * {@code reductionInterval} operations or when the next operation would overflow, so no object is
+ * allocated while accumulating. On overflow the operation is retried in longs on the reduced
+ * value, over the least common multiple of the denominators for a sum and with the factors cross
+ * reduced for a product. If the result does not fit in a long even then, the accumulator switches
+ * to a {@link BigRationalNumber} and goes back to the primitive fields as soon as the value fits
+ * again.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class RationalAccumulator {
+
+    private final static int DEFAULT_REDUCTION_INTERVAL = 32;
+
+    private final int reductionInterval;
+
+    private long numerator;
+    private long denominator;
+    private int pendingOperations;
+
+    /* non null only while the value does not fit in a long */
+    private BigRationalNumber inflated;
+
+    public RationalAccumulator() { this(RationalNumber.ZERO); }
+
+    public RationalAccumulator(RationalNumber initialValue) {
+        this(initialValue, DEFAULT_REDUCTION_INTERVAL);
+    }
+
+    /**
+     * @param reductionInterval number of operations after which the running value is reduced,
+     *                          0 to reduce only when an operation would overflow
+     */
+    public RationalAccumulator(RationalNumber initialValue, int reductionInterval) {
+
+        if (initialValue == null) throw new NullParamenterException();
+        if (reductionInterval < 0) throw new IllegalArgumentException("negative reduction interval");
+
+        this.reductionInterval = reductionInterval;
+        reset(initialValue);
+    }
+
+    public RationalAccumulator reset() {
+        return reset(RationalNumber.ZERO);
+    }
+
+    public RationalAccumulator reset(RationalNumber value) {
+
+        if (value == null) throw new NullParamenterException();
+
+        this.numerator = value.numerator();
+        this.denominator = value.denominator();
+        this.pendingOperations = 0;
+        this.inflated = null;
+        return this;
+    }
+
+    public RationalAccumulator add(RationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        addFraction(other.numerator(), other.denominator());
+        return this;
+    }
+
+    public RationalAccumulator add(long other) {
+        addFraction(other, 1);
+        return this;
+    }
+
+    /**
+     * Adds the current value of {@code other}, which is left unchanged. When the two running
+     * values have the same denominator the numerators are simply added.
+     */
+    public RationalAccumulator add(RationalAccumulator other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (other.inflated != null) promote(inflate().add(other.inflated));
+        else addFraction(other.numerator, other.denominator);
+        return this;
+    }
+
+    /**
+     * Multiplies by the current value of {@code other}, which is left unchanged.
+     */
+    public RationalAccumulator multiply(RationalAccumulator other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (other.inflated != null) promote(inflate().multiply(other.inflated));
+        else multiplyFraction(other.numerator, other.denominator);
+        return this;
+    }
+
+    public RationalAccumulator subtract(RationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (other.numerator() == Long.MIN_VALUE) {
+            promote(inflate().subtract(BigRationalNumber.valueOf(other)));
+        } else {
+            addFraction(-other.numerator(), other.denominator());
+        }
+        return this;
+    }
+
+    public RationalAccumulator subtract(long other) {
+        if (other == Long.MIN_VALUE) {
+            promote(inflate().subtract(BigRationalNumber.valueOf(other)));
+        } else {
+            addFraction(-other, 1);
+        }
+        return this;
+    }
+
+    public RationalAccumulator multiply(RationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        multiplyFraction(other.numerator(), other.denominator());
+        return this;
+    }
+
+    public RationalAccumulator multiply(long other) {
+        multiplyFraction(other, 1);
+        return this;
+    }
+
+    public RationalAccumulator divide(RationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        divideFraction(other.numerator(), other.denominator());
+        return this;
+    }
+
+    public RationalAccumulator divide(long other) {
+        divideFraction(other, 1);
+        return this;
+    }
+
+    /**
+     * @return the reduced accumulated value
+     * @throws org.jnum.abstractnumber.rational.exceptions.RationalOverflowException
+     *         if the value does not fit in a {@link RationalNumber}
+     */
+    public RationalNumber rationalNumberValue() {
+        if (inflated != null) return inflated.rationalNumberValueExact();
+        reduce();
+        return RationalNumber.valueOf(numerator, denominator);
+    }
+
+    public BigRationalNumber bigRationalNumberValue() {
+        if (inflated != null) return inflated;
+        reduce();
+        return BigRationalNumber.valueOf(RationalNumber.valueOf(numerator, denominator));
+    }
+
+    /**
+     * @return true while the running value is held in longs
+     */
+    public boolean isCompact() { return inflated == null; }
+
+    @Override
+    public String toString() {
+        return inflated != null ? inflated.toString() : String.format("{%d/%d}", numerator, denominator);
+    }
+
+    /* the denominator of the argument is always positive */
+    void addFraction(long otherNumerator, long otherDenominator) {
+
+        if (inflated != null) {
+            promote(inflated.add(BigRationalNumber.valueOf(otherNumerator, otherDenominator)));
+            return;
+        }
+
+        if (addFraction(otherNumerator, otherDenominator, 1)) {
+            operationDone();
+            return;
+        }
+        // reduced and over the lcm of the denominators the sum may still fit
+        if (pendingOperations != 0) reduce();
+        if (addFraction(otherNumerator, otherDenominator,
+                        RationalNumber.greatestCommonDenominator(denominator, otherDenominator))) {
+            reduce();
+            return;
+        }
+        promote(inflate().add(BigRationalNumber.valueOf(otherNumerator, otherDenominator)));
+    }
+
+    /* adds over denominator * otherDenominator / gcd, false and unchanged if it overflows */
+    private boolean addFraction(long otherNumerator, long otherDenominator, long gcd) {
+        if (otherDenominator == denominator) {
+            long sum = numerator + otherNumerator;
+            if (!addFits(numerator, otherNumerator, sum)) return false;
+            numerator = sum;
+            return true;
+        }
+
+        long otherFactor = gcd == 1 ? otherDenominator : otherDenominator / gcd;
+        long factor = gcd == 1 ? denominator : denominator / gcd;
+        long left = numerator * otherFactor;
+        long right = otherNumerator * factor;
+        long sum = left + right;
+        long newDenominator = denominator * otherFactor;
+        if (!multiplyFits(numerator, otherFactor, left) || !multiplyFits(otherNumerator, factor, right) ||
+                !addFits(left, right, sum) || !multiplyFits(denominator, otherFactor, newDenominator))
+            return false;
+
+        numerator = sum;
+        denominator = newDenominator;
+        return true;
+    }
+
+    void multiplyFraction(long otherNumerator, long otherDenominator) {
+
+        if (inflated != null) {
+            promote(inflated.multiply(BigRationalNumber.valueOf(otherNumerator, otherDenominator)));
+            return;
+        }
+
+        if (multiplyFraction(otherNumerator, otherDenominator, 1, 1)) {
+            operationDone();
+            return;
+        }
+        // reduced and cross reduced with the operand the product may still fit
+        if (pendingOperations != 0) reduce();
+        if (multiplyFraction(otherNumerator, otherDenominator,
+                             RationalNumber.greatestCommonDenominator(numerator, otherDenominator),
+                             RationalNumber.greatestCommonDenominator(otherNumerator, denominator))) {
+            pendingOperations = 0;
+            return;
+        }
+        promote(inflate().multiply(BigRationalNumber.valueOf(otherNumerator, otherDenominator)));
+    }
+
+    /* first divides numerator and otherDenominator, second otherNumerator and denominator */
+    private boolean multiplyFraction(long otherNumerator, long otherDenominator, long first, long second) {
+        long leftNumerator = first == 1 ? numerator : numerator / first;
+        long rightNumerator = second == 1 ? otherNumerator : otherNumerator / second;
+        long leftDenominator = second == 1 ? denominator : denominator / second;
+        long rightDenominator = first == 1 ? otherDenominator : otherDenominator / first;
+        long newNumerator = leftNumerator * rightNumerator;
+        long newDenominator = leftDenominator * rightDenominator;
+        if (!multiplyFits(leftNumerator, rightNumerator, newNumerator) ||
+                !multiplyFits(leftDenominator, rightDenominator, newDenominator))
+            return false;
+
+        numerator = newNumerator;
+        denominator = newDenominator;
+        return true;
+    }
+
+    /* the overflow checks do not throw, so an overflow does not allocate an exception */
+    private static boolean multiplyFits(long first, long second, long product) {
+        return Math.multiplyHigh(first, second) == product >> 63;
+    }
+
+    private static boolean addFits(long first, long second, long sum) {
+        return ((first ^ sum) & (second ^ sum)) >= 0;
+    }
+
+    private void divideFraction(long otherNumerator, long otherDenominator) {
+
+        if (otherNumerator == 0) throw new ZeroDenominatorException();
+
+        if (otherNumerator < 0 && otherNumerator != Long.MIN_VALUE) {
+            multiplyFraction(-otherDenominator, -otherNumerator);
+        } else if (otherNumerator > 0) {
+            multiplyFraction(otherDenominator, otherNumerator);
+        } else {
+            promote(inflate().divide(BigRationalNumber.valueOf(otherNumerator, otherDenominator)));
+        }
+    }
+
+    private void operationDone() {
+        if (++pendingOperations == reductionInterval) reduce();
+    }
+
+    private void reduce() {
+        if (inflated != null) return;
+
+        RationalMetrics.count(RationalMetrics.Counter.REDUCTIONS);
+        long gcd = RationalNumber.greatestCommonDenominator(numerator, denominator);
+        if (gcd != 1) {
+            numerator /= gcd;
+            denominator /= gcd;
+        }
+        pendingOperations = 0;
+    }
+
+    private BigRationalNumber inflate() {
+        return inflated != null ?
+                inflated :
+                BigRationalNumber.valueOf(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+
+    /* BigRationalNumber always stores the reduced value, so it is demoted as soon as it fits */
+    private void promote(BigRationalNumber value) {
+        if (value.isCompact()) {
+            RationalNumber compact = value.rationalNumberValueExact();
+            this.numerator = compact.numerator();
+            this.denominator = compact.denominator();
+            this.pendingOperations = 0;
+            this.inflated = null;
+        } else {
+            this.inflated = value;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Thread safe running sum of rational numbers for many writers, in the spirit of
+ * {@link java.util.concurrent.atomic.LongAdder}.
+ * <p>
+ * The sum is spread over a table of cells, each one a {@link RationalAccumulator} holding a
+ * primitive numerator and denominator behind its own spin lock. Every thread adds into the cell
+ * picked by its probe; when the cell is busy the thread moves to another one and, after repeated
+ * collisions, the table doubles up to the number of processors. The cells are merged only by
+ * {@link #sum()}, so the adding threads never share a value.
+ * <p>
+ * As for {@code LongAdder}, {@link #sum()} is not an atomic snapshot: additions that run while
+ * the cells are merged may or may not be counted. {@link #sumThenReset()} counts every addition
+ * exactly once, either in its result or in the following sum.
+ */
+public final class RationalAdder {
+
+    private final static int MAX_CELLS = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+
+    /* per thread hash used to pick a cell, moved to another cell on contention */
+    private final static ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[] {ThreadLocalRandom.current().nextInt() | 1});
+
+    private volatile Cell[] cells = {new Cell()};
+
+    private static final class Cell {
+
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private final RationalAccumulator value = new RationalAccumulator();
+
+        boolean tryLock() { return !busy.get() && busy.compareAndSet(false, true); }
+
+        void lock() {
+            while (!tryLock()) Thread.onSpinWait();
+        }
+
+        void unlock() { busy.set(false); }
+    }
+
+    public RationalAdder add(RationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        addFraction(other.numerator(), other.denominator());
+        return this;
+    }
+
+    public RationalAdder add(long other) {
+        addFraction(other, 1);
+        return this;
+    }
+
+    public RationalAdder subtract(RationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (other.numerator() == Long.MIN_VALUE) {
+            // 2^63 / d does not fit, add it as two halves
+            addFraction(1L << 62, other.denominator());
+            addFraction(1L << 62, other.denominator());
+        } else {
+            addFraction(-other.numerator(), other.denominator());
+        }
+        return this;
+    }
+
+    private void addFraction(long numerator, long denominator) {
+        int[] probe = PROBE.get();
+        boolean collided = false;
+        for (Cell[] table = cells; ; table = cells) {
+            Cell cell = table[probe[0] & (table.length - 1)];
+            if (cell.tryLock()) {
+                try {
+                    cell.value.addFraction(numerator, denominator);
+                } finally {
+                    cell.unlock();
+                }
+                return;
+            }
+
+            if (collided && table.length < MAX_CELLS) grow(table);
+            collided = true;
+            probe[0] = nextProbe(probe[0]);
+        }
+    }
+
+    private static int nextProbe(int probe) {
+        // xorshift, never zero
+        probe ^= probe << 13;
+        probe ^= probe >>> 17;
+        return probe ^ (probe << 5);
+    }
+
+    private synchronized void grow(Cell[] table) {
+        if (cells != table) return;
+
+        Cell[] grown = new Cell[table.length * 2];
+        System.arraycopy(table, 0, grown, 0, table.length);
+        for (int i = table.length; i < grown.length; ++i) grown[i] = new Cell();
+        cells = grown;
+    }
+
+    /**
+     * @return the current sum of all the cells
+     * @throws org.jnum.abstractnumber.rational.exceptions.RationalOverflowException
+     *         if the sum does not fit in a {@link RationalNumber}
+     */
+    public RationalNumber sum() {
+        return merge(false).rationalNumberValue();
+    }
+
+    public BigRationalNumber bigSum() {
+        return merge(false).bigRationalNumberValue();
+    }
+
+    /**
+     * Resets every cell to zero. Additions that run concurrently may be kept or lost.
+     */
+    public void reset() {
+        for (Cell cell : cells) {
+            cell.lock();
+            try {
+                cell.value.reset();
+            } finally {
+                cell.unlock();
+            }
+        }
+    }
+
+    /**
+     * Merges and resets the cells one at a time, for periodic flushes of a running total.
+     */
+    public RationalNumber sumThenReset() {
+        return merge(true).rationalNumberValue();
+    }
+
+    public BigRationalNumber bigSumThenReset() {
+        return merge(true).bigRationalNumberValue();
+    }
+
+    private RationalAccumulator merge(boolean reset) {
+        RationalAccumulator total = new RationalAccumulator();
+        for (Cell cell : cells) {
+            cell.lock();
+            try {
+                total.add(cell.value);
+                if (reset) cell.value.reset();
+            } finally {
+                cell.unlock();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return bigSum().toString();
+    }
+}
@@ -0,0 +1,473 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed length, mutable column of rational numbers stored as two parallel {@code long[]}
+ * (struct of arrays), without one {@link RationalNumber} object per value.
+ * <p>
+ * Every element is kept reduced with a positive denominator. The element-wise operations work in
+ * place on this array and return it, so they can be chained; they run as plain loops over the
+ * primitive arrays and never create {@link RationalNumber} objects. An element whose result does
+ * not fit in a long raises a
+ * {@link org.jnum.abstractnumber.rational.exceptions.RationalOverflowException}. The results are
+ * not staged, so the exception leaves the array partially updated: the elements before the one
+ * that overflows hold their new values and the others their old ones. Work on a
+ * {@link #duplicateThis() copy} to keep the original values.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class RationalArray {
+
+    private final long[] numerators;
+    private final long[] denominators;
+
+    /**
+     * Creates an array of {@code length} zeros.
+     */
+    public RationalArray(int length) {
+        this.numerators = new long[length];
+        this.denominators = new long[length];
+        Arrays.fill(this.denominators, 1);
+    }
+
+    private RationalArray(long[] numerators, long[] denominators) {
+        this.numerators = numerators;
+        this.denominators = denominators;
+    }
+
+    public static RationalArray valueOf(List<RationalNumber> numbers) {
+
+        if (numbers == null) throw new NullParamenterException();
+
+        RationalArray array = new RationalArray(numbers.size());
+        int i = 0;
+        for (RationalNumber number : numbers) array.set(i++, number);
+        return array;
+    }
+
+    public static RationalArray valueOf(RationalNumber... numbers) {
+
+        if (numbers == null) throw new NullParamenterException();
+
+        return valueOf(Arrays.asList(numbers));
+    }
+
+    /**
+     * Builds an array from raw numerators and denominators, reducing every pair.
+     */
+    public static RationalArray valueOf(long[] numerators, long[] denominators) {
+
+        if (numerators == null || denominators == null) throw new NullParamenterException();
+        if (numerators.length != denominators.length)
+            throw new IllegalArgumentException("numerators and denominators have different lengths");
+
+        RationalArray array = new RationalArray(numerators.length);
+        for (int i = 0; i < numerators.length; ++i) array.set(i, numerators[i], denominators[i]);
+        return array;
+    }
+
+    public List<RationalNumber> toList() {
+        List<RationalNumber> list = new ArrayList<>(length());
+        for (int i = 0; i < length(); ++i) list.add(get(i));
+        return list;
+    }
+
+    public int length() { return numerators.length; }
+
+    public long numerator(int index) { return numerators[index]; }
+
+    public long denominator(int index) { return denominators[index]; }
+
+    public RationalNumber get(int index) {
+        return RationalNumber.valueOf(numerators[index], denominators[index]);
+    }
+
+    public RationalArray set(int index, RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        numerators[index] = number.numerator();
+        denominators[index] = number.denominator();
+        return this;
+    }
+
+    public RationalArray set(int index, long numerator, long denominator) {
+
+        if (denominator == 0) throw new ZeroDenominatorException();
+
+        long gcd = RationalNumber.greatestCommonDenominator(numerator, denominator);
+        numerator /= gcd;
+        denominator /= gcd;
+        if (denominator < 0) {
+            if (numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE)
+                throw new RationalOverflowException("the sign of the fraction cannot be normalized in a long");
+            numerator = -numerator;
+            denominator = -denominator;
+        }
+
+        numerators[index] = numerator;
+        denominators[index] = denominator;
+        return this;
+    }
+
+    public RationalArray duplicateThis() {
+        return new RationalArray(numerators.clone(), denominators.clone());
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalArray add(RationalArray other) {
+
+        checkLength(other);
+
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.add(numerators[i], denominators[i], other.numerators[i], other.denominators[i], result);
+            numerators[i] = result[0];
+            denominators[i] = result[1];
+        }
+        return this;
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalArray subtract(RationalArray other) {
+
+        checkLength(other);
+
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.subtract(numerators[i], denominators[i], other.numerators[i], other.denominators[i], result);
+            numerators[i] = result[0];
+            denominators[i] = result[1];
+        }
+        return this;
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalArray multiply(RationalArray other) {
+
+        checkLength(other);
+
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.multiply(numerators[i], denominators[i], other.numerators[i], other.denominators[i], result);
+            numerators[i] = result[0];
+            denominators[i] = result[1];
+        }
+        return this;
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     * @throws ZeroDenominatorException if an element of {@code other} is zero, after updating the
+     *         previous ones
+     */
+    public RationalArray divide(RationalArray other) {
+
+        checkLength(other);
+
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.divide(numerators[i], denominators[i], other.numerators[i], other.denominators[i], result);
+            numerators[i] = result[0];
+            denominators[i] = result[1];
+        }
+        return this;
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalArray add(RationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        long otherNumerator = other.numerator();
+        long otherDenominator = other.denominator();
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.add(numerators[i], denominators[i], otherNumerator, otherDenominator, result);
+            numerators[i] = result[0];
+            denominators[i] = result[1];
+        }
+        return this;
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalArray scale(RationalNumber factor) {
+
+        if (factor == null) throw new NullParamenterException();
+
+        long factorNumerator = factor.numerator();
+        long factorDenominator = factor.denominator();
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.multiply(numerators[i], denominators[i], factorNumerator, factorDenominator, result);
+            numerators[i] = result[0];
+            denominators[i] = result[1];
+        }
+        return this;
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalArray scale(long factor) {
+
+        if (factor == 0) {
+            Arrays.fill(numerators, 0);
+            Arrays.fill(denominators, 1);
+            return this;
+        }
+
+        // integer columns need neither a gcd nor a division
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            if (denominators[i] == 1) {
+                long product = numerators[i] * factor;
+                long high = Math.multiplyHigh(numerators[i], factor);
+                if (high != product >> 63) {
+                    // the product of two integers cannot be reduced to fit
+                    RationalMetrics.overflow(2 * Long.SIZE - Long.numberOfLeadingZeros(high ^ (high >> 63)), 1);
+                    throw new RationalOverflowException("the value does not fit in a RationalNumber");
+                }
+                numerators[i] = product;
+                continue;
+            }
+            RationalMath.multiply(numerators[i], denominators[i], factor, 1, result);
+            numerators[i] = result[0];
+            denominators[i] = result[1];
+        }
+        return this;
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     * @throws ZeroDenominatorException if an element is zero, after updating the previous ones
+     */
+    public RationalArray reciprocal() {
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.reciprocal(numerators[i], denominators[i], result);
+            numerators[i] = result[0];
+            denominators[i] = result[1];
+        }
+        return this;
+    }
+
+    /**
+     * @return the scalar product of this array and {@code other}, accumulated without reducing
+     *         after every element
+     */
+    public RationalNumber dot(RationalArray other) {
+
+        checkLength(other);
+
+        RationalAccumulator accumulator = new RationalAccumulator();
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.multiply(numerators[i], denominators[i], other.numerators[i], other.denominators[i], result);
+            accumulator.addFraction(result[0], result[1]);
+        }
+        return accumulator.rationalNumberValue();
+    }
+
+    public RationalNumber sum() {
+        RationalAccumulator accumulator = new RationalAccumulator();
+        for (int i = 0; i < numerators.length; ++i) accumulator.addFraction(numerators[i], denominators[i]);
+        return accumulator.rationalNumberValue();
+    }
+
+    public RationalNumber product() {
+        RationalAccumulator accumulator = new RationalAccumulator(RationalNumber.ONE);
+        for (int i = 0; i < numerators.length; ++i) accumulator.multiplyFraction(numerators[i], denominators[i]);
+        return accumulator.rationalNumberValue();
+    }
+
+    /**
+     * @return the smallest element, or null if the array is empty
+     */
+    public RationalNumber min() {
+        if (numerators.length == 0) return null;
+
+        int min = 0;
+        for (int i = 1; i < numerators.length; ++i)
+            if (RationalMath.compare(numerators[i], denominators[i], numerators[min], denominators[min]) < 0) min = i;
+        return get(min);
+    }
+
+    /**
+     * @return the largest element, or null if the array is empty
+     */
+    public RationalNumber max() {
+        if (numerators.length == 0) return null;
+
+        int max = 0;
+        for (int i = 1; i < numerators.length; ++i)
+            if (RationalMath.compare(numerators[i], denominators[i], numerators[max], denominators[max]) > 0) max = i;
+        return get(max);
+    }
+
+    /**
+     * Sorts the array in ascending order with a stable merge sort that compares the fractions
+     * exactly without allocating.
+     */
+    public RationalArray sort() {
+        RationalSort.sort(numerators, denominators, 0, numerators.length);
+        return this;
+    }
+
+    /**
+     * Sorts the array like {@link #sort()}, sorting the halves of large arrays in parallel in the
+     * common fork/join pool, as {@link Arrays#parallelSort(long[])} does.
+     */
+    public RationalArray parallelSort() {
+        RationalSort.parallelSort(numerators, denominators, 0, numerators.length);
+        return this;
+    }
+
+    public boolean isSorted() {
+        for (int i = 1; i < numerators.length; ++i)
+            if (RationalMath.compare(numerators[i - 1], denominators[i - 1], numerators[i], denominators[i]) > 0) return false;
+        return true;
+    }
+
+    /**
+     * Searches a sorted array like {@link Arrays#binarySearch(long[], long)}.
+     *
+     * @return the index of the key, or {@code -(insertion point) - 1} if it is absent
+     */
+    public int binarySearch(RationalNumber key) {
+
+        if (key == null) throw new NullParamenterException();
+
+        return RationalSort.binarySearch(numerators, denominators, 0, numerators.length, key.numerator(), key.denominator());
+    }
+
+    /**
+     * @return the element at index {@code k} of the sorted array, found in linear expected time
+     *         without sorting or modifying this array
+     */
+    public RationalNumber select(int k) {
+        checkRank(k);
+
+        RationalArray copy = duplicateThis();
+        RationalSort.select(copy.numerators, copy.denominators, 0, copy.length(), k);
+        return copy.get(k);
+    }
+
+    /**
+     * @return a new array with the {@code k} smallest elements in ascending order
+     */
+    public RationalArray smallest(int k) {
+        checkCount(k);
+
+        RationalArray copy = duplicateThis();
+        if (k > 0 && k < copy.length()) RationalSort.select(copy.numerators, copy.denominators, 0, copy.length(), k - 1);
+        RationalSort.sort(copy.numerators, copy.denominators, 0, k);
+        return new RationalArray(Arrays.copyOf(copy.numerators, k), Arrays.copyOf(copy.denominators, k));
+    }
+
+    /**
+     * @return a new array with the {@code k} largest elements in descending order
+     */
+    public RationalArray largest(int k) {
+        checkCount(k);
+
+        RationalArray copy = duplicateThis();
+        int from = copy.length() - k;
+        if (k > 0 && from > 0) RationalSort.select(copy.numerators, copy.denominators, 0, copy.length(), from);
+        RationalSort.sort(copy.numerators, copy.denominators, from, copy.length());
+        RationalSort.reverse(copy.numerators, copy.denominators, from, copy.length());
+        return new RationalArray(Arrays.copyOfRange(copy.numerators, from, copy.length()),
+                                 Arrays.copyOfRange(copy.denominators, from, copy.length()));
+    }
+
+    /**
+     * @return the median, the mean of the two middle elements for an even length, or null if the
+     *         array is empty
+     */
+    public RationalNumber median() {
+        return quantile(RationalNumber.ONE_HALF);
+    }
+
+    /**
+     * Exact quantile with linear interpolation between the closest ranks: for a sorted array
+     * {@code x} of length {@code n} and {@code h = q (n - 1)}, the result is
+     * {@code x[floor(h)] + (h - floor(h)) (x[floor(h) + 1] - x[floor(h)])}.
+     *
+     * @param q a number between 0 and 1
+     * @return the quantile, or null if the array is empty
+     */
+    public RationalNumber quantile(RationalNumber q) {
+
+        if (q == null) throw new NullParamenterException();
+        if (q.compareTo(RationalNumber.ZERO) < 0 || q.compareTo(RationalNumber.ONE) > 0)
+            throw new IllegalArgumentException("the quantile must be between 0 and 1: " + q);
+
+        if (numerators.length == 0) return null;
+
+        RationalNumber h = q.multiply(numerators.length - 1);
+        int k = (int) (h.numerator() / h.denominator());
+        RationalNumber fraction = h.subtract(k);
+
+        RationalArray copy = duplicateThis();
+        RationalSort.select(copy.numerators, copy.denominators, 0, copy.length(), k);
+        RationalNumber lower = copy.get(k);
+        if (fraction.equals(RationalNumber.ZERO)) return lower;
+
+        // after the selection the next order statistic is the minimum of the upper part
+        int next = k + 1;
+        for (int i = k + 2; i < copy.length(); ++i)
+            if (RationalMath.compare(copy.numerators[i], copy.denominators[i], copy.numerators[next], copy.denominators[next]) < 0) next = i;
+        return lower.add(fraction.multiply(copy.get(next).subtract(lower)));
+    }
+
+    private void checkRank(int k) {
+        if (k < 0 || k >= numerators.length)
+            throw new IndexOutOfBoundsException("rank " + k + " out of bounds for length " + numerators.length);
+    }
+
+    private void checkCount(int k) {
+        if (k < 0 || k > numerators.length)
+            throw new IllegalArgumentException("count " + k + " out of bounds for length " + numerators.length);
+    }
+
+    private void checkLength(RationalArray other) {
+        if (other == null) throw new NullParamenterException();
+        if (other.length() != length())
+            throw new IllegalArgumentException("arrays have different lengths: " + length() + " and " + other.length());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RationalArray that = (RationalArray) o;
+        return Arrays.equals(numerators, that.numerators) && Arrays.equals(denominators, that.denominators);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(numerators) + Arrays.hashCode(denominators);
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
@@ -0,0 +1,136 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException;
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary format of {@link RationalNumber}.
+ * <p>
+ * The numerator is zigzag encoded, so that small negative values stay small, and it is written
+ * as a varint whose first byte also carries a flag: bit 0 is set when the denominator is not 1,
+ * bits 1-6 hold the lowest 6 bits of the numerator and bit 7 is the continuation bit. The
+ * following bytes hold 7 bits each, least significant group first. The denominator is written
+ * after the numerator, as an unsigned varint, only when the flag is set. Integers between -32 and
+ * 31 take a single byte and no value takes more than {@value #MAX_ENCODED_LENGTH} bytes.
+ */
+public final class RationalCodec {
+
+    public final static int MAX_ENCODED_LENGTH = 19;
+
+    private final static int DENOMINATOR_FLAG = 0x01;
+    private final static int CONTINUATION_BIT = 0x80;
+
+    private RationalCodec() { }
+
+    public static int encodedLength(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return encodedLength(number.numerator(), number.denominator());
+    }
+
+    static int encodedLength(long numerator, long denominator) {
+        long rest = zigzag(numerator) >>> 6;
+        int length = 1 + (rest == 0 ? 0 : varLongLength(rest));
+        return denominator == 1 ? length : length + varLongLength(denominator);
+    }
+
+    /**
+     * Writes the number at the current position of {@code buffer}.
+     *
+     * @throws java.nio.BufferOverflowException if fewer than {@link #encodedLength(RationalNumber)}
+     *         bytes remain
+     */
+    public static void encode(RationalNumber number, ByteBuffer buffer) {
+
+        if (number == null || buffer == null) throw new NullParamenterException();
+
+        encode(number.numerator(), number.denominator(), buffer);
+    }
+
+    /**
+     * Writes a reduced fraction with a positive denominator, see {@link #encode(RationalNumber, ByteBuffer)}.
+     */
+    public static void encode(long numerator, long denominator, ByteBuffer buffer) {
+
+        long zigzag = zigzag(numerator);
+        long rest = zigzag >>> 6;
+        int first = (int) (zigzag & 0x3F) << 1 | (denominator == 1 ? 0 : DENOMINATOR_FLAG);
+
+        if (rest == 0) {
+            buffer.put((byte) first);
+        } else {
+            buffer.put((byte) (first | CONTINUATION_BIT));
+            writeVarLong(rest, buffer);
+        }
+
+        if (denominator != 1) writeVarLong(denominator, buffer);
+    }
+
+    /**
+     * Reads the number at the current position of {@code buffer}.
+     *
+     * @throws java.nio.BufferUnderflowException if the buffer ends in the middle of the value
+     * @throws InvalidFormatStringException if the bytes are not a valid encoding
+     */
+    public static RationalNumber decode(ByteBuffer buffer) {
+
+        if (buffer == null) throw new NullParamenterException();
+
+        long[] result = new long[2];
+        decode(buffer, result);
+        return RationalNumber.valueOf(result[0], result[1]);
+    }
+
+    /**
+     * Reads the numerator and the denominator at the current position of {@code buffer} in
+     * {@code result[0]} and {@code result[1]}, without creating a {@link RationalNumber}.
+     */
+    public static void decode(ByteBuffer buffer, long[] result) {
+
+        int first = buffer.get() & 0xFF;
+        long zigzag = (first >>> 1) & 0x3F;
+        if ((first & CONTINUATION_BIT) != 0) {
+            long rest = readVarLong(buffer);
+            if (rest >>> 58 != 0) throw new InvalidFormatStringException();
+            zigzag |= rest << 6;
+        }
+
+        long denominator = 1;
+        if ((first & DENOMINATOR_FLAG) != 0) {
+            denominator = readVarLong(buffer);
+            if (denominator <= 1) throw new InvalidFormatStringException();
+        }
+
+        result[0] = (zigzag >>> 1) ^ -(zigzag & 1);
+        result[1] = denominator;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int varLongLength(long value) {
+        return (Long.SIZE - Long.numberOfLeadingZeros(value | 1) + 6) / 7;
+    }
+
+    private static void writeVarLong(long value, ByteBuffer buffer) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | CONTINUATION_BIT));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & CONTINUATION_BIT) == 0) return value;
+        }
+        throw new InvalidFormatStringException();
+    }
+}
@@ -0,0 +1,70 @@
+package org.jnum.abstractnumber.rational;
+
+import java.util.stream.Collector;
+
+/**
+ * {@link Collector}s aggregating streams of {@link RationalNumber}.
+ * <p>
+ * Every thread of a parallel stream accumulates in its own {@link RationalAccumulator}, which
+ * reduces only when the next operation would overflow, and the partial results are merged by
+ * adding the running fractions (the numerators alone when the denominators match). The final
+ * value is reduced once, by the finisher.
+ */
+public final class RationalCollectors {
+
+    private RationalCollectors() { }
+
+    public static Collector<RationalNumber, ?, RationalNumber> summing() {
+        return Collector.of(
+                () -> new RationalAccumulator(RationalNumber.ZERO, 0),
+                RationalAccumulator::add,
+                RationalAccumulator::add,
+                RationalAccumulator::rationalNumberValue,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Same as {@link #summing()}, for sums that may not fit in a {@link RationalNumber}.
+     */
+    public static Collector<RationalNumber, ?, BigRationalNumber> summingBig() {
+        return Collector.of(
+                () -> new RationalAccumulator(RationalNumber.ZERO, 0),
+                RationalAccumulator::add,
+                RationalAccumulator::add,
+                RationalAccumulator::bigRationalNumberValue,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * @return a collector of the product of the elements, one for an empty stream
+     */
+    public static Collector<RationalNumber, ?, RationalNumber> multiplying() {
+        return Collector.of(
+                () -> new RationalAccumulator(RationalNumber.ONE, 0),
+                RationalAccumulator::multiply,
+                RationalAccumulator::multiply,
+                RationalAccumulator::rationalNumberValue,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * @return a collector of the exact arithmetic mean of the elements, zero for an empty stream
+     */
+    public static Collector<RationalNumber, ?, RationalNumber> averaging() {
+        return Collector.of(
+                RationalSummaryStatistics::new,
+                RationalSummaryStatistics::accept,
+                RationalSummaryStatistics::combine,
+                RationalSummaryStatistics::getAverage,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    public static Collector<RationalNumber, ?, RationalSummaryStatistics> summarizing() {
+        return Collector.of(
+                RationalSummaryStatistics::new,
+                RationalSummaryStatistics::accept,
+                RationalSummaryStatistics::combine,
+                Collector.Characteristics.IDENTITY_FINISH,
+                Collector.Characteristics.UNORDERED);
+    }
+}
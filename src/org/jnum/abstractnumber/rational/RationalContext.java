@@ -0,0 +1,265 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Fixed denominator arithmetic for fixed scale values such as cents or basis points.
+ * <p>
+ * A context declares a denominator {@code D} and represents the value {@code u / D} by the
+ * {@code long} number of units {@code u}, like the unscaled value of a {@link BigDecimal} with a
+ * fixed scale. The units are never reduced, so additions, subtractions and integer scaling are
+ * plain long operations, and a {@link RationalNumber} is created only on output, by
+ * {@link #rationalNumberValue(long)}. Rational numbers that are not a multiple of {@code 1 / D}
+ * are converted with a {@link RoundingMode}, and so are the products and quotients that leave
+ * the context.
+ * <p>
+ * An operation whose units do not fit in a long raises a {@link RationalOverflowException}.
+ * Instances are immutable.
+ */
+public final class RationalContext {
+
+    public final static RationalContext UNITS = new RationalContext(1);
+    public final static RationalContext CENTS = new RationalContext(100);
+    public final static RationalContext BASIS_POINTS = new RationalContext(10_000);
+
+    private final long denominator;
+    /* the number of decimals when the denominator is a power of ten, -1 otherwise */
+    private final int scale;
+
+    public RationalContext(long denominator) {
+        if (denominator <= 0) throw new IllegalArgumentException("the denominator must be positive: " + denominator);
+
+        this.denominator = denominator;
+        int decimals = 0;
+        long power = 1;
+        while (power < denominator && power <= Long.MAX_VALUE / 10) {
+            power *= 10;
+            ++decimals;
+        }
+        this.scale = power == denominator ? decimals : -1;
+    }
+
+    public long denominator() { return denominator; }
+
+    /**
+     * @return true if the number is a whole number of units of this context
+     */
+    public boolean isExact(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return denominator % number.denominator() == 0;
+    }
+
+    /**
+     * @return the units of the number
+     * @throws ArithmeticException if the number is not a whole number of units
+     */
+    public long valueOf(RationalNumber number) {
+        return valueOf(number, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * @return the units of the number, rounded with {@code roundingMode}
+     */
+    public long valueOf(RationalNumber number, RoundingMode roundingMode) {
+
+        if (number == null || roundingMode == null) throw new NullParamenterException();
+
+        if (denominator % number.denominator() == 0) {
+            try {
+                return Math.multiplyExact(number.numerator(), denominator / number.denominator());
+            } catch (ArithmeticException e) {
+                throw overflow();
+            }
+        }
+        return roundedQuotient(number.numerator(), denominator, number.denominator(), roundingMode);
+    }
+
+    public long valueOf(long integer) {
+        try {
+            return Math.multiplyExact(integer, denominator);
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+    }
+
+    /**
+     * Parses the input with {@link RationalParser} and converts it to units.
+     *
+     * @throws ArithmeticException if the value is not a whole number of units
+     */
+    public long parse(CharSequence sequence) {
+        return valueOf(RationalParser.parse(sequence));
+    }
+
+    public RationalNumber rationalNumberValue(long units) {
+        return RationalNumber.valueOf(units, denominator);
+    }
+
+    public long add(long first, long second) {
+        try {
+            return Math.addExact(first, second);
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+    }
+
+    public long subtract(long first, long second) {
+        try {
+            return Math.subtractExact(first, second);
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+    }
+
+    public long multiply(long units, long factor) {
+        try {
+            return Math.multiplyExact(units, factor);
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+    }
+
+    /**
+     * @return the units of {@code units * factor}, rounded with {@code roundingMode}, for example
+     *         a rate applied to an amount
+     */
+    public long multiply(long units, RationalNumber factor, RoundingMode roundingMode) {
+
+        if (factor == null || roundingMode == null) throw new NullParamenterException();
+
+        return roundedQuotient(units, factor.numerator(), factor.denominator(), roundingMode);
+    }
+
+    /**
+     * @return the units of the product of two values of this context, rounded with
+     *         {@code roundingMode}
+     */
+    public long multiplyValues(long first, long second, RoundingMode roundingMode) {
+
+        if (roundingMode == null) throw new NullParamenterException();
+
+        return roundedQuotient(first, second, denominator, roundingMode);
+    }
+
+    public long divide(long units, long divisor, RoundingMode roundingMode) {
+
+        if (roundingMode == null) throw new NullParamenterException();
+        if (divisor == 0) throw new ZeroDenominatorException();
+
+        if (divisor == Long.MIN_VALUE)
+            return BigDecimal.valueOf(units).divide(BigDecimal.valueOf(divisor), 0, roundingMode).longValueExact();
+        if (divisor < 0) return roundedQuotient(units, -1, -divisor, roundingMode);
+        return roundedQuotient(units, 1, divisor, roundingMode);
+    }
+
+    /**
+     * Converts units of this context to units of {@code target}, for example cents to basis
+     * points.
+     */
+    public long convert(long units, RationalContext target, RoundingMode roundingMode) {
+
+        if (target == null || roundingMode == null) throw new NullParamenterException();
+
+        return roundedQuotient(units, target.denominator, denominator, roundingMode);
+    }
+
+    public long sum(long... units) {
+
+        if (units == null) throw new NullParamenterException();
+
+        long sum = 0;
+        try {
+            for (long value : units) sum = Math.addExact(sum, value);
+        } catch (ArithmeticException e) {
+            throw overflow();
+        }
+        return sum;
+    }
+
+    /**
+     * @throws ArithmeticException if an element is not a whole number of units
+     */
+    public long[] valueOf(RationalArray array, RoundingMode roundingMode) {
+
+        if (array == null) throw new NullParamenterException();
+
+        long[] units = new long[array.length()];
+        for (int i = 0; i < units.length; ++i)
+            units[i] = valueOf(RationalNumber.valueOf(array.numerator(i), array.denominator(i)), roundingMode);
+        return units;
+    }
+
+    public RationalArray rationalArrayValue(long[] units) {
+
+        if (units == null) throw new NullParamenterException();
+
+        RationalArray array = new RationalArray(units.length);
+        for (int i = 0; i < units.length; ++i) array.set(i, units[i], denominator);
+        return array;
+    }
+
+    /**
+     * @return the value with the scale of the context, such as {@code 12.50} for 1250 cents, when
+     *         the denominator is a power of ten, and the reduced fraction otherwise
+     */
+    public String toString(long units) {
+        if (scale >= 0) return BigDecimal.valueOf(units, scale).toPlainString();
+        return rationalNumberValue(units).toString();
+    }
+
+    /* first * second / divisor rounded, divisor > 0 */
+    private static long roundedQuotient(long first, long second, long divisor, RoundingMode roundingMode) {
+        long product;
+        try {
+            product = Math.multiplyExact(first, second);
+        } catch (ArithmeticException e) {
+            BigInteger exact = BigInteger.valueOf(first).multiply(BigInteger.valueOf(second));
+            try {
+                return new BigDecimal(exact).divide(BigDecimal.valueOf(divisor), 0, roundingMode).longValueExact();
+            } catch (ArithmeticException inexactOrOverflow) {
+                if (roundingMode == RoundingMode.UNNECESSARY && exact.mod(BigInteger.valueOf(divisor)).signum() != 0)
+                    throw inexactOrOverflow;
+                throw overflow();
+            }
+        }
+
+        long quotient = product / divisor;
+        long remainder = product % divisor;
+        if (remainder == 0) return quotient;
+
+        boolean negative = product < 0;
+        boolean away = RationalMath.roundsAwayFromZero(roundingMode, negative, Math.abs(remainder), divisor,
+                                                       (quotient & 1) != 0);
+        // the quotient is at most |Long.MIN_VALUE| / 2 when the divisor is larger than 1
+        return away ? (negative ? quotient - 1 : quotient + 1) : quotient;
+    }
+
+    private static RationalOverflowException overflow() {
+        return new RationalOverflowException("the units do not fit in a long");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return denominator == ((RationalContext) o).denominator;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(denominator);
+    }
+
+    @Override
+    public String toString() {
+        return "RationalContext[1/" + denominator + "]";
+    }
+}
@@ -0,0 +1,454 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException;
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable arithmetic expression over rational constants and named variables, built with the
+ * factory and operation methods or parsed from a formula, and compiled to a
+ * {@link CompiledRationalExpression} to be evaluated over many inputs.
+ * <p>
+ * Constants are folded while the expression is built: an operation on two constants is replaced
+ * by its result, and additions of zero, multiplications and divisions by one and double sign
+ * changes are removed. A multiplication by zero is kept unless both operands are constant, so the
+ * variables and the divisions of the other operand are still evaluated; {@code x^0} is folded to
+ * one.
+ * <p>
+ * The formulas accept {@code + - * /}, integer powers {@code x^3} and {@code x^-2}, parentheses,
+ * decimal literals such as {@code 12}, {@code 0.25} or {@code 1.5e-3}, the named constants
+ * {@code PI}, {@code E}, {@code ZERO}, {@code ONE}, {@code MINUS_ONE}, {@code TEN},
+ * {@code HUNDRED}, {@code ONE_HALF} and {@code ONE_QUARTER} of {@link RationalNumber}, and
+ * variables, which are the other identifiers. A power binds tighter than a sign, so {@code -x^2}
+ * is {@code -(x^2)}.
+ */
+public final class RationalExpression {
+
+    private final static Map<String, RationalNumber> CONSTANTS = Map.of(
+            "PI", RationalNumber.PI,
+            "E", RationalNumber.E,
+            "ZERO", RationalNumber.ZERO,
+            "ONE", RationalNumber.ONE,
+            "MINUS_ONE", RationalNumber.MINUS_ONE,
+            "TEN", RationalNumber.TEN,
+            "HUNDRED", RationalNumber.HUNDRED,
+            "ONE_HALF", RationalNumber.ONE_HALF,
+            "ONE_QUARTER", RationalNumber.ONE_QUARTER);
+
+    enum Kind { CONSTANT, VARIABLE, ADD, SUBTRACT, MULTIPLY, DIVIDE, TOGGLE_SIGN, POWER }
+
+    final Kind kind;
+    final RationalNumber value;
+    final String name;
+    final RationalExpression left;
+    final RationalExpression right;
+    final int exponent;
+    /* the nodes are immutable and hashed at every lookup of the compiler */
+    private final int hash;
+
+    private RationalExpression(Kind kind, RationalNumber value, String name,
+                               RationalExpression left, RationalExpression right, int exponent) {
+        this.kind = kind;
+        this.value = value;
+        this.name = name;
+        this.left = left;
+        this.right = right;
+        this.exponent = exponent;
+        this.hash = Objects.hash(kind, value, name, left, right, exponent);
+    }
+
+    public static RationalExpression constant(RationalNumber value) {
+
+        if (value == null) throw new NullParamenterException();
+
+        return new RationalExpression(Kind.CONSTANT, value, null, null, null, 0);
+    }
+
+    public static RationalExpression constant(long value) {
+        return constant(RationalNumber.valueOf(value));
+    }
+
+    /**
+     * @param name a Java identifier that is not the name of a constant
+     */
+    public static RationalExpression variable(String name) {
+
+        if (name == null) throw new NullParamenterException();
+        if (!isIdentifier(name) || CONSTANTS.containsKey(name))
+            throw new IllegalArgumentException("invalid variable name: " + name);
+
+        return new RationalExpression(Kind.VARIABLE, null, name, null, null, 0);
+    }
+
+    /**
+     * @throws InvalidFormatStringException if the formula is not valid
+     * @throws ZeroDenominatorException if a constant part of the formula divides by zero
+     */
+    public static RationalExpression parse(CharSequence formula) {
+
+        if (formula == null) throw new NullParamenterException();
+
+        return new Parser(formula).parse();
+    }
+
+    public boolean isConstant() { return kind == Kind.CONSTANT; }
+
+    /**
+     * @return the value of a constant expression, null otherwise
+     */
+    public RationalNumber constantValue() { return value; }
+
+    /**
+     * @return the names of the variables, in order of first appearance
+     */
+    public List<String> variables() {
+        Set<String> names = new LinkedHashSet<>();
+        collectVariables(names);
+        return new ArrayList<>(names);
+    }
+
+    private void collectVariables(Set<String> names) {
+        if (kind == Kind.VARIABLE) names.add(name);
+        if (left != null) left.collectVariables(names);
+        if (right != null) right.collectVariables(names);
+    }
+
+    public RationalExpression add(RationalExpression other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (isZero(other)) return this;
+        if (isZero(this)) return other;
+        if (isConstant() && other.isConstant()) {
+            RationalExpression folded = fold(Kind.ADD, other);
+            if (folded != null) return folded;
+        }
+        return new RationalExpression(Kind.ADD, null, null, this, other, 0);
+    }
+
+    public RationalExpression subtract(RationalExpression other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (isZero(other)) return this;
+        if (isZero(this)) return other.toggleSign();
+        if (isConstant() && other.isConstant()) {
+            RationalExpression folded = fold(Kind.SUBTRACT, other);
+            if (folded != null) return folded;
+        }
+        return new RationalExpression(Kind.SUBTRACT, null, null, this, other, 0);
+    }
+
+    public RationalExpression multiply(RationalExpression other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (isOne(other)) return this;
+        if (isOne(this)) return other;
+        if (isConstant() && other.isConstant()) {
+            RationalExpression folded = fold(Kind.MULTIPLY, other);
+            if (folded != null) return folded;
+        }
+        return new RationalExpression(Kind.MULTIPLY, null, null, this, other, 0);
+    }
+
+    /**
+     * @throws ZeroDenominatorException if {@code other} is the constant zero
+     */
+    public RationalExpression divide(RationalExpression other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (isOne(other)) return this;
+        if (isConstant() && other.isConstant()) {
+            RationalExpression folded = fold(Kind.DIVIDE, other);
+            if (folded != null) return folded;
+        }
+        if (isZero(other)) throw new ZeroDenominatorException();
+        return new RationalExpression(Kind.DIVIDE, null, null, this, other, 0);
+    }
+
+    public RationalExpression toggleSign() {
+        if (kind == Kind.TOGGLE_SIGN) return left;
+        if (isConstant() && value.numerator() != Long.MIN_VALUE) return constant(value.toggleSign());
+        return new RationalExpression(Kind.TOGGLE_SIGN, null, null, this, null, 0);
+    }
+
+    public RationalExpression power(int exponent) {
+        if (exponent == 1) return this;
+        if (exponent == 0) return constant(RationalNumber.ONE);
+        if (isConstant()) {
+            try {
+                return constant(value.power(exponent));
+            } catch (RationalOverflowException e) {
+                // left to the evaluation, which may not need the reduced power
+            }
+        }
+        return new RationalExpression(Kind.POWER, null, null, this, null, exponent);
+    }
+
+    private RationalExpression fold(Kind operation, RationalExpression other) {
+        try {
+            switch (operation) {
+                case ADD:
+                    return constant(value.add(other.value));
+                case SUBTRACT:
+                    return constant(value.subtract(other.value));
+                case MULTIPLY:
+                    return constant(value.multiply(other.value));
+                default:
+                    return constant(value.divide(other.value));
+            }
+        } catch (RationalOverflowException e) {
+            // the reduced constant does not fit in a long, it is computed at every evaluation
+            return null;
+        }
+    }
+
+    private static boolean isZero(RationalExpression expression) {
+        return expression.isConstant() && expression.value.numerator() == 0;
+    }
+
+    private static boolean isOne(RationalExpression expression) {
+        return expression.isConstant() && expression.value.equals(RationalNumber.ONE);
+    }
+
+    /**
+     * Compiles the expression with its variables in order of first appearance.
+     */
+    public CompiledRationalExpression compile() {
+        return compile(variables().toArray(new String[0]));
+    }
+
+    /**
+     * Compiles the expression with the given order of the variables, which is the order of the
+     * arguments of the evaluation methods. The list may contain variables that the expression does
+     * not use.
+     *
+     * @throws IllegalArgumentException if a variable of the expression is not in the list
+     */
+    public CompiledRationalExpression compile(String... variables) {
+
+        if (variables == null) throw new NullParamenterException();
+
+        return new CompiledRationalExpression(this, Arrays.asList(variables));
+    }
+
+    /**
+     * Evaluates the expression once; to evaluate it many times, compile it.
+     *
+     * @throws IllegalArgumentException if a variable has no value
+     */
+    public RationalNumber evaluate(Map<String, RationalNumber> values) {
+
+        if (values == null) throw new NullParamenterException();
+
+        List<String> variables = variables();
+        RationalNumber[] arguments = new RationalNumber[variables.size()];
+        for (int i = 0; i < arguments.length; ++i) {
+            arguments[i] = values.get(variables.get(i));
+            if (arguments[i] == null) throw new IllegalArgumentException("no value for the variable " + variables.get(i));
+        }
+        return compile(variables.toArray(new String[0])).evaluate(arguments);
+    }
+
+    private static boolean isIdentifier(CharSequence name) {
+        if (name.length() == 0 || !Character.isJavaIdentifierStart(name.charAt(0))) return false;
+        for (int i = 1; i < name.length(); ++i)
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) return false;
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RationalExpression that = (RationalExpression) o;
+        return hash == that.hash && kind == that.kind && exponent == that.exponent && Objects.equals(value, that.value)
+               && Objects.equals(name, that.name) && Objects.equals(left, that.left) && Objects.equals(right, that.right);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * @return the expression as a formula that {@link #parse(CharSequence)} accepts
+     */
+    @Override
+    public String toString() {
+        switch (kind) {
+            case CONSTANT:
+                return value.denominator() == 1 && value.numerator() >= 0
+                       ? Long.toString(value.numerator())
+                       : "(" + value.numerator() + (value.denominator() == 1 ? "" : "/" + value.denominator()) + ")";
+            case VARIABLE:
+                return name;
+            case ADD:
+                return "(" + left + " + " + right + ")";
+            case SUBTRACT:
+                return "(" + left + " - " + right + ")";
+            case MULTIPLY:
+                return "(" + left + " * " + right + ")";
+            case DIVIDE:
+                return "(" + left + " / " + right + ")";
+            case TOGGLE_SIGN:
+                return "(-" + left + ")";
+            default:
+                // the grammar has no power of a power
+                String base = left.kind == Kind.POWER ? "(" + left + ")" : left.toString();
+                return base + "^" + (exponent < 0 ? "(" + exponent + ")" : Integer.toString(exponent));
+        }
+    }
+
+    /**
+     * Recursive descent parser of the formulas:
+     * <pre>
+     * expression := term (('+' | '-') term)*
+     * term       := unary (('*' | '/') unary)*
+     * unary      := ('+' | '-') unary | power
+     * power      := primary ('^' integer)?
+     * primary    := number | identifier | '(' expression ')'
+     * integer    := ['+' | '-'] digits | '(' ['+' | '-'] digits ')'
+     * </pre>
+     */
+    private static final class Parser {
+
+        private final CharSequence formula;
+        private int position;
+
+        Parser(CharSequence formula) {
+            this.formula = formula;
+        }
+
+        RationalExpression parse() {
+            RationalExpression expression = expression();
+            skipWhitespace();
+            if (position != formula.length()) throw new InvalidFormatStringException();
+            return expression;
+        }
+
+        private RationalExpression expression() {
+            RationalExpression expression = term();
+            while (true) {
+                if (accept('+')) expression = expression.add(term());
+                else if (accept('-')) expression = expression.subtract(term());
+                else return expression;
+            }
+        }
+
+        private RationalExpression term() {
+            RationalExpression term = unary();
+            while (true) {
+                if (accept('*')) term = term.multiply(unary());
+                else if (accept('/')) term = term.divide(unary());
+                else return term;
+            }
+        }
+
+        private RationalExpression unary() {
+            if (accept('-')) return unary().toggleSign();
+            if (accept('+')) return unary();
+            return power();
+        }
+
+        private RationalExpression power() {
+            RationalExpression base = primary();
+            if (!accept('^')) return base;
+
+            boolean parenthesized = accept('(');
+            int exponent = integer();
+            if (parenthesized) expect(')');
+            return base.power(exponent);
+        }
+
+        private RationalExpression primary() {
+            skipWhitespace();
+            if (position == formula.length()) throw new InvalidFormatStringException();
+
+            char c = formula.charAt(position);
+            if (accept('(')) {
+                RationalExpression expression = expression();
+                expect(')');
+                return expression;
+            }
+            if (isDigit(c) || c == '.') return constant(number());
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = position;
+                while (position < formula.length() && Character.isJavaIdentifierPart(formula.charAt(position))) ++position;
+                String identifier = formula.subSequence(start, position).toString();
+                RationalNumber constant = CONSTANTS.get(identifier);
+                return constant != null ? constant(constant) : variable(identifier);
+            }
+            throw new InvalidFormatStringException();
+        }
+
+        private RationalNumber number() {
+            int start = position;
+            skipDigits();
+            if (position < formula.length() && formula.charAt(position) == '.') {
+                ++position;
+                skipDigits();
+            }
+            // an exponent only if digits follow
+            if (position < formula.length() && (formula.charAt(position) == 'e' || formula.charAt(position) == 'E')) {
+                int next = position + 1;
+                if (next < formula.length() && (formula.charAt(next) == '+' || formula.charAt(next) == '-')) ++next;
+                if (next < formula.length() && isDigit(formula.charAt(next))) {
+                    position = next;
+                    skipDigits();
+                }
+            }
+            return RationalParser.parse(formula.subSequence(start, position));
+        }
+
+        private int integer() {
+            skipWhitespace();
+            int start = position;
+            if (position < formula.length() && (formula.charAt(position) == '+' || formula.charAt(position) == '-')) ++position;
+            int digits = position;
+            skipDigits();
+            if (position == digits) throw new InvalidFormatStringException();
+            try {
+                return Integer.parseInt(formula.subSequence(start, position).toString());
+            } catch (NumberFormatException e) {
+                throw new InvalidFormatStringException();
+            }
+        }
+
+        private void skipDigits() {
+            while (position < formula.length() && isDigit(formula.charAt(position))) ++position;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private void skipWhitespace() {
+            while (position < formula.length() && Character.isWhitespace(formula.charAt(position))) ++position;
+        }
+
+        private boolean accept(char c) {
+            skipWhitespace();
+            if (position < formula.length() && formula.charAt(position) == c) {
+                ++position;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!accept(c)) throw new InvalidFormatStringException();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Hash map from rational numbers to values, with the keys stored as numerator and denominator
+ * pairs in primitive arrays. Every key can be given either as a {@link RationalNumber} or as a
+ * numerator and a denominator, which are reduced first, so grouping by rational keys needs no
+ * {@link RationalNumber} objects.
+ * <p>
+ * The table uses open addressing with linear probing and a load factor of at most 2/3. Null
+ * values are allowed. This class is not thread safe, but like {@link java.util.HashMap} it can be
+ * read by several threads while nobody modifies it.
+ *
+ * @param <V> the type of the values
+ */
+public final class RationalHashMap<V> extends RationalHashTable {
+
+    private Object[] values;
+    private Object[] oldValues;
+
+    public RationalHashMap() { this(0); }
+
+    public RationalHashMap(int expectedSize) {
+        super(expectedSize);
+        values = new Object[numerators.length];
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long numerator, long denominator, V value);
+    }
+
+    public V get(RationalNumber key) {
+        return getOrDefault(key, null);
+    }
+
+    public V get(long numerator, long denominator) {
+        return getOrDefault(numerator, denominator, null);
+    }
+
+    public V getOrDefault(RationalNumber key, V defaultValue) {
+
+        if (key == null) throw new NullParamenterException();
+
+        return valueAt(find(key.numerator(), key.denominator()), defaultValue);
+    }
+
+    public V getOrDefault(long numerator, long denominator, V defaultValue) {
+        long divisor = keyDivisor(numerator, denominator);
+        numerator /= divisor;
+        denominator /= divisor;
+        return valueAt(find(numerator, denominator), defaultValue);
+    }
+
+    public boolean containsKey(RationalNumber key) {
+
+        if (key == null) throw new NullParamenterException();
+
+        return find(key.numerator(), key.denominator()) >= 0;
+    }
+
+    public boolean containsKey(long numerator, long denominator) {
+        long divisor = keyDivisor(numerator, denominator);
+        numerator /= divisor;
+        denominator /= divisor;
+        return find(numerator, denominator) >= 0;
+    }
+
+    /**
+     * @return the previous value of the key, or null if there was none
+     */
+    public V put(RationalNumber key, V value) {
+
+        if (key == null) throw new NullParamenterException();
+
+        return putReduced(key.numerator(), key.denominator(), value);
+    }
+
+    public V put(long numerator, long denominator, V value) {
+        long divisor = keyDivisor(numerator, denominator);
+        numerator /= divisor;
+        denominator /= divisor;
+        return putReduced(numerator, denominator, value);
+    }
+
+    /**
+     * @return the value of the key, created with {@code supplier} and stored if the key is absent
+     */
+    public V computeIfAbsent(RationalNumber key, Supplier<? extends V> supplier) {
+
+        if (key == null) throw new NullParamenterException();
+
+        return computeIfAbsentReduced(key.numerator(), key.denominator(), supplier);
+    }
+
+    public V computeIfAbsent(long numerator, long denominator, Supplier<? extends V> supplier) {
+        long divisor = keyDivisor(numerator, denominator);
+        numerator /= divisor;
+        denominator /= divisor;
+        return computeIfAbsentReduced(numerator, denominator, supplier);
+    }
+
+    /**
+     * Stores {@code value} for an absent key, otherwise the result of {@code function} applied to
+     * the current value and {@code value}, like {@link java.util.Map#merge}; a null result
+     * removes the key.
+     */
+    public V merge(long numerator, long denominator, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+
+        if (value == null || function == null) throw new NullParamenterException();
+
+        long divisor = keyDivisor(numerator, denominator);
+        numerator /= divisor;
+        denominator /= divisor;
+        int slot = find(numerator, denominator);
+        if (slot < 0) {
+            store(~slot, numerator, denominator, value);
+            return value;
+        }
+
+        V merged = function.apply(value(slot), value);
+        if (merged == null) removeAt(slot);
+        else values[slot] = merged;
+        return merged;
+    }
+
+    /**
+     * @return the removed value, or null if the key was absent
+     */
+    public V remove(RationalNumber key) {
+
+        if (key == null) throw new NullParamenterException();
+
+        return removeReduced(key.numerator(), key.denominator());
+    }
+
+    public V remove(long numerator, long denominator) {
+        long divisor = keyDivisor(numerator, denominator);
+        numerator /= divisor;
+        denominator /= divisor;
+        return removeReduced(numerator, denominator);
+    }
+
+    public void forEach(EntryConsumer<? super V> action) {
+
+        if (action == null) throw new NullParamenterException();
+
+        for (int i = 0; i < denominators.length; ++i)
+            if (denominators[i] != 0) action.accept(numerators[i], denominators[i], value(i));
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(values, null);
+    }
+
+    private V putReduced(long numerator, long denominator, V value) {
+        int slot = find(numerator, denominator);
+        if (slot >= 0) {
+            V previous = value(slot);
+            values[slot] = value;
+            return previous;
+        }
+        store(~slot, numerator, denominator, value);
+        return null;
+    }
+
+    private V computeIfAbsentReduced(long numerator, long denominator, Supplier<? extends V> supplier) {
+
+        if (supplier == null) throw new NullParamenterException();
+
+        int slot = find(numerator, denominator);
+        if (slot >= 0) return value(slot);
+
+        V value = supplier.get();
+        store(~slot, numerator, denominator, value);
+        return value;
+    }
+
+    private V removeReduced(long numerator, long denominator) {
+        int slot = find(numerator, denominator);
+        if (slot < 0) return null;
+
+        V previous = value(slot);
+        removeAt(slot);
+        return previous;
+    }
+
+    private void store(int emptySlot, long numerator, long denominator, V value) {
+        // the insertion may grow the table and replace the values array
+        int slot = insert(emptySlot, numerator, denominator);
+        values[slot] = value;
+    }
+
+    private V valueAt(int slot, V defaultValue) {
+        return slot >= 0 ? value(slot) : defaultValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int slot) {
+        return (V) values[slot];
+    }
+
+    @Override
+    void beginRehash(int capacity) {
+        oldValues = values;
+        values = new Object[capacity];
+    }
+
+    @Override
+    void relocate(int oldSlot, int newSlot) {
+        values[newSlot] = oldValues[oldSlot];
+    }
+
+    @Override
+    void endRehash() {
+        oldValues = null;
+    }
+
+    @Override
+    void move(int from, int to) {
+        values[to] = values[from];
+    }
+
+    @Override
+    void clearSlot(int slot) {
+        values[slot] = null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((numerator, denominator, value) -> {
+            if (builder.length() > 1) builder.append(", ");
+            builder.append(RationalNumber.valueOf(numerator, denominator)).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,113 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+/**
+ * Hash set of rational numbers stored as numerator and denominator pairs in primitive arrays,
+ * see {@link RationalHashMap}. This class is not thread safe, but it can be read by several
+ * threads while nobody modifies it.
+ */
+public final class RationalHashSet extends RationalHashTable {
+
+    public RationalHashSet() { this(0); }
+
+    public RationalHashSet(int expectedSize) {
+        super(expectedSize);
+    }
+
+    @FunctionalInterface
+    public interface FractionConsumer {
+        void accept(long numerator, long denominator);
+    }
+
+    public static RationalHashSet valueOf(RationalArray array) {
+
+        if (array == null) throw new NullParamenterException();
+
+        RationalHashSet set = new RationalHashSet(array.length());
+        for (int i = 0; i < array.length(); ++i) set.addReduced(array.numerator(i), array.denominator(i));
+        return set;
+    }
+
+    public boolean contains(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return find(number.numerator(), number.denominator()) >= 0;
+    }
+
+    public boolean contains(long numerator, long denominator) {
+        long divisor = keyDivisor(numerator, denominator);
+        numerator /= divisor;
+        denominator /= divisor;
+        return find(numerator, denominator) >= 0;
+    }
+
+    /**
+     * @return true if the number was not already in the set
+     */
+    public boolean add(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return addReduced(number.numerator(), number.denominator());
+    }
+
+    public boolean add(long numerator, long denominator) {
+        long divisor = keyDivisor(numerator, denominator);
+        numerator /= divisor;
+        denominator /= divisor;
+        return addReduced(numerator, denominator);
+    }
+
+    /**
+     * @return true if the number was in the set
+     */
+    public boolean remove(RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        return removeReduced(number.numerator(), number.denominator());
+    }
+
+    public boolean remove(long numerator, long denominator) {
+        long divisor = keyDivisor(numerator, denominator);
+        numerator /= divisor;
+        denominator /= divisor;
+        return removeReduced(numerator, denominator);
+    }
+
+    public void forEach(FractionConsumer action) {
+
+        if (action == null) throw new NullParamenterException();
+
+        for (int i = 0; i < denominators.length; ++i)
+            if (denominators[i] != 0) action.accept(numerators[i], denominators[i]);
+    }
+
+    private boolean addReduced(long numerator, long denominator) {
+        int slot = find(numerator, denominator);
+        if (slot >= 0) return false;
+
+        insert(~slot, numerator, denominator);
+        return true;
+    }
+
+    private boolean removeReduced(long numerator, long denominator) {
+        int slot = find(numerator, denominator);
+        if (slot < 0) return false;
+
+        removeAt(slot);
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        forEach((numerator, denominator) -> {
+            if (builder.length() > 1) builder.append(", ");
+            builder.append(RationalNumber.valueOf(numerator, denominator));
+        });
+        return builder.append(']').toString();
+    }
+}
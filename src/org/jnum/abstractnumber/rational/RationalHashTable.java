@@ -0,0 +1,158 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing table of reduced fractions shared by {@link RationalHashMap} and
+ * {@link RationalHashSet}. The keys are stored in two parallel {@code long[]}, a zero
+ * denominator marks an empty slot, collisions are resolved by linear probing and removals shift
+ * the following entries back, so the table never contains tombstones.
+ */
+abstract class RationalHashTable {
+
+    private final static int DEFAULT_CAPACITY = 16;
+    private final static int MAX_CAPACITY = 1 << 30;
+
+    long[] numerators;
+    long[] denominators;
+    int size;
+    private int mask;
+    private int threshold;
+
+    RationalHashTable(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("the expected size cannot be negative: " + expectedSize);
+
+        int capacity = DEFAULT_CAPACITY;
+        // the load factor is at most 2/3
+        while (capacity < MAX_CAPACITY && capacity * 2L < expectedSize * 3L) capacity <<= 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        numerators = new long[capacity];
+        denominators = new long[capacity];
+        mask = capacity - 1;
+        threshold = capacity == MAX_CAPACITY ? Integer.MAX_VALUE : capacity / 3 * 2;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return size == 0; }
+
+    /**
+     * @return the divisor that reduces the fraction and makes its denominator positive; the key is
+     *         returned through the arguments of the caller, so concurrent reads of an unmodified
+     *         table do not share any state
+     */
+    static long keyDivisor(long numerator, long denominator) {
+
+        if (denominator == 0) throw new ZeroDenominatorException();
+
+        long gcd = RationalNumber.greatestCommonDenominator(numerator, denominator);
+        if (denominator > 0) return gcd;
+        if (numerator / gcd == Long.MIN_VALUE || denominator / gcd == Long.MIN_VALUE)
+            throw new RationalOverflowException("the sign of the fraction cannot be normalized in a long");
+        return -gcd;
+    }
+
+    /**
+     * @return the slot of the reduced key, or {@code ~slot} of the empty slot where it belongs
+     */
+    int find(long numerator, long denominator) {
+        int slot = RationalNumber.hash(numerator, denominator) & mask;
+        while (denominators[slot] != 0) {
+            if (numerators[slot] == numerator && denominators[slot] == denominator) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    /**
+     * Stores the key at the empty slot returned by {@link #find(long, long)}, growing the table
+     * when needed.
+     *
+     * @return the slot of the key
+     */
+    int insert(int emptySlot, long numerator, long denominator) {
+        numerators[emptySlot] = numerator;
+        denominators[emptySlot] = denominator;
+        if (++size <= threshold) return emptySlot;
+
+        grow();
+        return find(numerator, denominator);
+    }
+
+    private void grow() {
+        if (numerators.length == MAX_CAPACITY) throw new IllegalStateException("the table is full");
+
+        long[] oldNumerators = numerators;
+        long[] oldDenominators = denominators;
+        allocate(numerators.length * 2);
+        beginRehash(numerators.length);
+        for (int i = 0; i < oldDenominators.length; ++i) {
+            if (oldDenominators[i] == 0) continue;
+            int slot = ~find(oldNumerators[i], oldDenominators[i]);
+            numerators[slot] = oldNumerators[i];
+            denominators[slot] = oldDenominators[i];
+            relocate(i, slot);
+        }
+        endRehash();
+    }
+
+    /**
+     * Empties the slot and moves back the entries of the same probe sequence that follow it.
+     */
+    void removeAt(int slot) {
+        --size;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; denominators[next] != 0; next = (next + 1) & mask) {
+            int home = RationalNumber.hash(numerators[next], denominators[next]) & mask;
+            // the entry can fill the hole if its home slot is not between the hole and its slot
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                numerators[hole] = numerators[next];
+                denominators[hole] = denominators[next];
+                move(next, hole);
+                hole = next;
+            }
+        }
+        numerators[hole] = 0;
+        denominators[hole] = 0;
+        clearSlot(hole);
+    }
+
+    public void clear() {
+        Arrays.fill(numerators, 0);
+        Arrays.fill(denominators, 0);
+        size = 0;
+    }
+
+    /**
+     * @return the keys in table order
+     */
+    public RationalArray keys() {
+        long[] keyNumerators = new long[size];
+        long[] keyDenominators = new long[size];
+        int j = 0;
+        for (int i = 0; i < denominators.length; ++i) {
+            if (denominators[i] == 0) continue;
+            keyNumerators[j] = numerators[i];
+            keyDenominators[j++] = denominators[i];
+        }
+        return RationalArray.valueOf(keyNumerators, keyDenominators);
+    }
+
+    /* hooks for the tables that store a value per key */
+
+    void beginRehash(int capacity) { }
+
+    void relocate(int oldSlot, int newSlot) { }
+
+    void endRehash() { }
+
+    void move(int from, int to) { }
+
+    void clearSlot(int slot) { }
+}
@@ -0,0 +1,128 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads rational numbers written by {@link RationalOutputStream}. The input is read in bulk in an
+ * internal buffer, so the underlying stream does not need to be buffered.
+ * <p>
+ * This class is not thread safe.
+ */
+public class RationalInputStream extends FilterInputStream {
+
+    private final static int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final ByteBuffer buffer;
+    private final long[] fraction = new long[2];
+    private boolean endOfStream;
+
+    public RationalInputStream(InputStream in) { this(in, DEFAULT_BUFFER_SIZE); }
+
+    public RationalInputStream(InputStream in, int bufferSize) {
+        super(in);
+
+        if (in == null) throw new NullParamenterException();
+        if (bufferSize < RationalCodec.MAX_ENCODED_LENGTH)
+            throw new IllegalArgumentException("buffer smaller than " + RationalCodec.MAX_ENCODED_LENGTH + " bytes");
+
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.limit(0);
+    }
+
+    /**
+     * @throws EOFException if the stream ends before the next value
+     * @throws org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException
+     *         if the bytes are not a valid encoding
+     */
+    public RationalNumber readRationalNumber() throws IOException {
+        if (!readRationalNumber(fraction)) throw new EOFException();
+        return RationalNumber.valueOf(fraction[0], fraction[1]);
+    }
+
+    /**
+     * Reads the next value in {@code result[0]} (numerator) and {@code result[1]} (denominator)
+     * without creating a {@link RationalNumber}.
+     *
+     * @return false if the stream ended before the next value
+     */
+    public boolean readRationalNumber(long[] result) throws IOException {
+
+        if (buffer.remaining() < RationalCodec.MAX_ENCODED_LENGTH) fillBuffer();
+        if (!buffer.hasRemaining()) return false;
+
+        int start = buffer.position();
+        try {
+            RationalCodec.decode(buffer, result);
+            return true;
+        } catch (BufferUnderflowException e) {
+            buffer.position(start);
+            throw new EOFException("the stream ends in the middle of a value");
+        }
+    }
+
+    /**
+     * Fills {@code array} from its first element.
+     *
+     * @return the number of values read, smaller than the length of the array only at the end of the stream
+     */
+    public int read(RationalArray array) throws IOException {
+
+        if (array == null) throw new NullParamenterException();
+
+        int count = 0;
+        while (count < array.length() && readRationalNumber(fraction))
+            array.set(count++, fraction[0], fraction[1]);
+        return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!buffer.hasRemaining()) fillBuffer();
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!buffer.hasRemaining()) fillBuffer();
+        if (!buffer.hasRemaining()) return -1;
+
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = Math.min(n, buffer.remaining());
+        buffer.position(buffer.position() + (int) skipped);
+        return skipped < n ? skipped + in.skip(n - skipped) : skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return buffer.remaining() + in.available();
+    }
+
+    @Override
+    public boolean markSupported() { return false; }
+
+    private void fillBuffer() throws IOException {
+        buffer.compact();
+        while (!endOfStream && buffer.hasRemaining()) {
+            int count = in.read(buffer.array(), buffer.position(), buffer.remaining());
+            if (count < 0) endOfStream = true;
+            else if (count == 0) break;
+            else buffer.position(buffer.position() + count);
+            if (buffer.position() >= RationalCodec.MAX_ENCODED_LENGTH) break;
+        }
+        buffer.flip();
+    }
+}
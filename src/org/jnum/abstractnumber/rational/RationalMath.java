@@ -0,0 +1,151 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+import java.math.RoundingMode;
+
+/**
+ * Allocation free kernels on reduced numerator/denominator pairs, shared by the primitive
+ * representations of this package.
+ * <p>
+ * The operands must be reduced with a positive denominator. The reduced result is written in
+ * {@code result[0]} (numerator) and {@code result[1]} (denominator). Like {@link RationalNumber},
+ * when the long arithmetic overflows the operation is redone on {@link BigRationalNumber} and a
+ * {@link org.jnum.abstractnumber.rational.exceptions.RationalOverflowException} is thrown only
+ * if the reduced result does not fit in a long.
+ */
+final class RationalMath {
+
+    private RationalMath() { }
+
+    static void add(long firstNumerator, long firstDenominator,
+                    long secondNumerator, long secondDenominator, long[] result) {
+        try {
+            long gcd = RationalNumber.greatestCommonDenominator(firstDenominator, secondDenominator);
+            if (gcd == 1) {
+                result[0] = Math.addExact(
+                        Math.multiplyExact(firstNumerator, secondDenominator),
+                        Math.multiplyExact(secondNumerator, firstDenominator));
+                result[1] = Math.multiplyExact(firstDenominator, secondDenominator);
+                return;
+            }
+
+            long newNumerator = Math.addExact(
+                    Math.multiplyExact(firstNumerator, secondDenominator / gcd),
+                    Math.multiplyExact(secondNumerator, firstDenominator / gcd));
+            long secondGcd = RationalNumber.greatestCommonDenominator(newNumerator, gcd);
+            long newDenominator = Math.multiplyExact(firstDenominator / gcd, secondDenominator / secondGcd);
+            result[0] = newNumerator / secondGcd;
+            result[1] = newDenominator;
+        } catch (ArithmeticException e) {
+            store(BigRationalNumber.addInflated(
+                    BigRationalNumber.valueOf(firstNumerator, firstDenominator),
+                    BigRationalNumber.valueOf(secondNumerator, secondDenominator)), result);
+        }
+    }
+
+    static void subtract(long firstNumerator, long firstDenominator,
+                         long secondNumerator, long secondDenominator, long[] result) {
+        if (secondNumerator == Long.MIN_VALUE) {
+            store(BigRationalNumber.subtractInflated(
+                    BigRationalNumber.valueOf(firstNumerator, firstDenominator),
+                    BigRationalNumber.valueOf(secondNumerator, secondDenominator)), result);
+            return;
+        }
+        add(firstNumerator, firstDenominator, -secondNumerator, secondDenominator, result);
+    }
+
+    static void multiply(long firstNumerator, long firstDenominator,
+                         long secondNumerator, long secondDenominator, long[] result) {
+        try {
+            long firstGcd = RationalNumber.greatestCommonDenominator(firstNumerator, secondDenominator);
+            long secondGcd = RationalNumber.greatestCommonDenominator(secondNumerator, firstDenominator);
+            long newNumerator = Math.multiplyExact(firstNumerator / firstGcd, secondNumerator / secondGcd);
+            result[1] = Math.multiplyExact(firstDenominator / secondGcd, secondDenominator / firstGcd);
+            result[0] = newNumerator;
+        } catch (ArithmeticException e) {
+            store(BigRationalNumber.multiplyInflated(
+                    BigRationalNumber.valueOf(firstNumerator, firstDenominator),
+                    BigRationalNumber.valueOf(secondNumerator, secondDenominator)), result);
+        }
+    }
+
+    static void divide(long firstNumerator, long firstDenominator,
+                       long secondNumerator, long secondDenominator, long[] result) {
+
+        if (secondNumerator == 0) throw new ZeroDenominatorException();
+
+        if (secondNumerator == Long.MIN_VALUE) {
+            store(BigRationalNumber.divideInflated(
+                    BigRationalNumber.valueOf(firstNumerator, firstDenominator),
+                    BigRationalNumber.valueOf(secondNumerator, secondDenominator)), result);
+        } else if (secondNumerator < 0) {
+            multiply(firstNumerator, firstDenominator, -secondDenominator, -secondNumerator, result);
+        } else {
+            multiply(firstNumerator, firstDenominator, secondDenominator, secondNumerator, result);
+        }
+    }
+
+    static void reciprocal(long numerator, long denominator, long[] result) {
+        divide(1, 1, numerator, denominator, result);
+    }
+
+    /**
+     * Exact comparison of two fractions with positive denominators, computing the cross products
+     * on 128 bits with {@link Math#multiplyHigh(long, long)}.
+     */
+    static int compare(long firstNumerator, long firstDenominator,
+                       long secondNumerator, long secondDenominator) {
+
+        if (firstDenominator == secondDenominator) return Long.compare(firstNumerator, secondNumerator);
+
+        long firstHigh = Math.multiplyHigh(firstNumerator, secondDenominator);
+        long secondHigh = Math.multiplyHigh(secondNumerator, firstDenominator);
+        if (firstHigh != secondHigh) return Long.compare(firstHigh, secondHigh);
+
+        return Long.compareUnsigned(firstNumerator * secondDenominator, secondNumerator * firstDenominator);
+    }
+
+    /**
+     * Decides the rounding of a quotient truncated towards zero, shared by {@link DecimalExpansion}
+     * and {@link RationalContext}.
+     *
+     * @param remainder the magnitude of the remainder, {@code 0 <= remainder < divisor}
+     * @param divisor the positive divisor
+     * @param oddQuotient whether the last kept digit of the truncated quotient is odd
+     * @return true if the magnitude of the truncated quotient must be increased by one unit
+     * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY} and the
+     *         remainder is not zero
+     */
+    static boolean roundsAwayFromZero(RoundingMode roundingMode, boolean negative, long remainder, long divisor,
+                                      boolean oddQuotient) {
+        if (remainder == 0) return false;
+
+        // sign of remainder / divisor - 1/2
+        int half = Long.compare(remainder, divisor - remainder);
+        switch (roundingMode) {
+            case UP:
+                return true;
+            case DOWN:
+                return false;
+            case CEILING:
+                return !negative;
+            case FLOOR:
+                return negative;
+            case HALF_UP:
+                return half >= 0;
+            case HALF_DOWN:
+                return half > 0;
+            case HALF_EVEN:
+                return half > 0 || half == 0 && oddQuotient;
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+    }
+
+    private static void store(BigRationalNumber value, long[] result) {
+        RationalNumber exact = value.rationalNumberValueExact();
+        result[0] = exact.numerator();
+        result[1] = exact.denominator();
+    }
+}
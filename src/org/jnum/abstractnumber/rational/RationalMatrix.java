@@ -0,0 +1,427 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.SingularMatrixException;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable matrix of rational numbers, stored row by row in two parallel {@code long[]} like
+ * {@link RationalArray}.
+ * <p>
+ * {@link #determinant()}, {@link #rank()}, {@link #inverse()} and {@link #solve(RationalMatrix)}
+ * use the fraction-free elimination of Bareiss: every row is first scaled to integers, then each
+ * step replaces the entries with 2x2 determinants divided exactly by the previous pivot. The
+ * intermediate entries are minors of the scaled matrix, so they grow linearly in size instead of
+ * exponentially, and no GCD is computed during the elimination. The elimination runs on
+ * {@link BigInteger}s and only the results must fit in a {@link RationalNumber}; otherwise a
+ * {@link org.jnum.abstractnumber.rational.exceptions.RationalOverflowException} is thrown.
+ * <p>
+ * The rows of a step are independent, so for large matrices they are updated in parallel on the
+ * common fork-join pool.
+ */
+public final class RationalMatrix {
+
+    /* number of entries updated by a step above which the rows are updated in parallel */
+    private final static int PARALLEL_THRESHOLD = 1 << 10;
+
+    private final int rows;
+    private final int columns;
+    private final long[] numerators;
+    private final long[] denominators;
+
+    private RationalMatrix(int rows, int columns, long[] numerators, long[] denominators) {
+        this.rows = rows;
+        this.columns = columns;
+        this.numerators = numerators;
+        this.denominators = denominators;
+    }
+
+    private RationalMatrix(int rows, int columns) {
+        this(rows, columns, new long[rows * columns], new long[rows * columns]);
+        Arrays.fill(denominators, 1);
+    }
+
+    public static RationalMatrix zero(int rows, int columns) {
+        if (rows <= 0 || columns <= 0)
+            throw new IllegalArgumentException("a matrix needs at least one row and one column");
+        return new RationalMatrix(rows, columns);
+    }
+
+    public static RationalMatrix identity(int size) {
+        RationalMatrix identity = zero(size, size);
+        for (int i = 0; i < size; ++i) identity.numerators[i * size + i] = 1;
+        return identity;
+    }
+
+    public static RationalMatrix valueOf(RationalNumber[][] entries) {
+
+        RationalMatrix matrix = zero(checkShape(entries), entries[0].length);
+        for (int i = 0; i < matrix.rows; ++i)
+            for (int j = 0; j < matrix.columns; ++j) {
+                RationalNumber entry = entries[i][j];
+                if (entry == null) throw new NullParamenterException();
+                matrix.numerators[i * matrix.columns + j] = entry.numerator();
+                matrix.denominators[i * matrix.columns + j] = entry.denominator();
+            }
+        return matrix;
+    }
+
+    public static RationalMatrix valueOf(long[][] entries) {
+
+        RationalMatrix matrix = zero(checkShape(entries), entries[0].length);
+        for (int i = 0; i < matrix.rows; ++i)
+            System.arraycopy(entries[i], 0, matrix.numerators, i * matrix.columns, matrix.columns);
+        return matrix;
+    }
+
+    /**
+     * @return a matrix with a single column
+     */
+    public static RationalMatrix column(RationalNumber... entries) {
+
+        if (entries == null) throw new NullParamenterException();
+
+        RationalNumber[][] column = new RationalNumber[entries.length][];
+        for (int i = 0; i < entries.length; ++i) column[i] = new RationalNumber[] { entries[i] };
+        return valueOf(column);
+    }
+
+    private static int checkShape(Object[] entries) {
+
+        if (entries == null) throw new NullParamenterException();
+        if (entries.length == 0) throw new IllegalArgumentException("a matrix needs at least one row");
+
+        int columns = -1;
+        for (Object row : entries) {
+            if (row == null) throw new NullParamenterException();
+            int length = row instanceof long[] ? ((long[]) row).length : ((Object[]) row).length;
+            if (columns >= 0 && length != columns) throw new IllegalArgumentException("the rows have different lengths");
+            columns = length;
+        }
+        return entries.length;
+    }
+
+    public int rows() { return rows; }
+
+    public int columns() { return columns; }
+
+    public boolean isSquare() { return rows == columns; }
+
+    public RationalNumber get(int row, int column) {
+        int index = index(row, column);
+        return RationalNumber.valueOf(numerators[index], denominators[index]);
+    }
+
+    public long numerator(int row, int column) { return numerators[index(row, column)]; }
+
+    public long denominator(int row, int column) { return denominators[index(row, column)]; }
+
+    private int index(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns)
+            throw new IndexOutOfBoundsException("entry (" + row + ", " + column + ") out of bounds for a "
+                    + rows + "x" + columns + " matrix");
+        return row * columns + column;
+    }
+
+    public RationalMatrix transpose() {
+        RationalMatrix transpose = new RationalMatrix(columns, rows);
+        for (int i = 0; i < rows; ++i)
+            for (int j = 0; j < columns; ++j) {
+                transpose.numerators[j * rows + i] = numerators[i * columns + j];
+                transpose.denominators[j * rows + i] = denominators[i * columns + j];
+            }
+        return transpose;
+    }
+
+    public RationalMatrix add(RationalMatrix other) {
+
+        if (other == null) throw new NullParamenterException();
+        if (rows != other.rows || columns != other.columns)
+            throw new IllegalArgumentException("cannot add a " + other.rows + "x" + other.columns
+                    + " matrix to a " + rows + "x" + columns + " matrix");
+
+        RationalMatrix sum = new RationalMatrix(rows, columns);
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.add(numerators[i], denominators[i], other.numerators[i], other.denominators[i], result);
+            sum.numerators[i] = result[0];
+            sum.denominators[i] = result[1];
+        }
+        return sum;
+    }
+
+    public RationalMatrix multiply(RationalNumber scalar) {
+
+        if (scalar == null) throw new NullParamenterException();
+
+        RationalMatrix product = new RationalMatrix(rows, columns);
+        long[] result = new long[2];
+        for (int i = 0; i < numerators.length; ++i) {
+            RationalMath.multiply(numerators[i], denominators[i], scalar.numerator(), scalar.denominator(), result);
+            product.numerators[i] = result[0];
+            product.denominators[i] = result[1];
+        }
+        return product;
+    }
+
+    /**
+     * Every entry of the product is accumulated in a {@link RationalAccumulator}, so the dot
+     * products are reduced only when they would overflow.
+     */
+    public RationalMatrix multiply(RationalMatrix other) {
+
+        if (other == null) throw new NullParamenterException();
+        if (columns != other.rows)
+            throw new IllegalArgumentException("cannot multiply a " + rows + "x" + columns
+                    + " matrix by a " + other.rows + "x" + other.columns + " matrix");
+
+        RationalMatrix product = new RationalMatrix(rows, other.columns);
+        RationalAccumulator accumulator = new RationalAccumulator(RationalNumber.ZERO, 0);
+        long[] result = new long[2];
+        for (int i = 0; i < rows; ++i)
+            for (int j = 0; j < other.columns; ++j) {
+                accumulator.reset();
+                for (int k = 0; k < columns; ++k) {
+                    int left = i * columns + k;
+                    int right = k * other.columns + j;
+                    RationalMath.multiply(numerators[left], denominators[left],
+                            other.numerators[right], other.denominators[right], result);
+                    accumulator.addFraction(result[0], result[1]);
+                }
+                RationalNumber entry = accumulator.rationalNumberValue();
+                product.numerators[i * other.columns + j] = entry.numerator();
+                product.denominators[i * other.columns + j] = entry.denominator();
+            }
+        return product;
+    }
+
+    public RationalNumber determinant() {
+        checkSquare();
+
+        BigInteger[][] matrix = integerRows(null);
+        Elimination elimination = eliminate(matrix, columns, false);
+        if (elimination.rank < rows) return RationalNumber.ZERO;
+
+        // every row was multiplied by the LCM of its denominators
+        BigInteger scale = BigInteger.ONE;
+        for (int i = 0; i < rows; ++i) {
+            BigInteger lcm = BigInteger.ONE;
+            for (int j = 0; j < columns; ++j) lcm = lcm(lcm, denominators[i * columns + j]);
+            scale = scale.multiply(lcm);
+        }
+
+        BigInteger determinant = matrix[rows - 1][columns - 1];
+        if (elimination.negative) determinant = determinant.negate();
+        return new BigRationalNumber(determinant, scale).rationalNumberValueExact();
+    }
+
+    public int rank() {
+        return eliminate(integerRows(null), columns, false).rank;
+    }
+
+    /**
+     * @throws SingularMatrixException if the determinant is zero
+     */
+    public RationalMatrix inverse() {
+        checkSquare();
+        return solve(identity(rows));
+    }
+
+    /**
+     * Solves {@code this * x = b} for a column vector {@code b}.
+     *
+     * @throws SingularMatrixException if the determinant is zero
+     */
+    public RationalNumber[] solve(RationalNumber... b) {
+
+        if (b == null) throw new NullParamenterException();
+
+        RationalMatrix x = solve(column(b));
+        RationalNumber[] solution = new RationalNumber[rows];
+        for (int i = 0; i < rows; ++i) solution[i] = x.get(i, 0);
+        return solution;
+    }
+
+    /**
+     * Solves {@code this * X = b}, one system per column of {@code b}, with the fraction-free
+     * Gauss-Jordan variant of Bareiss elimination: the left block ends as {@code d * I} and the
+     * right block as {@code d * X}, where {@code d} is the last pivot.
+     *
+     * @throws SingularMatrixException if the determinant is zero
+     */
+    public RationalMatrix solve(RationalMatrix b) {
+
+        if (b == null) throw new NullParamenterException();
+        checkSquare();
+        if (b.rows != rows)
+            throw new IllegalArgumentException("the right hand side has " + b.rows + " rows instead of " + rows);
+
+        BigInteger[][] matrix = integerRows(b);
+        if (eliminate(matrix, columns, true).rank < rows) throw new SingularMatrixException();
+
+        RationalMatrix x = new RationalMatrix(rows, b.columns);
+        for (int i = 0; i < rows; ++i) {
+            BigInteger pivot = matrix[i][i];
+            for (int j = 0; j < b.columns; ++j) {
+                RationalNumber entry = new BigRationalNumber(matrix[i][columns + j], pivot).rationalNumberValueExact();
+                x.numerators[i * b.columns + j] = entry.numerator();
+                x.denominators[i * b.columns + j] = entry.denominator();
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Same as {@link #solve(RationalNumber...)}, with the multi-modular algorithm of
+     * {@link #solveModular(RationalMatrix)}.
+     */
+    public RationalNumber[] solveModular(RationalNumber... b) {
+
+        if (b == null) throw new NullParamenterException();
+
+        RationalMatrix x = solveModular(column(b));
+        RationalNumber[] solution = new RationalNumber[rows];
+        for (int i = 0; i < rows; ++i) solution[i] = x.get(i, 0);
+        return solution;
+    }
+
+    /**
+     * Solves {@code this * X = b} like {@link #solve(RationalMatrix)}, but modulo many primes of
+     * 63 bits in parallel, recovering the rational solution by Chinese remaindering and rational
+     * reconstruction. The work grows with the size of the solution rather than with the size of
+     * the intermediate minors, so it is the faster choice for large systems.
+     *
+     * @throws SingularMatrixException if the determinant is zero
+     */
+    public RationalMatrix solveModular(RationalMatrix b) {
+
+        if (b == null) throw new NullParamenterException();
+        checkSquare();
+        if (b.rows != rows)
+            throw new IllegalArgumentException("the right hand side has " + b.rows + " rows instead of " + rows);
+
+        return ModularSolver.solve(this, b);
+    }
+
+    private void checkSquare() {
+        if (!isSquare()) throw new IllegalArgumentException("the matrix is not square: " + rows + "x" + columns);
+    }
+
+    /* rows of [this | augmented] multiplied by the LCM of their denominators */
+    private BigInteger[][] integerRows(RationalMatrix augmented) {
+        int width = columns + (augmented == null ? 0 : augmented.columns);
+        BigInteger[][] matrix = new BigInteger[rows][width];
+        for (int i = 0; i < rows; ++i) {
+            BigInteger lcm = BigInteger.ONE;
+            for (int j = 0; j < width; ++j) lcm = lcm(lcm, entryDenominator(augmented, i, j));
+            for (int j = 0; j < width; ++j) {
+                long denominator = entryDenominator(augmented, i, j);
+                long numerator = j < columns ?
+                        numerators[i * columns + j] :
+                        augmented.numerators[i * augmented.columns + j - columns];
+                matrix[i][j] = lcm.divide(BigInteger.valueOf(denominator)).multiply(BigInteger.valueOf(numerator));
+            }
+        }
+        return matrix;
+    }
+
+    private long entryDenominator(RationalMatrix augmented, int row, int column) {
+        return column < columns ?
+                denominators[row * columns + column] :
+                augmented.denominators[row * augmented.columns + column - columns];
+    }
+
+    private static BigInteger lcm(BigInteger lcm, long denominator) {
+        if (denominator == 1) return lcm;
+        BigInteger value = BigInteger.valueOf(denominator);
+        return lcm.divide(lcm.gcd(value)).multiply(value);
+    }
+
+    private static final class Elimination {
+        int rank;
+        boolean negative;
+    }
+
+    /*
+     * Bareiss elimination on the first pivotColumns columns. With reduce the rows above the pivot
+     * are eliminated too (Gauss-Jordan), otherwise only the rows below. Each new entry is
+     * (pivot * a[i][j] - a[i][k] * a[r][j]) / previousPivot, where the division is exact.
+     */
+    private Elimination eliminate(BigInteger[][] matrix, int pivotColumns, boolean reduce) {
+        Elimination elimination = new Elimination();
+
+        int width = matrix[0].length;
+        BigInteger previousPivot = BigInteger.ONE;
+        int r = 0;
+        for (int k = 0; k < pivotColumns && r < rows; ++k) {
+            int pivotRow = r;
+            while (pivotRow < rows && matrix[pivotRow][k].signum() == 0) ++pivotRow;
+            if (pivotRow == rows) continue;
+
+            if (pivotRow != r) {
+                BigInteger[] tmp = matrix[pivotRow];
+                matrix[pivotRow] = matrix[r];
+                matrix[r] = tmp;
+                elimination.negative = !elimination.negative;
+            }
+
+            final int row = r;
+            final int column = k;
+            final BigInteger pivot = matrix[r][k];
+            final BigInteger divisor = previousPivot;
+            IntStream updatedRows = IntStream.range(reduce ? 0 : r + 1, rows).filter(i -> i != row);
+            if ((long) (rows - (reduce ? 0 : r + 1)) * (width - k) >= PARALLEL_THRESHOLD)
+                updatedRows = updatedRows.parallel();
+            updatedRows.forEach(i -> updateRow(matrix[i], matrix[row], column, pivot, divisor, reduce));
+
+            previousPivot = pivot;
+            ++r;
+        }
+        elimination.rank = r;
+        return elimination;
+    }
+
+    private static void updateRow(BigInteger[] target, BigInteger[] pivotRow, int column,
+                                  BigInteger pivot, BigInteger previousPivot, boolean reduce) {
+        BigInteger factor = target[column];
+        for (int j = reduce ? 0 : column + 1; j < target.length; ++j) {
+            if (j == column) continue;
+            BigInteger value = pivot.multiply(target[j]);
+            if (factor.signum() != 0) value = value.subtract(factor.multiply(pivotRow[j]));
+            target[j] = value.divide(previousPivot);
+        }
+        target[column] = BigInteger.ZERO;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RationalMatrix that = (RationalMatrix) o;
+        return rows == that.rows && columns == that.columns
+                && Arrays.equals(numerators, that.numerators)
+                && Arrays.equals(denominators, that.denominators);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * rows + Arrays.hashCode(numerators)) + Arrays.hashCode(denominators);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < rows; ++i) {
+            builder.append(i == 0 ? "[" : ", [");
+            for (int j = 0; j < columns; ++j) {
+                if (j > 0) builder.append(", ");
+                builder.append(get(i, j));
+            }
+            builder.append(']');
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,204 @@
+package org.jnum.abstractnumber.rational;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in runtime metrics of the rational numbers: operation counts, GCD calls and iterations,
+ * reductions, promotions to {@link BigRationalNumber}, overflows and parse failures.
+ * <p>
+ * The metrics are enabled by starting the JVM with {@code -Djnum.rational.metrics=true}. The flag
+ * is read once into a constant, so when it is off every hook is a dead branch that the JIT
+ * removes. When it is on, the counters are {@link LongAdder}s, overflows and parse failures are
+ * also emitted as JFR events and the counters are emitted as a periodic JFR event, so a flight
+ * recording contains everything without polling {@link #snapshot()}.
+ */
+public final class RationalMetrics {
+
+    public enum Counter {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE, POWER, COMPARE, PARSE,
+        GCD_CALLS, GCD_ITERATIONS, REDUCTIONS, PROMOTIONS, OVERFLOWS, PARSE_FAILURES
+    }
+
+    final static boolean ENABLED = Boolean.getBoolean("jnum.rational.metrics");
+
+    private final static Counter[] COUNTERS = Counter.values();
+    private final static LongAdder[] VALUES = new LongAdder[COUNTERS.length];
+
+    static {
+        for (int i = 0; i < VALUES.length; ++i) VALUES[i] = new LongAdder();
+        if (ENABLED) FlightRecorder.addPeriodicEvent(CountersEvent.class, RationalMetrics::emitCounters);
+    }
+
+    private RationalMetrics() { }
+
+    public static boolean isEnabled() { return ENABLED; }
+
+    /**
+     * @return the current value of every counter, all zeros when the metrics are disabled
+     */
+    public static Snapshot snapshot() {
+        long[] values = new long[COUNTERS.length];
+        for (int i = 0; i < values.length; ++i) values[i] = VALUES[i].sum();
+        return new Snapshot(values);
+    }
+
+    public static void reset() {
+        for (LongAdder value : VALUES) value.reset();
+    }
+
+    static void count(Counter counter) {
+        if (ENABLED) VALUES[counter.ordinal()].increment();
+    }
+
+    static void gcd(int iterations) {
+        if (ENABLED) {
+            VALUES[Counter.GCD_CALLS.ordinal()].increment();
+            VALUES[Counter.GCD_ITERATIONS.ordinal()].add(iterations);
+        }
+    }
+
+    static void overflow(int numeratorBits, int denominatorBits) {
+        if (ENABLED) {
+            VALUES[Counter.OVERFLOWS.ordinal()].increment();
+            OverflowEvent event = new OverflowEvent();
+            if (event.shouldCommit()) {
+                event.numeratorBits = numeratorBits;
+                event.denominatorBits = denominatorBits;
+                event.commit();
+            }
+        }
+    }
+
+    static void parseFailure(String reason, int length) {
+        if (ENABLED) {
+            VALUES[Counter.PARSE_FAILURES.ordinal()].increment();
+            ParseFailureEvent event = new ParseFailureEvent();
+            if (event.shouldCommit()) {
+                event.reason = reason;
+                event.length = length;
+                event.commit();
+            }
+        }
+    }
+
+    private static void emitCounters() {
+        Snapshot snapshot = snapshot();
+        CountersEvent event = new CountersEvent();
+        event.operations = snapshot.get(Counter.ADD) + snapshot.get(Counter.SUBTRACT)
+                + snapshot.get(Counter.MULTIPLY) + snapshot.get(Counter.DIVIDE)
+                + snapshot.get(Counter.POWER) + snapshot.get(Counter.COMPARE) + snapshot.get(Counter.PARSE);
+        event.gcdCalls = snapshot.get(Counter.GCD_CALLS);
+        event.gcdIterations = snapshot.get(Counter.GCD_ITERATIONS);
+        event.reductions = snapshot.get(Counter.REDUCTIONS);
+        event.promotions = snapshot.get(Counter.PROMOTIONS);
+        event.overflows = snapshot.get(Counter.OVERFLOWS);
+        event.parseFailures = snapshot.get(Counter.PARSE_FAILURES);
+        event.commit();
+    }
+
+    /**
+     * Immutable copy of the counters at a point in time.
+     */
+    public static final class Snapshot {
+
+        private final long[] values;
+
+        private Snapshot(long[] values) {
+            this.values = values;
+        }
+
+        public long get(Counter counter) {
+
+            if (counter == null) throw new NullParamenterException();
+
+            return values[counter.ordinal()];
+        }
+
+        /**
+         * @return the counters accumulated since {@code previous}, for interval based exporters
+         */
+        public Snapshot since(Snapshot previous) {
+
+            if (previous == null) throw new NullParamenterException();
+
+            long[] delta = new long[values.length];
+            for (int i = 0; i < delta.length; ++i) delta[i] = values[i] - previous.values[i];
+            return new Snapshot(delta);
+        }
+
+        public Map<Counter, Long> toMap() {
+            Map<Counter, Long> map = new EnumMap<>(Counter.class);
+            for (Counter counter : COUNTERS) map.put(counter, values[counter.ordinal()]);
+            return Collections.unmodifiableMap(map);
+        }
+
+        @Override
+        public String toString() {
+            return toMap().toString();
+        }
+    }
+
+    @Name("org.jnum.rational.Overflow")
+    @Label("Rational Overflow")
+    @Category({"JNum", "Rational"})
+    @Description("A result did not fit in a RationalNumber")
+    static final class OverflowEvent extends Event {
+        @Label("Numerator Bits")
+        int numeratorBits;
+
+        @Label("Denominator Bits")
+        int denominatorBits;
+    }
+
+    @Name("org.jnum.rational.ParseFailure")
+    @Label("Rational Parse Failure")
+    @Category({"JNum", "Rational"})
+    static final class ParseFailureEvent extends Event {
+        @Label("Reason")
+        String reason;
+
+        @Label("Input Length")
+        int length;
+    }
+
+    @Name("org.jnum.rational.Counters")
+    @Label("Rational Counters")
+    @Category({"JNum", "Rational"})
+    @Period("1 s")
+    @StackTrace(false)
+    static final class CountersEvent extends Event {
+        @Label("Operations")
+        long operations;
+
+        @Label("GCD Calls")
+        long gcdCalls;
+
+        @Label("GCD Iterations")
+        long gcdIterations;
+
+        @Label("Reductions")
+        long reductions;
+
+        @Label("Promotions")
+        long promotions;
+
+        @Label("Overflows")
+        long overflows;
+
+        @Label("Parse Failures")
+        long parseFailures;
+    }
+}
@@ -4,22 +4,28 @@ import org.jnum.abstractnumber.AbstractNumber;
 import org.jnum.abstractnumber.rational.exceptions.*;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
 import java.math.RoundingMode;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class RationalNumber extends Number implements AbstractNumber<RationalNumber> {
 
     private final static int DEFAULT_SCALE = 2;
     private final static RoundingMode DEFAULT_ROUNDING_MODE = RoundingMode.HALF_UP;
-    private final static Pattern IS_DECIMAL = Pattern.compile("-?\\d+((.)?\\d+)?", Pattern.CASE_INSENSITIVE);
-    private final static Pattern IS_INTEGER = Pattern.compile("-?\\d+", Pattern.CASE_INSENSITIVE);
-
-    private final static long[] LONG_10_POW = {
-            1,      10,      100,      1000,      10000,
-            100000, 1000000, 10000000, 100000000, 1000000000
+    private final static double COMPARISON_TOLERANCE = 0x1p-49;
+
+    /* shared with RationalParser */
+    final static long[] LONG_10_POW = {
+            1L,                  10L,                  100L,
+            1000L,               10000L,               100000L,
+            1000000L,            10000000L,            100000000L,
+            1000000000L,         10000000000L,         100000000000L,
+            1000000000000L,      10000000000000L,      100000000000000L,
+            1000000000000000L,   10000000000000000L,   100000000000000000L,
+            1000000000000000000L
     };
 
     private final static long[] LONG_2_POW = {
@@ -38,13 +44,13 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
                     543656365691809L,
                     200000000000000L,
                     false);
-    public final static RationalNumber ZERO = new RationalNumber(0);
-    public final static RationalNumber ONE = new RationalNumber(1);
-    public final static RationalNumber MINUS_ONE = new RationalNumber(-1);
-    public final static RationalNumber TEN = new RationalNumber(10);
-    public final static RationalNumber HUNDRED = new RationalNumber(100);
-    public final static RationalNumber ONE_HALF = new RationalNumber(1,2,false);
-    public final static RationalNumber ONE_QUARTER = new RationalNumber(1,4,false);
+    public final static RationalNumber ZERO = valueOf(0);
+    public final static RationalNumber ONE = valueOf(1);
+    public final static RationalNumber MINUS_ONE = valueOf(-1);
+    public final static RationalNumber TEN = valueOf(10);
+    public final static RationalNumber HUNDRED = valueOf(100);
+    public final static RationalNumber ONE_HALF = valueOf(1,2);
+    public final static RationalNumber ONE_QUARTER = valueOf(1,4);
 
     private long numerator;
     private long denominator;
@@ -56,49 +62,85 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
         this.numerator = numerator;
         this.denominator = denominator;
 
-        setSign();
-
         if (simplify)
             simplifyRationalNumber();
+
+        setSign();
     }
 
     private RationalNumber(BigDecimal number, boolean simplify) {
 
         int scale = number.scale();
-        this.numerator = number.movePointRight(scale).longValue();
-        this.denominator = expBase10(scale);
+        BigInteger unscaledValue = number.unscaledValue();
 
-        if (denominator == 0) throw new ZeroDenominatorException();
-
-        setSign();
+        if (scale >= 0 && scale < LONG_10_POW.length && unscaledValue.bitLength() < Long.SIZE) {
+            this.numerator = unscaledValue.longValue();
+            this.denominator = LONG_10_POW[scale];
 
-        if (simplify)
-            simplifyRationalNumber();
+            if (simplify)
+                simplifyRationalNumber();
+        } else {
+            // the unscaled value or the power of ten overflow, but the reduced fraction may still fit
+            RationalNumber exact = BigRationalNumber.valueOf(number).rationalNumberValueExact();
+            this.numerator = exact.numerator;
+            this.denominator = exact.denominator;
+        }
     }
 
     private RationalNumber(String number, boolean simplify) {
 
-        String inputNumber = number.trim();
-        validateString(inputNumber);
-        if (isAnInteger(inputNumber)) {
-            this.numerator = Long.parseLong(inputNumber);
+        // the parser always returns a reduced fraction
+        long[] fraction = new long[2];
+        RationalParser.parse(number, fraction);
+        this.numerator = fraction[0];
+        this.denominator = fraction[1];
+    }
+
+    /**
+     * Creates the value of {@code number}: the exact value read from its IEEE 754 bits when it
+     * fits, that is a dyadic fraction {@code m / 2^k}, so {@code new RationalNumber(0.1)} is
+     * 3602879701896397/36028797018963968. Otherwise, as for {@code 1e-5} whose exact value needs a
+     * denominator above 2^62, the value is the shortest decimal that rounds to the double,
+     * {@link Double#toString(double)}, here 1/100000. See {@link #valueOfExact(double)} for the
+     * strict conversion.
+     *
+     * @throws IllegalArgumentException if the number is NaN or infinite
+     * @throws RationalOverflowException if neither the exact value nor the decimal one fits, for
+     *         numbers above {@code Long.MAX_VALUE} or very close to zero
+     */
+    public RationalNumber(double number) { this(number, false); }
+
+    private RationalNumber(double number, boolean exact) {
+        long bits = Double.doubleToRawLongBits(number);
+        int biasedExponent = (int) (bits >>> 52) & 0x7FF;
+        if (biasedExponent == 0x7FF) throw new IllegalArgumentException("not a finite number: " + number);
+
+        long mantissa = bits & 0xFFFFFFFFFFFFFL;
+        int exponent = biasedExponent == 0 ? -1074 : biasedExponent - 1075;
+        if (biasedExponent != 0) mantissa |= 1L << 52;
+
+        if (mantissa == 0) {
+            this.numerator = 0;
             this.denominator = 1;
-        } else {
-            int scale = countDecimalDigits(inputNumber);
-            this.numerator = Long.parseLong(inputNumber.replace(".",""));
-            this.denominator = expBase10(scale);
-
-            if (denominator == 0) throw new ZeroDenominatorException();
-
-            setSign();
+            return;
+        }
 
-            if (simplify)
-                simplifyRationalNumber();
+        int trailingZeros = Long.numberOfTrailingZeros(mantissa);
+        mantissa >>>= trailingZeros;
+        exponent += trailingZeros;
+        if (exponent >= 0 ? exponent > Long.numberOfLeadingZeros(mantissa) - 1 : exponent < -62) {
+            if (exact)
+                throw new RationalOverflowException("the exact value of " + number + " does not fit in a RationalNumber");
+
+            long[] fraction = new long[2];
+            RationalParser.parse(Double.toString(number), fraction);
+            this.numerator = fraction[0];
+            this.denominator = fraction[1];
+            return;
         }
-    }
 
-    public RationalNumber(double number) {
-        this(Double.toString(number),true);
+        this.numerator = bits < 0 ? -(mantissa << Math.max(exponent, 0)) : mantissa << Math.max(exponent, 0);
+        this.denominator = exponent < 0 ? 1L << -exponent : 1;
     }
 
     public RationalNumber(long numerator) {
@@ -114,23 +156,8 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
 
     public RationalNumber(String number) { this(number,true); }
 
-    private int countDecimalDigits(String number) {
-        return number.length() - number.indexOf('.') - 1;
-    }
-
-    private boolean isADecimalNumber(String number) {
-        return IS_DECIMAL.matcher(number).matches();
-    }
-
-    private boolean isAnInteger(String number) {
-        return IS_INTEGER.matcher(number).matches();
-    }
-
-    private void validateString(String number) {
-        if (!isADecimalNumber(number)) throw new InvalidFormatStringException();
-    }
-
     private void simplifyRationalNumber() {
+        RationalMetrics.count(RationalMetrics.Counter.REDUCTIONS);
         long gcd = greatestCommonDenominator(this.numerator, this.denominator);
         this.numerator /=  gcd;
         this.denominator /= gcd;
@@ -138,34 +165,54 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
 
     private void setSign() {
         if (this.denominator < 0) {
+            if (this.numerator == Long.MIN_VALUE || this.denominator == Long.MIN_VALUE)
+                throw new RationalOverflowException("the sign of the fraction cannot be normalized in a long");
             this.numerator *= -1;
-            this.numerator *= -1;
+            this.denominator *= -1;
         }
     }
 
     private long expBase2(long exponent) {
-        if (exponent <= LONG_2_POW.length) return LONG_2_POW[(int)exponent];
+        if (exponent < LONG_2_POW.length) return LONG_2_POW[(int)exponent];
         return naturalPow(2,exponent);
     }
 
     private long expBase10(long exponent) {
-        if (exponent <= LONG_10_POW.length) return LONG_10_POW[(int)exponent];
+        if (exponent < LONG_10_POW.length) return LONG_10_POW[(int)exponent];
         return naturalPow(10,exponent);
     }
 
-    private long naturalPow(long base, long exponent) {
+    /**
+     * Exponentiation by squaring, with the exponent read as unsigned. Throws an
+     * {@link ArithmeticException} as soon as the result does not fit in a long.
+     */
+    private static long naturalPow(long base, long exponent) {
         if (base == 0 && exponent == 0) throw new ZeroExponentialException();
+        if (base == 0 || base == 1) return base == 0 ? 0 : 1;
+        if (base == -1) return (exponent & 1) == 0 ? 1 : -1;
+        if (Long.compareUnsigned(exponent, Long.SIZE) >= 0) throw new ArithmeticException("long overflow");
 
         long result = 1;
-        for (long i = 0; i < exponent; ++i)
-            result *= base;
+        while (true) {
+            if ((exponent & 1) != 0) result = Math.multiplyExact(result, base);
+            exponent >>>= 1;
+            if (exponent == 0) return result;
+            base = Math.multiplyExact(base, base);
+        }
+    }
 
-        return result;
+    private BigRationalNumber inflate() {
+        return BigRationalNumber.valueOf(this);
     }
 
+    public long numerator() { return this.numerator; }
+
+    public long denominator() { return this.denominator; }
+
     @Override
     public RationalNumber toggleSign() {
-        return new RationalNumber(-1 * this.numerator, this.denominator, false);
+        if (this.numerator == Long.MIN_VALUE) return inflate().toggleSign().rationalNumberValueExact();
+        return ofReduced(-1 * this.numerator, this.denominator);
     }
 
     @Override
@@ -174,10 +221,22 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
     }
 
     @Override
-    public float floatValue() { return (float) this.numerator / this.denominator; }
+    public float floatValue() {
+        // both operands are exact floats, so the division is correctly rounded
+        if (Math.abs(this.numerator) <= 1L << 24 && this.denominator <= 1L << 24)
+            return (float) this.numerator / this.denominator;
+        return (float) BigRationalNumber.roundedQuotient(
+                BigInteger.valueOf(this.numerator), BigInteger.valueOf(this.denominator), 24, -149);
+    }
 
     @Override
-    public double doubleValue() { return (double) this.numerator / this.denominator; }
+    public double doubleValue() {
+        // both operands are exact doubles, so the division is correctly rounded
+        if (Math.abs(this.numerator) <= 1L << 53 && this.denominator <= 1L << 53)
+            return (double) this.numerator / this.denominator;
+        return BigRationalNumber.roundedQuotient(
+                BigInteger.valueOf(this.numerator), BigInteger.valueOf(this.denominator), 53, -1074);
+    }
 
     @Override
     public int intValue() { return (int) (this.numerator / this.denominator); }
@@ -199,97 +258,206 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
                 .divide(BigDecimal.valueOf(denominator), scale, roundingMode);
     }
 
-    private long greatestCommonDenominator(long first, long second) {
-        return second == 0 ?
-                first :
-                greatestCommonDenominator(second, first % second);
+    /**
+     * Binary GCD of the magnitudes of the two arguments. {@code Long.MIN_VALUE} is handled as the
+     * unsigned value 2^63, so the result is always a divisor of both arguments.
+     */
+    static long greatestCommonDenominator(long first, long second) {
+
+        first = Math.abs(first);
+        second = Math.abs(second);
+
+        if (first == 0) return second;
+        if (second == 0) return first;
+
+        int shift = Long.numberOfTrailingZeros(first | second);
+        int iterations = 0;
+        first >>>= Long.numberOfTrailingZeros(first);
+        do {
+            ++iterations;
+            second >>>= Long.numberOfTrailingZeros(second);
+            if (Long.compareUnsigned(first, second) > 0) {
+                long tmp = first;
+                first = second;
+                second = tmp;
+            }
+            second -= first;
+        } while (second != 0);
+
+        RationalMetrics.gcd(iterations);
+        return first << shift;
     }
 
-    private long leastCommonMultiple(long first, long second) {
-        return (first * second) / greatestCommonDenominator(first, second);
+    /*
+     * The *Exact methods are the long fast path: both operands are reduced, so the results are
+     * reduced as well (Knuth, TAOCP vol. 2, 4.5.1). They throw an ArithmeticException on overflow
+     * and the public methods fall back to BigRationalNumber, demoting the result when it fits.
+     */
+
+    RationalNumber multiplyExact(long otherNumerator, long otherDenominator) {
+        long firstGcd = greatestCommonDenominator(numerator, otherDenominator);
+        long secondGcd = greatestCommonDenominator(otherNumerator, denominator);
+        return ofReduced(
+                Math.multiplyExact(numerator / firstGcd, otherNumerator / secondGcd),
+                Math.multiplyExact(denominator / secondGcd, otherDenominator / firstGcd)
+        );
+    }
+
+    RationalNumber addExact(long otherNumerator, long otherDenominator) {
+        long gcd = greatestCommonDenominator(denominator, otherDenominator);
+        if (gcd == 1)
+            return ofReduced(
+                    Math.addExact(
+                            Math.multiplyExact(numerator, otherDenominator),
+                            Math.multiplyExact(otherNumerator, denominator)),
+                    Math.multiplyExact(denominator, otherDenominator)
+            );
+
+        long newNumerator = Math.addExact(
+                Math.multiplyExact(numerator, otherDenominator / gcd),
+                Math.multiplyExact(otherNumerator, denominator / gcd));
+        long secondGcd = greatestCommonDenominator(newNumerator, gcd);
+        return ofReduced(
+                newNumerator / secondGcd,
+                Math.multiplyExact(denominator / gcd, otherDenominator / secondGcd)
+        );
+    }
+
+    RationalNumber powerExact(long exponent) {
+        if (exponent >= 0)
+            return ofReduced(
+                    naturalPow(this.numerator, exponent),
+                    naturalPow(this.denominator, exponent)
+            );
+
+        // unsigned, so that Long.MIN_VALUE is 2^63
+        long exp = -exponent;
+        return ofReduced(
+                naturalPow(this.denominator, exp),
+                naturalPow(this.numerator, exp)
+        );
     }
 
     @Override
     public RationalNumber reciprocal() {
-        return new RationalNumber(denominator, numerator,false);
+        if (this.numerator == Long.MIN_VALUE) return inflate().reciprocal().rationalNumberValueExact();
+        return ofReduced(denominator, numerator);
     }
 
     @Override
     public RationalNumber multiply(RationalNumber other) {
 
         if (other == null) throw new NullParamenterException();
+        RationalMetrics.count(RationalMetrics.Counter.MULTIPLY);
 
-        return new RationalNumber(
-                numerator * other.numerator,
-                denominator * other.denominator,
-                true
-        );
+        try {
+            return multiplyExact(other.numerator, other.denominator);
+        } catch (ArithmeticException e) {
+            return BigRationalNumber.multiplyInflated(inflate(), other.inflate()).rationalNumberValueExact();
+        }
     }
 
     @Override
     public RationalNumber divide(RationalNumber other) {
 
         if (other == null) throw new NullParamenterException();
+        RationalMetrics.count(RationalMetrics.Counter.DIVIDE);
+        if (other.numerator == 0) throw new ZeroDenominatorException();
 
-        return new RationalNumber(
-                numerator * other.denominator,
-                denominator * other.numerator,
-                true
-        );
+        try {
+            return multiplyExact(other.denominator, other.numerator);
+        } catch (ArithmeticException e) {
+            return BigRationalNumber.divideInflated(inflate(), other.inflate()).rationalNumberValueExact();
+        }
     }
 
     @Override
     public RationalNumber add(RationalNumber other) {
 
         if (other == null) throw new NullParamenterException();
+        RationalMetrics.count(RationalMetrics.Counter.ADD);
 
-        long lcm = leastCommonMultiple(denominator, other.denominator);
-        long newNumerator = (numerator * (lcm / denominator)) + (other.numerator * (lcm / other.denominator));
-        return new RationalNumber(newNumerator, lcm, true);
+        try {
+            return addExact(other.numerator, other.denominator);
+        } catch (ArithmeticException e) {
+            return BigRationalNumber.addInflated(inflate(), other.inflate()).rationalNumberValueExact();
+        }
     }
 
     @Override
     public RationalNumber subtract(RationalNumber other) {
 
         if (other == null) throw new NullParamenterException();
+        RationalMetrics.count(RationalMetrics.Counter.SUBTRACT);
 
-        long lcm = leastCommonMultiple(denominator, other.denominator);
-        long newNumerator = (numerator * (lcm / denominator)) - (other.numerator * (lcm / other.denominator));
-        return new RationalNumber(newNumerator, lcm, true);
+        try {
+            return addExact(Math.negateExact(other.numerator), other.denominator);
+        } catch (ArithmeticException e) {
+            return BigRationalNumber.subtractInflated(inflate(), other.inflate()).rationalNumberValueExact();
+        }
     }
 
     @Override
     public RationalNumber multiply(long other) {
-        return new RationalNumber(numerator * other, denominator, true);
+        RationalMetrics.count(RationalMetrics.Counter.MULTIPLY);
+        try {
+            return multiplyExact(other, 1);
+        } catch (ArithmeticException e) {
+            return BigRationalNumber.multiplyInflated(inflate(), BigRationalNumber.valueOf(other))
+                    .rationalNumberValueExact();
+        }
     }
 
     @Override
     public RationalNumber divide(long other) {
-        return new RationalNumber(numerator, denominator * other, true);
+
+        if (other == 0) throw new ZeroDenominatorException();
+        RationalMetrics.count(RationalMetrics.Counter.DIVIDE);
+
+        try {
+            return multiplyExact(1, other);
+        } catch (ArithmeticException e) {
+            return BigRationalNumber.divideInflated(inflate(), BigRationalNumber.valueOf(other))
+                    .rationalNumberValueExact();
+        }
     }
 
     @Override
     public RationalNumber add(long other) {
-        long lcm = leastCommonMultiple(denominator, other);
-        long newNumerator = (numerator * (lcm / denominator)) + (other * lcm);
-        return new RationalNumber(newNumerator, lcm, true);
+        RationalMetrics.count(RationalMetrics.Counter.ADD);
+        try {
+            return ofReduced(
+                    Math.addExact(numerator, Math.multiplyExact(other, denominator)),
+                    denominator
+            );
+        } catch (ArithmeticException e) {
+            return BigRationalNumber.addInflated(inflate(), BigRationalNumber.valueOf(other))
+                    .rationalNumberValueExact();
+        }
     }
 
     @Override
     public RationalNumber subtract(long other) {
-        long lcm = leastCommonMultiple(denominator, other);
-        long newNumerator = (numerator * (lcm / denominator)) - (other * lcm);
-        return new RationalNumber(newNumerator, lcm, true);
+        RationalMetrics.count(RationalMetrics.Counter.SUBTRACT);
+        try {
+            return ofReduced(
+                    Math.subtractExact(numerator, Math.multiplyExact(other, denominator)),
+                    denominator
+            );
+        } catch (ArithmeticException e) {
+            return BigRationalNumber.subtractInflated(inflate(), BigRationalNumber.valueOf(other))
+                    .rationalNumberValueExact();
+        }
     }
 
     @Override
     public RationalNumber increment() {
-        return new RationalNumber(this.numerator + 1, this.denominator, true);
+        return add(1);
     }
 
     @Override
     public RationalNumber decrement() {
-        return new RationalNumber(this.numerator - 1, this.denominator,true);
+        return subtract(1);
     }
 
     @Override
@@ -302,9 +470,9 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
 
         if (others == null) throw new NullParamenterException();
 
-        RationalNumber result = duplicateThis();
-        for (final RationalNumber other : others) result = result.add(other);
-        return new RationalNumber(result.numerator, result.denominator,true);
+        RationalAccumulator accumulator = new RationalAccumulator(this);
+        for (RationalNumber other : others) accumulator.add(other);
+        return accumulator.rationalNumberValue();
     }
 
     @Override
@@ -312,9 +480,9 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
 
         if (others == null) throw new NullParamenterException();
 
-        RationalNumber result = duplicateThis();
-        for (RationalNumber other : others) result = result.multiply(other);
-        return new RationalNumber(result.numerator, result.denominator, true);
+        RationalAccumulator accumulator = new RationalAccumulator(this);
+        for (RationalNumber other : others) accumulator.multiply(other);
+        return accumulator.rationalNumberValue();
     }
 
     @Override
@@ -322,9 +490,9 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
 
         if (others == null) throw new NullParamenterException();
 
-        RationalNumber result = duplicateThis();
-        for (RationalNumber other : others) result = result.subtract(other);
-        return new RationalNumber(result.numerator, result.denominator, true);
+        RationalAccumulator accumulator = new RationalAccumulator(this);
+        for (RationalNumber other : others) accumulator.subtract(other);
+        return accumulator.rationalNumberValue();
     }
 
     @Override
@@ -332,14 +500,14 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
 
         if (others == null) throw new NullParamenterException();
 
-        RationalNumber result = duplicateThis();
-        for (RationalNumber other : others) result = result.divide(other);
-        return new RationalNumber(result.numerator, result.denominator, true);
+        RationalAccumulator accumulator = new RationalAccumulator(this);
+        for (RationalNumber other : others) accumulator.divide(other);
+        return accumulator.rationalNumberValue();
     }
 
     @Override
     public RationalNumber applyPercentage() {
-        return new RationalNumber(this.numerator * 100, this.denominator, true);
+        return multiply(100);
     }
 
     @Override
@@ -349,27 +517,135 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
 
     @Override
     public RationalNumber power(long exponent) {
-        if (exponent >= 0)
-            return new RationalNumber(
-                    naturalPow(this.numerator, exponent),
-                    naturalPow(this.denominator, exponent),
-                    false
-            );
-
-        long exp = Math.abs(exponent);
-        return new RationalNumber(
-                naturalPow(this.denominator, exp),
-                naturalPow(this.numerator, exp),
-                false
-        );
+        RationalMetrics.count(RationalMetrics.Counter.POWER);
+        try {
+            return powerExact(exponent);
+        } catch (ArithmeticException e) {
+            RationalMetrics.count(RationalMetrics.Counter.PROMOTIONS);
+            return BigRationalNumber.powerInflated(inflate(), exponent).rationalNumberValueExact();
+        }
     }
 
+    /**
+     * The power is computed exactly when the result is rational, that is when the numerator and
+     * the denominator of this number are perfect powers of the exponent denominator.
+     *
+     * @throws NotImplementedFeatureException if the result is irrational, see
+     *         {@link #power(RationalNumber, MathContext)}
+     */
     @Override
     public RationalNumber power(RationalNumber exponent) {
 
         if (exponent == null) throw new NullParamenterException();
         if (exponent.denominator == 1) return power(exponent.numerator);
-        throw new NotImplementedFeatureException("powers with rational exponent");
+
+        RationalNumber exact = exactPower(exponent.numerator, exponent.denominator);
+        if (exact == null) throw new NotImplementedFeatureException("powers with an irrational result");
+        return exact;
+    }
+
+    /**
+     * Like {@link #power(RationalNumber)}, but an irrational result is approximated: the result
+     * is the fraction with the smallest denominator that rounds to the same {@code mathContext}
+     * digits as the exact power.
+     *
+     * @throws ArithmeticException if the result is irrational and the precision is unlimited, or
+     *         if this number is negative and the exponent denominator is even
+     */
+    public RationalNumber power(RationalNumber exponent, MathContext mathContext) {
+
+        if (exponent == null || mathContext == null) throw new NullParamenterException();
+        if (exponent.denominator == 1) return power(exponent.numerator);
+
+        RationalNumber exact = exactPower(exponent.numerator, exponent.denominator);
+        if (exact != null) return exact;
+        if (mathContext.getPrecision() == 0)
+            throw new ArithmeticException("irrational power with unlimited precision");
+
+        int degree = rootDegree(exponent.denominator);
+        BigRationalNumber radicand = BigRationalNumber.powerInflated(inflate().abs(), exponent.numerator);
+        BigDecimal root = RationalRoots.root(radicand, degree, mathContext.getPrecision()).round(mathContext);
+        BigRationalNumber halfUlp = BigRationalNumber.valueOf(root.ulp()).divide(BigRationalNumber.valueOf(2));
+        BigRationalNumber approximation = RationalRoots.simplestBetween(
+                BigRationalNumber.valueOf(root).subtract(halfUlp),
+                BigRationalNumber.valueOf(root).add(halfUlp));
+        // the root degree is odd here, so the sign is the one of this^p
+        boolean negative = this.numerator < 0 && (exponent.numerator & 1) != 0;
+        return (negative ? approximation.toggleSign() : approximation).rationalNumberValueExact();
+    }
+
+    /**
+     * @return the exact n-th root
+     * @throws ArithmeticException if the root is irrational, or if this number is negative and
+     *         n is even
+     */
+    public RationalNumber rootExact(int n) {
+        if (n < 1) throw new IllegalArgumentException("the degree of a root must be positive: " + n);
+
+        RationalNumber exact = exactPower(1, n);
+        if (exact == null) throw new ArithmeticException(this + " is not a perfect power of degree " + n);
+        return exact;
+    }
+
+    /**
+     * @return the fraction with the smallest denominator within {@code tolerance} of the n-th
+     *         root, computed with Newton's iteration when the root is irrational
+     * @throws ArithmeticException if this number is negative and n is even
+     */
+    public RationalNumber root(int n, RationalNumber tolerance) {
+
+        if (tolerance == null) throw new NullParamenterException();
+        if (n < 1) throw new IllegalArgumentException("the degree of a root must be positive: " + n);
+        if (tolerance.numerator <= 0) throw new IllegalArgumentException("the tolerance must be positive");
+
+        RationalNumber exact = exactPower(1, n);
+        if (exact != null) return exact;
+
+        BigRationalNumber radicand = inflate().abs();
+        BigDecimal root = RationalRoots.root(radicand, n, RationalRoots.digits(radicand, n, tolerance));
+        BigRationalNumber halfTolerance = BigRationalNumber.valueOf(tolerance).divide(BigRationalNumber.valueOf(2));
+        BigRationalNumber approximation = RationalRoots.simplestBetween(
+                BigRationalNumber.valueOf(root).subtract(halfTolerance),
+                BigRationalNumber.valueOf(root).add(halfTolerance));
+        return (this.numerator < 0 ? approximation.toggleSign() : approximation).rationalNumberValueExact();
+    }
+
+    /**
+     * @return the closest fraction with a denominator at most {@code maxDenominator}, see
+     *         {@link ContinuedFraction#limitDenominator(long)}
+     */
+    public RationalNumber limitDenominator(long maxDenominator) {
+        if (this.denominator <= maxDenominator) return this;
+        return ContinuedFraction.of(this).limitDenominator(maxDenominator);
+    }
+
+    /* this^(p/q) if it is rational, null otherwise; q > 0 and p/q is reduced */
+    private RationalNumber exactPower(long p, long q) {
+        if (this.numerator == 0) {
+            if (p == 0) throw new ZeroExponentialException();
+            if (p < 0) throw new ZeroDenominatorException();
+            return ZERO;
+        }
+        if (this.numerator < 0 && (q & 1) == 0)
+            throw new ArithmeticException("even root of a negative number");
+
+        if (q == 1) return power(p);
+
+        // |Long.MIN_VALUE| is 2^63, whose q-th root is 2^(63/q) when q divides 63
+        long numeratorRoot = this.numerator == Long.MIN_VALUE ?
+                (63 % q == 0 ? 1L << (63 / q) : -1) :
+                RationalRoots.perfectRoot(Math.abs(this.numerator), q);
+        long denominatorRoot = RationalRoots.perfectRoot(this.denominator, q);
+        if (numeratorRoot < 0 || denominatorRoot < 0) return null;
+
+        RationalNumber root = ofReduced(this.numerator < 0 ? -numeratorRoot : numeratorRoot, denominatorRoot);
+        return root.power(p);
+    }
+
+    private static int rootDegree(long denominator) {
+        if (denominator > Integer.MAX_VALUE)
+            throw new RationalOverflowException("the degree of the root is too large: " + denominator);
+        return (int) denominator;
     }
 
     @Override
@@ -382,7 +658,20 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
 
     @Override
     public int hashCode() {
-        return Objects.hash(numerator, denominator);
+        return hash(numerator, denominator);
+    }
+
+    /**
+     * Hash of a reduced fraction, also used by {@link RationalHashMap} and {@link RationalHashSet}:
+     * the numerator and the denominator are combined and mixed with the 64 bit finalizer of
+     * MurmurHash3, so that every bit of both of them affects the low bits of the result.
+     */
+    static int hash(long numerator, long denominator) {
+        long h = numerator * 0x9E3779B97F4A7C15L + denominator;
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return (int) h;
     }
 
     @Override
@@ -392,18 +681,136 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
                 String.format("{%d/%d}", this.numerator, this.denominator);
     }
 
+    /**
+     * @return the exact decimal expansion, with the repeating digits in parentheses: 1/6 is
+     *         {@code 0.1(6)}, see {@link DecimalExpansion}
+     * @throws ArithmeticException if the expansion has more than
+     *         {@link DecimalExpansion#DEFAULT_MAX_DIGITS} fractional digits
+     */
+    public String toDecimalString() {
+        return toDecimalString(DecimalExpansion.DEFAULT_MAX_DIGITS);
+    }
+
+    /**
+     * @return the exact decimal expansion, like {@link #toDecimalString()}
+     * @throws ArithmeticException if the expansion has more than {@code maxDigits} fractional
+     *         digits
+     */
+    public String toDecimalString(int maxDigits) {
+        return DecimalExpansion.appendExact(this, maxDigits, new StringBuilder()).toString();
+    }
+
+    /**
+     * @return the decimal expansion rounded to {@code scale} fractional digits, like
+     *         {@code bigDecimalValueWithCustomRounding(scale, roundingMode).toPlainString()}
+     */
+    public String toDecimalString(int scale, RoundingMode roundingMode) {
+        return DecimalExpansion.append(this, scale, roundingMode, new StringBuilder()).toString();
+    }
+
     public static RationalNumber valueOf(BigDecimal decimalNumber) {
 
         if (decimalNumber == null) throw new NullParamenterException();
         return new RationalNumber(decimalNumber, true);
     }
 
+    /**
+     * Like {@link Integer#valueOf(int)}, small integers and fractions with a small denominator
+     * between -1 and 1 are returned from a cache of canonical instances, see {@link Cache}.
+     */
     public static RationalNumber valueOf(long numerator, long denominator) {
-        return new RationalNumber(numerator, denominator, true);
+
+        if (denominator == 0) throw new ZeroDenominatorException();
+
+        RationalMetrics.count(RationalMetrics.Counter.REDUCTIONS);
+        long gcd = greatestCommonDenominator(numerator, denominator);
+        return ofReduced(numerator / gcd, denominator / gcd);
     }
 
     public static RationalNumber valueOf(long numerator) {
-        return new RationalNumber(numerator);
+        RationalNumber cached = Cache.get(numerator, 1);
+        return cached != null ? cached : new RationalNumber(numerator);
+    }
+
+    /* the fraction must be reduced, the sign is normalized here */
+    private static RationalNumber ofReduced(long numerator, long denominator) {
+        if (denominator < 0 && denominator != Long.MIN_VALUE && numerator != Long.MIN_VALUE) {
+            numerator = -numerator;
+            denominator = -denominator;
+        }
+        if (denominator > 0) {
+            RationalNumber cached = Cache.get(numerator, denominator);
+            if (cached != null) return cached;
+        }
+        return new RationalNumber(numerator, denominator, false);
+    }
+
+    /**
+     * Canonical instances of the integers between -128 and {@value Cache#DEFAULT_HIGH} and of the
+     * reduced fractions n/d with {@code |n| < d <= }{@value Cache#DEFAULT_MAX_DENOMINATOR}, which
+     * include halves, quarters and percentages. The bounds can be changed with the
+     * {@code jnum.rational.cache.high} and {@code jnum.rational.cache.maxDenominator} system
+     * properties; a maximum denominator of 1 caches integers only. The properties are clamped to
+     * {@value Cache#MAX_HIGH} and {@value Cache#MAX_MAX_DENOMINATOR}, and ignored if they are not
+     * integers.
+     */
+    private static final class Cache {
+
+        private final static int LOW = -128;
+        private final static int DEFAULT_HIGH = 1024;
+        private final static int DEFAULT_MAX_DENOMINATOR = 100;
+
+        /* the cache is filled eagerly, so it is bounded well below the array length limit */
+        private final static int MAX_HIGH = 1 << 20;
+        /* d^2 - 1 cached fractions */
+        private final static int MAX_MAX_DENOMINATOR = 4096;
+
+        private final static int HIGH = property("jnum.rational.cache.high", DEFAULT_HIGH, 127, MAX_HIGH);
+        private final static int MAX_DENOMINATOR =
+                property("jnum.rational.cache.maxDenominator", DEFAULT_MAX_DENOMINATOR, 1, MAX_MAX_DENOMINATOR);
+
+        private final static RationalNumber[] INTEGERS = new RationalNumber[HIGH - LOW + 1];
+
+        /* the fractions with denominator d are stored from FRACTION_OFFSETS[d], numerator -d + 1 first */
+        private final static int[] FRACTION_OFFSETS = new int[MAX_DENOMINATOR + 1];
+        private final static RationalNumber[] FRACTIONS;
+
+        static {
+            for (int i = 0; i < INTEGERS.length; ++i) INTEGERS[i] = new RationalNumber(LOW + i);
+
+            long size = 0;
+            for (int d = 2; d <= MAX_DENOMINATOR; ++d) {
+                FRACTION_OFFSETS[d] = (int) size;
+                size += 2L * d - 1;
+            }
+            FRACTIONS = new RationalNumber[Math.toIntExact(size)];
+            for (int d = 2; d <= MAX_DENOMINATOR; ++d)
+                for (int n = -d + 1; n < d; ++n)
+                    if (greatestCommonDenominator(n, d) == 1)
+                        FRACTIONS[FRACTION_OFFSETS[d] + n + d - 1] = new RationalNumber(n, d, false);
+        }
+
+        private Cache() { }
+
+        /* the property clamped to [min, max], the default value if it is missing or not an int */
+        private static int property(String name, int defaultValue, int min, int max) {
+            try {
+                String value = System.getProperty(name);
+                if (value == null) return defaultValue;
+                return Math.min(max, Math.max(min, Integer.parseInt(value.trim())));
+            } catch (NumberFormatException | SecurityException e) {
+                return defaultValue;
+            }
+        }
+
+        /* numerator and positive denominator must be reduced */
+        static RationalNumber get(long numerator, long denominator) {
+            if (denominator == 1)
+                return numerator >= LOW && numerator <= HIGH ? INTEGERS[(int) numerator - LOW] : null;
+            if (denominator <= MAX_DENOMINATOR && numerator < denominator && numerator > -denominator)
+                return FRACTIONS[FRACTION_OFFSETS[(int) denominator] + (int) (numerator + denominator) - 1];
+            return null;
+        }
     }
 
     public static RationalNumber valueOf(String number) {
@@ -412,72 +819,85 @@ public class RationalNumber extends Number implements AbstractNumber<RationalNum
         return new RationalNumber(number, true);
     }
 
+    /**
+     * @see #RationalNumber(double)
+     */
     public static RationalNumber valueOf(double number) {
         return new RationalNumber(number);
     }
 
+    /**
+     * @return the exact value of {@code number}, read from its IEEE 754 bits
+     * @throws IllegalArgumentException if the number is NaN or infinite
+     * @throws RationalOverflowException if the exact value does not fit, that is when it needs a
+     *         denominator above 2^62 or a numerator above {@code Long.MAX_VALUE}; use
+     *         {@link BigRationalNumber#valueOf(double)} or {@link ContinuedFraction#limitDenominator(long)}
+     */
+    public static RationalNumber valueOfExact(double number) {
+        return new RationalNumber(number, true);
+    }
+
+    /**
+     * @return a lazy list from this number (inclusive) to {@code stop} (exclusive), in steps of one
+     *         towards {@code stop}
+     */
     @Override
     public List<RationalNumber> range(RationalNumber stop) {
-
-        List<RationalNumber> newList = new ArrayList<>();
-
-        if (compareTo(stop) >= 0) {
-            for (RationalNumber i = this; i.compareTo(stop) > 0; i = i.subtract(RationalNumber.valueOf(1))) {
-                newList.add(i);
-            }
-        } else {
-            for (RationalNumber i = this; i.compareTo(stop) < 0; i = i.add(RationalNumber.valueOf(1))) {
-                newList.add(i);
-            }
-        }
-
-        return newList;
+        return range(this, stop, ONE);
     }
 
     @Override
     public List<RationalNumber> range(RationalNumber stop, long step) {
-        return range(stop,RationalNumber.valueOf(step));
+        return range(this, stop, RationalNumber.valueOf(step));
     }
 
     @Override
     public List<RationalNumber> range(RationalNumber stop, RationalNumber step) {
-
-        List<RationalNumber> newList = new ArrayList<>();
-
-        if (compareTo(stop) >= 0) {
-            for (RationalNumber i = this; i.compareTo(stop) > 0; i = i.subtract(step)) {
-                newList.add(i);
-            }
-        } else {
-            for (RationalNumber i = this; i.compareTo(stop) < 0; i = i.add(step)) {
-                newList.add(i);
-            }
-        }
-
-        return newList;
+        return range(this, stop, step);
     }
 
+    /**
+     * The returned list is an immutable, random access view whose i-th element is computed as
+     * {@code start + i * |step|} (or {@code start - i * |step|} when {@code start > stop}) when it is
+     * read, so it takes constant memory.
+     *
+     * @throws IllegalArgumentException if the step is zero or the range has more than
+     *         {@code Integer.MAX_VALUE} elements, see {@link #rangeStream(RationalNumber, RationalNumber, RationalNumber)}
+     */
     public static List<RationalNumber> range(RationalNumber start, RationalNumber stop, RationalNumber step) {
+        return RationalRange.of(start, stop, step);
+    }
 
-        List<RationalNumber> newList = new ArrayList<>();
-
-        if (start.compareTo(stop) >= 0) {
-            for (RationalNumber i = start; i.compareTo(stop) > 0; i = i.subtract(step)) {
-                newList.add(i);
-            }
-        } else {
-            for (RationalNumber i = stop; i.compareTo(stop) < 0; i = i.add(step)) {
-                newList.add(i);
-            }
-        }
+    /**
+     * Same elements as {@link #range(RationalNumber, RationalNumber, RationalNumber)}, without the
+     * size limit of a list. The stream splits by index, so it can be consumed in parallel.
+     */
+    public static Stream<RationalNumber> rangeStream(RationalNumber start, RationalNumber stop, RationalNumber step) {
+        return StreamSupport.stream(RationalRange.spliterator(start, stop, step), false);
+    }
 
-        return newList;
+    public Stream<RationalNumber> rangeStream(RationalNumber stop, RationalNumber step) {
+        return rangeStream(this, stop, step);
     }
 
+    /**
+     * Compares the two values without allocating. The quotients are compared as doubles first and
+     * the exact 128 bit cross products are computed only when the doubles are too close to decide.
+     */
     @Override
     public int compareTo(RationalNumber o) {
-        if (this.denominator == 1 && o.denominator == 1) return Long.compare(this.numerator,o.numerator);
-        RationalNumber quotient = divide(o);
-        return Long.compare(quotient.numerator, quotient.denominator);
+
+        if (o == null) throw new NullParamenterException();
+        RationalMetrics.count(RationalMetrics.Counter.COMPARE);
+
+        if (this.denominator == o.denominator) return Long.compare(this.numerator, o.numerator);
+
+        double first = (double) this.numerator / this.denominator;
+        double second = (double) o.numerator / o.denominator;
+        // each quotient is within 3 ulps of the exact value
+        if (Math.abs(first - second) > COMPARISON_TOLERANCE * Math.max(Math.abs(first), Math.abs(second)))
+            return first < second ? -1 : 1;
+
+        return RationalMath.compare(this.numerator, this.denominator, o.numerator, o.denominator);
     }
 }
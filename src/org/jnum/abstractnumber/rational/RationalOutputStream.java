@@ -0,0 +1,81 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes rational numbers in the {@link RationalCodec} format. The values are encoded in an
+ * internal buffer, so the underlying stream does not need to be buffered and no object is
+ * created per value.
+ * <p>
+ * This class is not thread safe.
+ */
+public class RationalOutputStream extends FilterOutputStream {
+
+    private final static int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final ByteBuffer buffer;
+
+    public RationalOutputStream(OutputStream out) { this(out, DEFAULT_BUFFER_SIZE); }
+
+    public RationalOutputStream(OutputStream out, int bufferSize) {
+        super(out);
+
+        if (out == null) throw new NullParamenterException();
+        if (bufferSize < RationalCodec.MAX_ENCODED_LENGTH)
+            throw new IllegalArgumentException("buffer smaller than " + RationalCodec.MAX_ENCODED_LENGTH + " bytes");
+
+        this.buffer = ByteBuffer.allocate(bufferSize);
+    }
+
+    public void writeRationalNumber(RationalNumber number) throws IOException {
+
+        if (number == null) throw new NullParamenterException();
+
+        writeRationalNumber(number.numerator(), number.denominator());
+    }
+
+    /**
+     * Writes a reduced fraction with a positive denominator.
+     */
+    public void writeRationalNumber(long numerator, long denominator) throws IOException {
+        if (buffer.remaining() < RationalCodec.MAX_ENCODED_LENGTH) flushBuffer();
+        RationalCodec.encode(numerator, denominator, buffer);
+    }
+
+    public void writeRationalArray(RationalArray array) throws IOException {
+
+        if (array == null) throw new NullParamenterException();
+
+        for (int i = 0; i < array.length(); ++i) writeRationalNumber(array.numerator(i), array.denominator(i));
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (!buffer.hasRemaining()) flushBuffer();
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        flushBuffer();
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffer.position() > 0) {
+            out.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+}
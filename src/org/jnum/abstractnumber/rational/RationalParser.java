@@ -0,0 +1,365 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException;
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Single pass parser of rational numbers from a {@link CharSequence}, a range of a {@code char[]}
+ * or a range of an ASCII encoded {@code byte[]}.
+ * <p>
+ * Accepted inputs, optionally surrounded by whitespace:
+ * <ul>
+ *     <li>integers and decimals with an optional sign and exponent: {@code -12}, {@code 1.5},
+ *     {@code .25}, {@code 1.5e-3}</li>
+ *     <li>fractions of two such numbers: {@code 3/4}, {@code -1.5 / 2}</li>
+ *     <li>the same forms within braces, as printed by {@link RationalNumber#toString()}:
+ *     {@code {-7/24}}</li>
+ * </ul>
+ * Exponents larger than 10000 in absolute value are rejected.
+ * <p>
+ * The {@code parse} methods throw an {@link InvalidFormatStringException}, while the
+ * {@code tryParse} methods write the reduced result in a caller provided {@code long[2]} and
+ * report the errors with their return value, allocating nothing unless the digits overflow a long.
+ */
+public final class RationalParser {
+
+    private final static int OK = 0;
+    private final static int INVALID_FORMAT = 1;
+    private final static int ZERO_DENOMINATOR = 2;
+    /* the digits overflow a long: the input is parsed again with BigDecimal */
+    private final static int LONG_OVERFLOW = 3;
+    /* the reduced value cannot fit in a long */
+    private final static int NOT_REPRESENTABLE = 4;
+
+    /* larger exponents are rejected instead of computing huge powers of ten */
+    private final static int MAX_EXPONENT = 10_000;
+
+    private RationalParser() { }
+
+    public static RationalNumber parse(CharSequence sequence) {
+
+        if (sequence == null) throw new NullParamenterException();
+
+        long[] result = new long[2];
+        parse(sequence, null, null, 0, sequence.length(), result);
+        return RationalNumber.valueOf(result[0], result[1]);
+    }
+
+    public static RationalNumber parse(char[] chars, int offset, int length) {
+
+        if (chars == null) throw new NullParamenterException();
+
+        checkRange(chars.length, offset, length);
+        long[] result = new long[2];
+        parse(null, chars, null, offset, offset + length, result);
+        return RationalNumber.valueOf(result[0], result[1]);
+    }
+
+    public static RationalNumber parse(byte[] bytes, int offset, int length) {
+
+        if (bytes == null) throw new NullParamenterException();
+
+        checkRange(bytes.length, offset, length);
+        long[] result = new long[2];
+        parse(null, null, bytes, offset, offset + length, result);
+        return RationalNumber.valueOf(result[0], result[1]);
+    }
+
+    /**
+     * Parses {@code sequence} in {@code result[0]} (numerator) and {@code result[1]} (denominator).
+     */
+    static void parse(CharSequence sequence, long[] result) {
+        parse(sequence, null, null, 0, sequence.length(), result);
+    }
+
+    /**
+     * @return false if the input is not valid, denotes a division by zero or does not fit in a
+     *         {@link RationalNumber}; in that case {@code result} is left unspecified
+     */
+    public static boolean tryParse(CharSequence sequence, long[] result) {
+        return sequence != null && tryParse(sequence, null, null, 0, sequence.length(), result);
+    }
+
+    public static boolean tryParse(char[] chars, int offset, int length, long[] result) {
+        checkRange(chars.length, offset, length);
+        return tryParse(null, chars, null, offset, offset + length, result);
+    }
+
+    public static boolean tryParse(byte[] bytes, int offset, int length, long[] result) {
+        checkRange(bytes.length, offset, length);
+        return tryParse(null, null, bytes, offset, offset + length, result);
+    }
+
+    /**
+     * Parses every input in the element of {@code target} with the same index, without throwing
+     * on invalid inputs: their elements are set to zero and flagged in {@code invalid}.
+     *
+     * @return the number of invalid inputs
+     */
+    public static int parseAll(List<? extends CharSequence> inputs, RationalArray target, boolean[] invalid) {
+
+        if (inputs == null || target == null || invalid == null) throw new NullParamenterException();
+        if (target.length() < inputs.size() || invalid.length < inputs.size())
+            throw new IllegalArgumentException("the target arrays are shorter than the inputs");
+
+        long[] result = new long[2];
+        int invalidCount = 0;
+        int i = 0;
+        for (CharSequence input : inputs) {
+            if (tryParse(input, result)) {
+                target.set(i, result[0], result[1]);
+                invalid[i] = false;
+            } else {
+                target.set(i, 0, 1);
+                invalid[i] = true;
+                ++invalidCount;
+            }
+            ++i;
+        }
+        return invalidCount;
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length)
+            throw new IndexOutOfBoundsException("range [" + offset + ", " + offset + " + " + length
+                    + ") out of bounds for length " + arrayLength);
+    }
+
+    private static void parse(CharSequence sequence, char[] chars, byte[] bytes, int from, int to, long[] result) {
+        RationalMetrics.count(RationalMetrics.Counter.PARSE);
+        int status = scan(sequence, chars, bytes, from, to, result);
+        switch (status) {
+            case OK:
+                return;
+            case LONG_OVERFLOW:
+                try {
+                    parseBig(sequence, chars, bytes, from, to, result);
+                } catch (ArithmeticException | ZeroDenominatorException e) {
+                    RationalMetrics.parseFailure(e.getClass().getSimpleName(), to - from);
+                    throw e;
+                }
+                return;
+        }
+
+        RationalMetrics.parseFailure(failureReason(status), to - from);
+        switch (status) {
+            case ZERO_DENOMINATOR:
+                throw new ZeroDenominatorException();
+            case NOT_REPRESENTABLE:
+                throw new RationalOverflowException("the value does not fit in a RationalNumber");
+            default:
+                throw new InvalidFormatStringException();
+        }
+    }
+
+    private static boolean tryParse(CharSequence sequence, char[] chars, byte[] bytes, int from, int to, long[] result) {
+        RationalMetrics.count(RationalMetrics.Counter.PARSE);
+        int status = scan(sequence, chars, bytes, from, to, result);
+        switch (status) {
+            case OK:
+                return true;
+            case LONG_OVERFLOW:
+                try {
+                    parseBig(sequence, chars, bytes, from, to, result);
+                    return true;
+                } catch (ArithmeticException | ZeroDenominatorException e) {
+                    RationalMetrics.parseFailure(e.getClass().getSimpleName(), to - from);
+                    return false;
+                }
+            default:
+                RationalMetrics.parseFailure(failureReason(status), to - from);
+                return false;
+        }
+    }
+
+    private static String failureReason(int status) {
+        switch (status) {
+            case ZERO_DENOMINATOR:
+                return "zero denominator";
+            case NOT_REPRESENTABLE:
+                return "not representable";
+            default:
+                return "invalid format";
+        }
+    }
+
+    private static int charAt(CharSequence sequence, char[] chars, byte[] bytes, int index) {
+        if (chars != null) return chars[index];
+        if (bytes != null) return bytes[index] & 0xFF;
+        return sequence.charAt(index);
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static int scan(CharSequence sequence, char[] chars, byte[] bytes, int from, int to, long[] result) {
+
+        int i = from;
+        int end = to;
+        while (i < end && isWhitespace(charAt(sequence, chars, bytes, i))) ++i;
+        while (end > i && isWhitespace(charAt(sequence, chars, bytes, end - 1))) --end;
+
+        if (i < end && charAt(sequence, chars, bytes, i) == '{') {
+            if (end - i < 2 || charAt(sequence, chars, bytes, end - 1) != '}') return INVALID_FORMAT;
+            ++i;
+            --end;
+            while (i < end && isWhitespace(charAt(sequence, chars, bytes, i))) ++i;
+            while (end > i && isWhitespace(charAt(sequence, chars, bytes, end - 1))) --end;
+        }
+
+        long firstNumerator = 0;
+        long firstDenominator = 1;
+        boolean overflow = false;
+
+        for (int side = 0; side < 2; ++side) {
+
+            boolean negative = false;
+            int c = i < end ? charAt(sequence, chars, bytes, i) : -1;
+            if (c == '+' || c == '-') {
+                negative = c == '-';
+                ++i;
+            }
+
+            long mantissa = 0;
+            long exponent = 0;
+            boolean mantissaOverflow = false;
+            boolean hasDigits = false;
+            boolean fraction = false;
+            int fractionZeros = 0;
+
+            for (; i < end; ++i) {
+                c = charAt(sequence, chars, bytes, i);
+                if (c == '.' && !fraction) {
+                    fraction = true;
+                    continue;
+                }
+                if (c < '0' || c > '9') break;
+
+                hasDigits = true;
+                if (mantissa == 0 && c == '0') {
+                    if (fraction) --exponent;
+                    continue;
+                }
+                // trailing zeros of the fraction do not count towards the exponent
+                if (fraction && c == '0') {
+                    ++fractionZeros;
+                    continue;
+                }
+                for (; fractionZeros > 0; --fractionZeros) {
+                    --exponent;
+                    if (mantissaOverflow || mantissa > Long.MAX_VALUE / 10) mantissaOverflow = true;
+                    else mantissa *= 10;
+                }
+                if (fraction) --exponent;
+
+                if (mantissaOverflow || mantissa > (Long.MAX_VALUE - (c - '0')) / 10) {
+                    mantissaOverflow = true;
+                } else {
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+            }
+            if (!hasDigits) return INVALID_FORMAT;
+
+            if (i < end && ((c = charAt(sequence, chars, bytes, i)) == 'e' || c == 'E')) {
+                ++i;
+                boolean negativeExponent = false;
+                c = i < end ? charAt(sequence, chars, bytes, i) : -1;
+                if (c == '+' || c == '-') {
+                    negativeExponent = c == '-';
+                    ++i;
+                }
+
+                long exponentValue = 0;
+                int exponentStart = i;
+                for (; i < end && (c = charAt(sequence, chars, bytes, i)) >= '0' && c <= '9'; ++i)
+                    exponentValue = Math.min(MAX_EXPONENT + 1, exponentValue * 10 + (c - '0'));
+                if (i == exponentStart) return INVALID_FORMAT;
+
+                exponent += negativeExponent ? -exponentValue : exponentValue;
+            }
+
+            while (i < end && isWhitespace(charAt(sequence, chars, bytes, i))) ++i;
+
+            long numerator = 0;
+            long denominator = 1;
+            if (mantissa != 0 || mantissaOverflow) {
+                if (Math.abs(exponent) > MAX_EXPONENT) return NOT_REPRESENTABLE;
+
+                if (mantissaOverflow || Math.abs(exponent) >= RationalNumber.LONG_10_POW.length) {
+                    overflow = true;
+                } else if (exponent >= 0) {
+                    long power = RationalNumber.LONG_10_POW[(int) exponent];
+                    if (mantissa > Long.MAX_VALUE / power) overflow = true;
+                    else numerator = mantissa * power;
+                } else {
+                    numerator = mantissa;
+                    denominator = RationalNumber.LONG_10_POW[(int) -exponent];
+                }
+            }
+            if (negative) numerator = -numerator;
+
+            if (side == 0) {
+                firstNumerator = numerator;
+                firstDenominator = denominator;
+                if (i < end && charAt(sequence, chars, bytes, i) == '/') {
+                    ++i;
+                    while (i < end && isWhitespace(charAt(sequence, chars, bytes, i))) ++i;
+                    continue;
+                }
+                if (i != end) return INVALID_FORMAT;
+                if (overflow) return LONG_OVERFLOW;
+                reduce(firstNumerator, firstDenominator, result);
+                return OK;
+            }
+
+            if (i != end) return INVALID_FORMAT;
+            if (overflow) return LONG_OVERFLOW;
+            if (numerator == 0) return ZERO_DENOMINATOR;
+
+            reduce(firstNumerator, firstDenominator, result);
+            long secondGcd = RationalNumber.greatestCommonDenominator(numerator, denominator);
+            try {
+                RationalMath.divide(result[0], result[1], numerator / secondGcd, denominator / secondGcd, result);
+            } catch (RationalOverflowException e) {
+                return NOT_REPRESENTABLE;
+            }
+        }
+        return OK;
+    }
+
+    /* the denominator is a positive power of ten */
+    private static void reduce(long numerator, long denominator, long[] result) {
+        long gcd = RationalNumber.greatestCommonDenominator(numerator, denominator);
+        result[0] = numerator / gcd;
+        result[1] = denominator / gcd;
+    }
+
+    /* slow path for inputs whose syntax has already been validated by scan */
+    private static void parseBig(CharSequence sequence, char[] chars, byte[] bytes, int from, int to, long[] result) {
+
+        String input;
+        if (chars != null) input = new String(chars, from, to - from);
+        else if (bytes != null) input = new String(bytes, from, to - from, StandardCharsets.US_ASCII);
+        else input = sequence.subSequence(from, to).toString();
+
+        input = input.trim();
+        if (input.startsWith("{")) input = input.substring(1, input.length() - 1);
+
+        int slash = input.indexOf('/');
+        BigRationalNumber value = slash < 0 ?
+                BigRationalNumber.valueOf(new BigDecimal(input.trim())) :
+                BigRationalNumber.valueOf(new BigDecimal(input.substring(0, slash).trim()))
+                        .divide(BigRationalNumber.valueOf(new BigDecimal(input.substring(slash + 1).trim())));
+
+        RationalNumber exact = value.rationalNumberValueExact();
+        result[0] = exact.numerator();
+        result[1] = exact.denominator();
+    }
+}
@@ -0,0 +1,154 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Lazy, immutable view of an arithmetic progression from {@code start} (inclusive) towards
+ * {@code stop} (exclusive). The i-th element is computed directly as {@code start + i * step},
+ * so the range takes constant memory and its spliterator splits in halves by index.
+ */
+final class RationalRange extends AbstractList<RationalNumber> implements RandomAccess {
+
+    private final RationalNumber start;
+    private final RationalNumber step;
+    private final int size;
+
+    private RationalRange(RationalNumber start, RationalNumber step, int size) {
+        this.start = start;
+        this.step = step;
+        this.size = size;
+    }
+
+    /**
+     * The absolute value of {@code step} is used in the direction from {@code start} to {@code stop}.
+     *
+     * @throws IllegalArgumentException if the step is zero or the range has more than
+     *         {@code Integer.MAX_VALUE} elements
+     */
+    static RationalRange of(RationalNumber start, RationalNumber stop, RationalNumber step) {
+
+        RationalNumber directedStep = directedStep(start, stop, step);
+        long count = count(start, stop, directedStep);
+        if (count > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("the range has " + count + " elements, use RationalNumber.rangeStream");
+        return new RationalRange(start, directedStep, (int) count);
+    }
+
+    static Spliterator<RationalNumber> spliterator(RationalNumber start, RationalNumber stop, RationalNumber step) {
+        RationalNumber directedStep = directedStep(start, stop, step);
+        return new RangeSpliterator(start, directedStep, 0, count(start, stop, directedStep));
+    }
+
+    private static RationalNumber directedStep(RationalNumber start, RationalNumber stop, RationalNumber step) {
+
+        if (start == null || stop == null || step == null) throw new NullParamenterException();
+        if (step.numerator() == 0) throw new IllegalArgumentException("the step of a range cannot be zero");
+
+        boolean descending = start.compareTo(stop) > 0;
+        return descending == (step.numerator() < 0) ? step : step.toggleSign();
+    }
+
+    /* ceil((stop - start) / step), computed once per range without overflow */
+    private static long count(RationalNumber start, RationalNumber stop, RationalNumber step) {
+
+        BigRationalNumber steps = BigRationalNumber.valueOf(stop)
+                .subtract(BigRationalNumber.valueOf(start))
+                .divide(BigRationalNumber.valueOf(step));
+        if (steps.signum() <= 0) return 0;
+
+        BigInteger[] quotientAndRemainder = steps.numerator().divideAndRemainder(steps.denominator());
+        BigInteger count = quotientAndRemainder[1].signum() == 0 ?
+                quotientAndRemainder[0] :
+                quotientAndRemainder[0].add(BigInteger.ONE);
+        if (count.bitLength() >= Long.SIZE)
+            throw new IllegalArgumentException("the range has more than " + Long.MAX_VALUE + " elements");
+        return count.longValue();
+    }
+
+    private static RationalNumber element(RationalNumber start, RationalNumber step, long index) {
+        if (index == 0) return start;
+        try {
+            return start.add(step.multiply(index));
+        } catch (RationalOverflowException e) {
+            // index * step may not fit even when the element does
+            return BigRationalNumber.valueOf(step).multiply(index).add(BigRationalNumber.valueOf(start))
+                    .rationalNumberValueExact();
+        }
+    }
+
+    @Override
+    public RationalNumber get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + size);
+        return element(start, step, index);
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public Spliterator<RationalNumber> spliterator() {
+        return new RangeSpliterator(start, step, 0, size);
+    }
+
+    private static final class RangeSpliterator implements Spliterator<RationalNumber> {
+
+        private final static long MIN_SPLIT_SIZE = 1024;
+
+        private final RationalNumber start;
+        private final RationalNumber step;
+        private long index;
+        private final long fence;
+
+        RangeSpliterator(RationalNumber start, RationalNumber step, long index, long fence) {
+            this.start = start;
+            this.step = step;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super RationalNumber> action) {
+
+            if (action == null) throw new NullParamenterException();
+
+            if (index >= fence) return false;
+            action.accept(element(start, step, index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super RationalNumber> action) {
+
+            if (action == null) throw new NullParamenterException();
+
+            for (; index < fence; ++index) action.accept(element(start, step, index));
+        }
+
+        @Override
+        public Spliterator<RationalNumber> trySplit() {
+            long remaining = fence - index;
+            if (remaining < MIN_SPLIT_SIZE) return null;
+
+            long middle = index + remaining / 2;
+            RangeSpliterator prefix = new RangeSpliterator(start, step, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() { return fence - index; }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
+    }
+}
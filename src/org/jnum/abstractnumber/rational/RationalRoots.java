@@ -0,0 +1,112 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Exact and approximate roots behind {@link RationalNumber#rootExact(int)},
+ * {@link RationalNumber#root(int, RationalNumber)} and
+ * {@link RationalNumber#power(RationalNumber, MathContext)}.
+ */
+final class RationalRoots {
+
+    /* guard digits of the Newton iteration */
+    private final static int GUARD_DIGITS = 10;
+    private final static int MAX_ITERATIONS = 200;
+    private final static double LOG_2 = Math.log(2);
+    private final static double LOG_10 = Math.log(10);
+
+    private RationalRoots() { }
+
+    /**
+     * @return the n-th root of {@code value >= 0} if it is a perfect power, -1 otherwise
+     */
+    static long perfectRoot(long value, long n) {
+        if (value < 2 || n == 1) return value;
+        if (n >= Long.SIZE) return -1;
+
+        long estimate = Math.round(Math.pow(value, 1.0 / n));
+        for (long candidate = Math.max(1, estimate - 1); candidate <= estimate + 1; ++candidate) {
+            int comparison = comparePower(candidate, (int) n, value);
+            if (comparison == 0) return candidate;
+            if (comparison > 0) return -1;
+        }
+        return -1;
+    }
+
+    /* sign of base^n - value, without overflowing */
+    private static int comparePower(long base, int n, long value) {
+        long power = 1;
+        for (int i = 0; i < n; ++i) {
+            if (power > value / base) return 1;
+            power *= base;
+        }
+        return Long.compare(power, value);
+    }
+
+    /**
+     * The n-th root of {@code value > 0}, with at least {@code digits} correct significant
+     * digits, by Newton's iteration {@code y = ((n - 1) * y + value / y^(n-1)) / n} from the
+     * double estimate.
+     */
+    static BigDecimal root(BigRationalNumber value, int n, int digits) {
+        MathContext mathContext = new MathContext(digits + GUARD_DIGITS, RoundingMode.HALF_EVEN);
+
+        double estimate = Math.exp((log(value.numerator()) - log(value.denominator())) / n);
+        if (estimate == 0 || Double.isInfinite(estimate))
+            throw new RationalOverflowException("the root does not fit in a RationalNumber");
+
+        BigDecimal radicand = new BigDecimal(value.numerator()).divide(new BigDecimal(value.denominator()), mathContext);
+        BigDecimal degree = BigDecimal.valueOf(n);
+        BigDecimal degreeMinusOne = BigDecimal.valueOf(n - 1L);
+        BigDecimal y = new BigDecimal(estimate, mathContext);
+        for (int i = 0; i < MAX_ITERATIONS; ++i) {
+            BigDecimal next = y.multiply(degreeMinusOne, mathContext)
+                    .add(radicand.divide(y.pow(n - 1, mathContext), mathContext), mathContext)
+                    .divide(degree, mathContext);
+            boolean converged = next.subtract(y).abs().compareTo(next.ulp().movePointRight(GUARD_DIGITS / 2)) <= 0;
+            y = next;
+            if (converged) break;
+        }
+        return y;
+    }
+
+    /**
+     * @return the number of significant digits needed to approximate {@code root} within
+     *         {@code tolerance}
+     */
+    static int digits(BigRationalNumber value, int n, RationalNumber tolerance) {
+        double rootLog = (log(value.numerator()) - log(value.denominator())) / n;
+        double toleranceLog = Math.log(tolerance.numerator()) - Math.log(tolerance.denominator());
+        return Math.max(1, (int) Math.ceil((rootLog - toleranceLog) / LOG_10) + 2);
+    }
+
+    private static double log(BigInteger value) {
+        int shift = Math.max(0, value.bitLength() - 62);
+        return Math.log(value.shiftRight(shift).doubleValue()) + shift * LOG_2;
+    }
+
+    /**
+     * The fraction with the smallest denominator in {@code [low, high]}, found by expanding both
+     * bounds in continued fractions until they differ.
+     */
+    static BigRationalNumber simplestBetween(BigRationalNumber low, BigRationalNumber high) {
+        if (low.signum() <= 0 && high.signum() >= 0) return BigRationalNumber.ZERO;
+        if (high.signum() < 0) return simplestBetween(high.toggleSign(), low.toggleSign()).toggleSign();
+
+        BigInteger floor = low.numerator().divide(low.denominator());
+        BigRationalNumber ceiling = BigRationalNumber.valueOf(
+                low.denominator().equals(BigInteger.ONE) ? floor : floor.add(BigInteger.ONE));
+        if (ceiling.compareTo(high) <= 0) return ceiling;
+
+        BigRationalNumber integer = BigRationalNumber.valueOf(floor);
+        BigRationalNumber fraction = simplestBetween(
+                high.subtract(integer).reciprocal(),
+                low.subtract(integer).reciprocal());
+        return integer.add(fraction.reciprocal());
+    }
+}
@@ -0,0 +1,389 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Off-heap column of rational numbers, backed by direct or memory-mapped {@link ByteBuffer}s.
+ * <p>
+ * Every element takes {@value #BYTES} bytes: the numerator followed by the denominator, both as
+ * little-endian longs, with no header. A file written by a segment can therefore be mapped again
+ * with {@link #map(Path, FileChannel.MapMode)} and scanned in place, without deserialization.
+ * Columns larger than 2 GB are split in several buffers of 1 GB, so indexes
+ * are longs.
+ * <p>
+ * Like {@link RationalArray}, the elements are kept reduced with a positive denominator and the
+ * bulk operations work in place. Elements read from a file are trusted to respect this layout.
+ * As in {@link RationalArray}, the results are not staged: an operation that raises an exception
+ * on an element leaves the elements before it updated, in a mapped file too.
+ * <p>
+ * This class is not thread safe.
+ */
+public final class RationalSegment {
+
+    public final static int BYTES = 2 * Long.BYTES;
+
+    private final static int CHUNK_SHIFT = 26;
+    private final static long CHUNK_ELEMENTS = 1L << CHUNK_SHIFT;
+    private final static long CHUNK_MASK = CHUNK_ELEMENTS - 1;
+    private final static long CHUNK_BYTES = CHUNK_ELEMENTS * BYTES;
+
+    private final ByteBuffer[] chunks;
+    private final long length;
+
+    private RationalSegment(ByteBuffer[] chunks, long length) {
+        this.chunks = chunks;
+        this.length = length;
+    }
+
+    /**
+     * Allocates a segment of {@code length} zeros outside the Java heap.
+     */
+    public static RationalSegment allocateDirect(long length) {
+
+        if (length < 0) throw new IllegalArgumentException("negative length");
+
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(length)];
+        for (int i = 0; i < chunks.length; ++i)
+            chunks[i] = ByteBuffer.allocateDirect((int) (chunkLength(length, i) * BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+
+        RationalSegment segment = new RationalSegment(chunks, length);
+        segment.fillZeros();
+        return segment;
+    }
+
+    /**
+     * Maps an existing file, whose size must be a multiple of {@value #BYTES} bytes.
+     *
+     * @param mode {@link FileChannel.MapMode#READ_ONLY} or {@link FileChannel.MapMode#READ_WRITE}
+     */
+    public static RationalSegment map(Path file, FileChannel.MapMode mode) {
+
+        if (file == null || mode == null) throw new NullParamenterException();
+
+        boolean readOnly = mode == FileChannel.MapMode.READ_ONLY;
+        try (FileChannel channel = readOnly ?
+                FileChannel.open(file, StandardOpenOption.READ) :
+                FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            long size = channel.size();
+            if (size % BYTES != 0)
+                throw new IllegalArgumentException("the size of " + file + " is not a multiple of " + BYTES);
+
+            return new RationalSegment(mapChunks(channel, mode, size / BYTES), size / BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates (or truncates) a file holding {@code length} zeros and maps it read-write.
+     */
+    public static RationalSegment create(Path file, long length) {
+
+        if (file == null) throw new NullParamenterException();
+        if (length < 0) throw new IllegalArgumentException("negative length");
+
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            RationalSegment segment = new RationalSegment(
+                    mapChunks(channel, FileChannel.MapMode.READ_WRITE, length), length);
+            segment.fillZeros();
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static RationalSegment valueOf(RationalArray array) {
+
+        if (array == null) throw new NullParamenterException();
+
+        RationalSegment segment = allocateDirect(array.length());
+        for (int i = 0; i < array.length(); ++i) segment.store(i, array.numerator(i), array.denominator(i));
+        return segment;
+    }
+
+    public RationalArray toRationalArray() {
+
+        if (length > Integer.MAX_VALUE) throw new IllegalStateException("the segment is too large for an array");
+
+        RationalArray array = new RationalArray((int) length);
+        for (int i = 0; i < length; ++i) array.set(i, RationalNumber.valueOf(numerator(i), denominator(i)));
+        return array;
+    }
+
+    private static int chunkCount(long length) {
+        return Math.toIntExact((length + CHUNK_ELEMENTS - 1) >>> CHUNK_SHIFT);
+    }
+
+    private static long chunkLength(long length, int chunk) {
+        return Math.min(CHUNK_ELEMENTS, length - ((long) chunk << CHUNK_SHIFT));
+    }
+
+    private static ByteBuffer[] mapChunks(FileChannel channel, FileChannel.MapMode mode, long length)
+            throws IOException {
+
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(length)];
+        for (int i = 0; i < chunks.length; ++i)
+            chunks[i] = channel.map(mode, i * CHUNK_BYTES, chunkLength(length, i) * BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        return chunks;
+    }
+
+    private void fillZeros() {
+        for (long i = 0; i < length; ++i) store(i, 0, 1);
+    }
+
+    /**
+     * Writes the changes of a memory-mapped segment to the storage device.
+     */
+    public void force() {
+        for (ByteBuffer chunk : chunks)
+            if (chunk instanceof MappedByteBuffer) ((MappedByteBuffer) chunk).force();
+    }
+
+    public long length() { return length; }
+
+    public long numerator(long index) {
+        checkIndex(index);
+        return chunks[(int) (index >>> CHUNK_SHIFT)].getLong((int) (index & CHUNK_MASK) * BYTES);
+    }
+
+    public long denominator(long index) {
+        checkIndex(index);
+        return chunks[(int) (index >>> CHUNK_SHIFT)].getLong((int) (index & CHUNK_MASK) * BYTES + Long.BYTES);
+    }
+
+    public RationalNumber get(long index) {
+        return RationalNumber.valueOf(numerator(index), denominator(index));
+    }
+
+    public RationalSegment set(long index, RationalNumber number) {
+
+        if (number == null) throw new NullParamenterException();
+
+        checkIndex(index);
+        store(index, number.numerator(), number.denominator());
+        return this;
+    }
+
+    public RationalSegment set(long index, long numerator, long denominator) {
+
+        if (denominator == 0) throw new ZeroDenominatorException();
+
+        long gcd = RationalNumber.greatestCommonDenominator(numerator, denominator);
+        numerator /= gcd;
+        denominator /= gcd;
+        if (denominator < 0) {
+            if (numerator == Long.MIN_VALUE || denominator == Long.MIN_VALUE)
+                throw new RationalOverflowException("the sign of the fraction cannot be normalized in a long");
+            numerator = -numerator;
+            denominator = -denominator;
+        }
+
+        checkIndex(index);
+        store(index, numerator, denominator);
+        return this;
+    }
+
+    private void store(long index, long numerator, long denominator) {
+        ByteBuffer chunk = chunks[(int) (index >>> CHUNK_SHIFT)];
+        int offset = (int) (index & CHUNK_MASK) * BYTES;
+        chunk.putLong(offset, numerator);
+        chunk.putLong(offset + Long.BYTES, denominator);
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + length);
+    }
+
+    /* kernel of an element-wise operation, see RationalMath */
+    private interface Kernel {
+        void apply(long firstNumerator, long firstDenominator,
+                   long secondNumerator, long secondDenominator, long[] result);
+    }
+
+    private RationalSegment apply(Kernel kernel, RationalSegment other) {
+
+        checkLength(other);
+
+        long[] result = new long[2];
+        for (int c = 0; c < chunks.length; ++c) {
+            ByteBuffer chunk = chunks[c];
+            ByteBuffer otherChunk = other.chunks[c];
+            for (int offset = 0; offset < chunk.capacity(); offset += BYTES) {
+                kernel.apply(chunk.getLong(offset), chunk.getLong(offset + Long.BYTES),
+                        otherChunk.getLong(offset), otherChunk.getLong(offset + Long.BYTES), result);
+                chunk.putLong(offset, result[0]);
+                chunk.putLong(offset + Long.BYTES, result[1]);
+            }
+        }
+        return this;
+    }
+
+    private RationalSegment apply(Kernel kernel, long otherNumerator, long otherDenominator) {
+
+        long[] result = new long[2];
+        for (ByteBuffer chunk : chunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += BYTES) {
+                kernel.apply(chunk.getLong(offset), chunk.getLong(offset + Long.BYTES),
+                        otherNumerator, otherDenominator, result);
+                chunk.putLong(offset, result[0]);
+                chunk.putLong(offset + Long.BYTES, result[1]);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalSegment add(RationalSegment other) { return apply(RationalMath::add, other); }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalSegment subtract(RationalSegment other) { return apply(RationalMath::subtract, other); }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalSegment multiply(RationalSegment other) { return apply(RationalMath::multiply, other); }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     * @throws ZeroDenominatorException if an element of {@code other} is zero, after updating the
+     *         previous ones
+     */
+    public RationalSegment divide(RationalSegment other) { return apply(RationalMath::divide, other); }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalSegment add(RationalNumber other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        return apply(RationalMath::add, other.numerator(), other.denominator());
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalSegment scale(RationalNumber factor) {
+
+        if (factor == null) throw new NullParamenterException();
+
+        return apply(RationalMath::multiply, factor.numerator(), factor.denominator());
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     */
+    public RationalSegment scale(long factor) {
+        return apply(RationalMath::multiply, factor, 1);
+    }
+
+    /**
+     * @throws RationalOverflowException if an element overflows, after updating the previous ones
+     * @throws ZeroDenominatorException if an element is zero, after updating the previous ones
+     */
+    public RationalSegment reciprocal() {
+        return apply((numerator, denominator, ignoredNumerator, ignoredDenominator, result) ->
+                RationalMath.reciprocal(numerator, denominator, result), 1, 1);
+    }
+
+    /**
+     * Same as {@link RationalArray#dot(RationalArray)}.
+     */
+    public RationalNumber dot(RationalSegment other) {
+
+        checkLength(other);
+
+        RationalAccumulator accumulator = new RationalAccumulator();
+        long[] result = new long[2];
+        for (int c = 0; c < chunks.length; ++c) {
+            ByteBuffer chunk = chunks[c];
+            ByteBuffer otherChunk = other.chunks[c];
+            for (int offset = 0; offset < chunk.capacity(); offset += BYTES) {
+                RationalMath.multiply(chunk.getLong(offset), chunk.getLong(offset + Long.BYTES),
+                        otherChunk.getLong(offset), otherChunk.getLong(offset + Long.BYTES), result);
+                accumulator.addFraction(result[0], result[1]);
+            }
+        }
+        return accumulator.rationalNumberValue();
+    }
+
+    public RationalNumber sum() {
+        RationalAccumulator accumulator = new RationalAccumulator();
+        for (ByteBuffer chunk : chunks)
+            for (int offset = 0; offset < chunk.capacity(); offset += BYTES)
+                accumulator.addFraction(chunk.getLong(offset), chunk.getLong(offset + Long.BYTES));
+        return accumulator.rationalNumberValue();
+    }
+
+    public RationalNumber product() {
+        RationalAccumulator accumulator = new RationalAccumulator(RationalNumber.ONE);
+        for (ByteBuffer chunk : chunks)
+            for (int offset = 0; offset < chunk.capacity(); offset += BYTES)
+                accumulator.multiplyFraction(chunk.getLong(offset), chunk.getLong(offset + Long.BYTES));
+        return accumulator.rationalNumberValue();
+    }
+
+    /**
+     * @return the smallest element, or null if the segment is empty
+     */
+    public RationalNumber min() {
+        return extreme(-1);
+    }
+
+    /**
+     * @return the largest element, or null if the segment is empty
+     */
+    public RationalNumber max() {
+        return extreme(1);
+    }
+
+    private RationalNumber extreme(int sign) {
+        if (length == 0) return null;
+
+        long bestNumerator = numerator(0);
+        long bestDenominator = denominator(0);
+        for (ByteBuffer chunk : chunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += BYTES) {
+                long numerator = chunk.getLong(offset);
+                long denominator = chunk.getLong(offset + Long.BYTES);
+                if (RationalMath.compare(numerator, denominator, bestNumerator, bestDenominator) * sign > 0) {
+                    bestNumerator = numerator;
+                    bestDenominator = denominator;
+                }
+            }
+        }
+        return RationalNumber.valueOf(bestNumerator, bestDenominator);
+    }
+
+    private void checkLength(RationalSegment other) {
+        if (other == null) throw new NullParamenterException();
+        if (other.length != length)
+            throw new IllegalArgumentException("segments have different lengths: " + length + " and " + other.length);
+    }
+
+    @Override
+    public String toString() {
+        return "RationalSegment[length=" + length + "]";
+    }
+}
@@ -0,0 +1,216 @@
+package org.jnum.abstractnumber.rational;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorting and selection kernels for columns of fractions stored as two parallel {@code long[]},
+ * used by {@link RationalArray}. The fractions must have positive denominators; they are compared
+ * exactly with {@link RationalMath#compare(long, long, long, long)}, so no kernel allocates
+ * per element.
+ */
+final class RationalSort {
+
+    private final static int INSERTION_THRESHOLD = 32;
+    /* below this length a parallel sort does not fork, as in Arrays.parallelSort */
+    private final static int PARALLEL_THRESHOLD = 1 << 13;
+
+    private RationalSort() { }
+
+    /**
+     * Stable merge sort of the range {@code [from, to)}.
+     */
+    static void sort(long[] numerators, long[] denominators, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(numerators, denominators, from, to);
+            return;
+        }
+        mergeSort(numerators, denominators, new long[to - from], new long[to - from], from, to, from);
+    }
+
+    /**
+     * Stable merge sort of the range {@code [from, to)} that sorts the halves of large ranges in
+     * the common fork/join pool.
+     */
+    static void parallelSort(long[] numerators, long[] denominators, int from, int to) {
+        if (to - from <= PARALLEL_THRESHOLD) {
+            sort(numerators, denominators, from, to);
+            return;
+        }
+        new Sorter(numerators, denominators, new long[to - from], new long[to - from], from, to, from).invoke();
+    }
+
+    private static final class Sorter extends RecursiveAction {
+
+        private final long[] numerators;
+        private final long[] denominators;
+        private final long[] bufferNumerators;
+        private final long[] bufferDenominators;
+        private final int from;
+        private final int to;
+        private final int offset;
+
+        Sorter(long[] numerators, long[] denominators, long[] bufferNumerators, long[] bufferDenominators,
+               int from, int to, int offset) {
+            this.numerators = numerators;
+            this.denominators = denominators;
+            this.bufferNumerators = bufferNumerators;
+            this.bufferDenominators = bufferDenominators;
+            this.from = from;
+            this.to = to;
+            this.offset = offset;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                mergeSort(numerators, denominators, bufferNumerators, bufferDenominators, from, to, offset);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Sorter(numerators, denominators, bufferNumerators, bufferDenominators, from, middle, offset),
+                      new Sorter(numerators, denominators, bufferNumerators, bufferDenominators, middle, to, offset));
+            merge(numerators, denominators, bufferNumerators, bufferDenominators, from, middle, to, offset);
+        }
+    }
+
+    /**
+     * Sorts {@code [from, to)} using the buffer slots {@code [from - offset, to - offset)}.
+     */
+    private static void mergeSort(long[] numerators, long[] denominators,
+                                  long[] bufferNumerators, long[] bufferDenominators,
+                                  int from, int to, int offset) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(numerators, denominators, from, to);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(numerators, denominators, bufferNumerators, bufferDenominators, from, middle, offset);
+        mergeSort(numerators, denominators, bufferNumerators, bufferDenominators, middle, to, offset);
+        merge(numerators, denominators, bufferNumerators, bufferDenominators, from, middle, to, offset);
+    }
+
+    private static void merge(long[] numerators, long[] denominators,
+                              long[] bufferNumerators, long[] bufferDenominators,
+                              int from, int middle, int to, int offset) {
+        // already in order, which makes sorted and nearly sorted inputs linear
+        if (RationalMath.compare(numerators[middle - 1], denominators[middle - 1],
+                                 numerators[middle], denominators[middle]) <= 0) return;
+
+        int length = middle - from;
+        System.arraycopy(numerators, from, bufferNumerators, from - offset, length);
+        System.arraycopy(denominators, from, bufferDenominators, from - offset, length);
+
+        int left = from - offset;
+        int leftEnd = left + length;
+        int right = middle;
+        int target = from;
+        while (left < leftEnd && right < to) {
+            // taking the left element on ties keeps the sort stable
+            if (RationalMath.compare(numerators[right], denominators[right],
+                                     bufferNumerators[left], bufferDenominators[left]) < 0) {
+                numerators[target] = numerators[right];
+                denominators[target++] = denominators[right++];
+            } else {
+                numerators[target] = bufferNumerators[left];
+                denominators[target++] = bufferDenominators[left++];
+            }
+        }
+        System.arraycopy(bufferNumerators, left, numerators, target, leftEnd - left);
+        System.arraycopy(bufferDenominators, left, denominators, target, leftEnd - left);
+    }
+
+    private static void insertionSort(long[] numerators, long[] denominators, int from, int to) {
+        for (int i = from + 1; i < to; ++i) {
+            long numerator = numerators[i];
+            long denominator = denominators[i];
+            int j = i - 1;
+            while (j >= from && RationalMath.compare(numerators[j], denominators[j], numerator, denominator) > 0) {
+                numerators[j + 1] = numerators[j];
+                denominators[j + 1] = denominators[j];
+                --j;
+            }
+            numerators[j + 1] = numerator;
+            denominators[j + 1] = denominator;
+        }
+    }
+
+    /**
+     * @return the index of the key in the sorted range, or {@code -(insertion point) - 1}, like
+     *         {@link java.util.Arrays#binarySearch(long[], long)}
+     */
+    static int binarySearch(long[] numerators, long[] denominators, int from, int to,
+                            long numerator, long denominator) {
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = RationalMath.compare(numerators[middle], denominators[middle], numerator, denominator);
+            if (comparison < 0) low = middle + 1;
+            else if (comparison > 0) high = middle - 1;
+            else return middle;
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Reorders the range so that the element at {@code k} is the one a sort would put there, with
+     * no larger element before it and no smaller element after it. Quickselect with a median of
+     * three pivot, falling back to sorting the remaining range when the partitions stay
+     * unbalanced, so the worst case is O(n log n).
+     */
+    static void select(long[] numerators, long[] denominators, int from, int to, int k) {
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        while (to - from > INSERTION_THRESHOLD) {
+            if (depth-- == 0) {
+                sort(numerators, denominators, from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            orderPivot(numerators, denominators, from, middle, to - 1);
+            long pivotNumerator = numerators[middle];
+            long pivotDenominator = denominators[middle];
+
+            // Hoare partition around the pivot value
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (RationalMath.compare(numerators[i], denominators[i], pivotNumerator, pivotDenominator) < 0) ++i;
+                while (RationalMath.compare(numerators[j], denominators[j], pivotNumerator, pivotDenominator) > 0) --j;
+                if (i <= j) swap(numerators, denominators, i++, j--);
+            }
+
+            // [from, j] <= pivot, (j, i) == pivot, [i, to) >= pivot
+            if (k <= j) to = j + 1;
+            else if (k >= i) from = i;
+            else return;
+        }
+        insertionSort(numerators, denominators, from, to);
+    }
+
+    private static void orderPivot(long[] numerators, long[] denominators, int first, int middle, int last) {
+        if (RationalMath.compare(numerators[middle], denominators[middle], numerators[first], denominators[first]) < 0)
+            swap(numerators, denominators, middle, first);
+        if (RationalMath.compare(numerators[last], denominators[last], numerators[middle], denominators[middle]) < 0) {
+            swap(numerators, denominators, last, middle);
+            if (RationalMath.compare(numerators[middle], denominators[middle], numerators[first], denominators[first]) < 0)
+                swap(numerators, denominators, middle, first);
+        }
+    }
+
+    private static void swap(long[] numerators, long[] denominators, int i, int j) {
+        long numerator = numerators[i];
+        numerators[i] = numerators[j];
+        numerators[j] = numerator;
+        long denominator = denominators[i];
+        denominators[i] = denominators[j];
+        denominators[j] = denominator;
+    }
+
+    /**
+     * Reverses the range {@code [from, to)}.
+     */
+    static void reverse(long[] numerators, long[] denominators, int from, int to) {
+        for (int i = from, j = to - 1; i < j; ++i, --j) swap(numerators, denominators, i, j);
+    }
+}
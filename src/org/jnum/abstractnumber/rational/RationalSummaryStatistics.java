@@ -0,0 +1,75 @@
+package org.jnum.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+
+import java.util.function.Consumer;
+
+/**
+ * Count, sum, minimum, maximum and average of rational numbers, in the spirit of
+ * {@link java.util.LongSummaryStatistics}. The sum is kept in a {@link RationalAccumulator} that
+ * reduces only when it would overflow, and the extremes are compared without allocating.
+ * <p>
+ * This class is not thread safe, but it can be used as the container of a parallel stream
+ * reduction, see {@link RationalCollectors#summarizing()}.
+ */
+public class RationalSummaryStatistics implements Consumer<RationalNumber> {
+
+    private final RationalAccumulator sum = new RationalAccumulator(RationalNumber.ZERO, 0);
+    private long count;
+    private RationalNumber min;
+    private RationalNumber max;
+
+    @Override
+    public void accept(RationalNumber value) {
+
+        if (value == null) throw new NullParamenterException();
+
+        sum.add(value);
+        if (count == 0 || value.compareTo(min) < 0) min = value;
+        if (count == 0 || value.compareTo(max) > 0) max = value;
+        ++count;
+    }
+
+    public RationalSummaryStatistics combine(RationalSummaryStatistics other) {
+
+        if (other == null) throw new NullParamenterException();
+
+        if (other.count == 0) return this;
+
+        sum.add(other.sum);
+        if (count == 0 || other.min.compareTo(min) < 0) min = other.min;
+        if (count == 0 || other.max.compareTo(max) > 0) max = other.max;
+        count += other.count;
+        return this;
+    }
+
+    public long getCount() { return count; }
+
+    public RationalNumber getSum() { return sum.rationalNumberValue(); }
+
+    public BigRationalNumber getBigSum() { return sum.bigRationalNumberValue(); }
+
+    /**
+     * @return the smallest value, or null if no value has been recorded
+     */
+    public RationalNumber getMin() { return min; }
+
+    /**
+     * @return the largest value, or null if no value has been recorded
+     */
+    public RationalNumber getMax() { return max; }
+
+    /**
+     * @return the exact arithmetic mean, or zero if no value has been recorded
+     */
+    public RationalNumber getAverage() {
+        if (count == 0) return RationalNumber.ZERO;
+        return sum.bigRationalNumberValue().divide(BigRationalNumber.valueOf(count)).rationalNumberValueExact();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{count=%d, sum=%s, min=%s, average=%s, max=%s}",
+                getClass().getSimpleName(), count, sum, min, getAverage(), max);
+    }
+}
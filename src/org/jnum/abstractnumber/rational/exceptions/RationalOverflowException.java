@@ -0,0 +1,6 @@
+package org.jnum.abstractnumber.rational.exceptions;
+
+public class RationalOverflowException extends ArithmeticException {
+
+    public RationalOverflowException(String msg) { super(msg); }
+}
@@ -0,0 +1,6 @@
+package org.jnum.abstractnumber.rational.exceptions;
+
+public class SingularMatrixException extends ArithmeticException {
+
+    public SingularMatrixException() { super("the matrix is singular"); }
+}
@@ -0,0 +1,123 @@
+package test.abstractnumber.nmal;
+
+import org.jnum.abstractnumber.nmal.NmalNumber;
+import org.jnum.abstractnumber.rational.BigRationalNumber;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NmalNumberTest {
+
+    @Test
+    public void toStringTest() {
+        assertEquals("0.1(6)", NmalNumber.valueOf(RationalNumber.valueOf(1, 6), 10).toString());
+        assertEquals("0.2", NmalNumber.valueOf(RationalNumber.valueOf(1, 6), 12).toString());
+        assertEquals("0.(2497)", NmalNumber.valueOf(RationalNumber.valueOf(1, 5), 12).toString());
+        assertEquals("-10.1", NmalNumber.valueOf(RationalNumber.valueOf(-5, 2), 2).toString());
+        assertEquals("0.(5)", NmalNumber.valueOf(RationalNumber.valueOf(1, 3), 16).toString());
+        assertEquals("0.(142857)", NmalNumber.valueOf(RationalNumber.valueOf(1, 7), 10).toString());
+        assertEquals("zz", NmalNumber.valueOf(1295, 36).toString());
+        assertEquals("0", NmalNumber.valueOf(0, 7).toString());
+        assertEquals("-8000000000000000", NmalNumber.valueOf(Long.MIN_VALUE, 16).toString());
+        assertEquals(Long.toString(Long.MAX_VALUE, 3), NmalNumber.valueOf(Long.MAX_VALUE, 3).toString());
+    }
+
+    @Test
+    public void parseTest() {
+        assertEquals(RationalNumber.valueOf(1, 6), NmalNumber.valueOf("0.1(6)", 10).rationalNumberValue());
+        assertEquals(RationalNumber.valueOf(1, 3), NmalNumber.valueOf(".(01)", 2).rationalNumberValue());
+        assertEquals(RationalNumber.valueOf(-431, 16), NmalNumber.valueOf("-1A.f", 16).rationalNumberValue());
+        assertEquals(RationalNumber.ONE, NmalNumber.valueOf("0.(9)", 10).rationalNumberValue());
+        assertEquals(RationalNumber.valueOf(1295), NmalNumber.valueOf("+ZZ", 36).rationalNumberValue());
+        assertEquals(NmalNumber.valueOf(1, 10), NmalNumber.valueOf("1.", 10));
+    }
+
+    @Test
+    public void invalidInputTest() {
+        for (String input : new String[] {"", "-", ".", "12a", "1.2(", "1.()", "1.(3", "1.(3)4", "(3)", "1..2"}) {
+            try {
+                NmalNumber.valueOf(input, 10);
+                fail(input);
+            } catch (InvalidFormatStringException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidRadixTest() {
+        NmalNumber.valueOf(1, 37);
+    }
+
+    @Test
+    public void roundTripTest() {
+        Random random = new Random(17);
+        for (int i = 0; i < 2000; ++i) {
+            int radix = 2 + random.nextInt(35);
+            RationalNumber number = RationalNumber.valueOf(random.nextLong() >> random.nextInt(60), 1 + random.nextInt(1 << random.nextInt(12)));
+            String digits = NmalNumber.valueOf(number, radix).toString();
+            assertEquals(digits, number, NmalNumber.valueOf(digits, radix).rationalNumberValue());
+        }
+    }
+
+    @Test
+    public void largeIntegerTest() {
+        Random random = new Random(23);
+        for (int radix : new int[] {2, 10, 16, 36}) {
+            for (int bits : new int[] {100, 1000, 20000, 100000}) {
+                BigInteger value = new BigInteger(bits, random);
+                if (random.nextBoolean()) value = value.negate();
+                String expected = value.toString(radix);
+
+                NmalNumber number = NmalNumber.valueOf(value, radix);
+                assertEquals(expected, number.toString());
+                assertEquals(BigRationalNumber.valueOf(value), NmalNumber.valueOf(expected, radix).bigRationalNumberValue());
+            }
+        }
+    }
+
+    @Test
+    public void largeFractionTest() {
+        // the denominator does not fit in a long, the expansion is written by chunks
+        BigInteger denominator = BigInteger.valueOf(2).pow(70).multiply(BigInteger.valueOf(3 * 7 * 13));
+        BigRationalNumber value = BigRationalNumber.valueOf(BigInteger.valueOf(5).pow(40), denominator);
+        for (int radix : new int[] {2, 10, 12}) {
+            String digits = NmalNumber.valueOf(value, radix).toString();
+            assertEquals(value, NmalNumber.valueOf(digits, radix).bigRationalNumberValue());
+        }
+        assertEquals("0.0(01)", NmalNumber.valueOf(BigRationalNumber.valueOf(BigInteger.ONE, BigInteger.valueOf(6)), 2).toString());
+    }
+
+    @Test
+    public void arithmeticTest() {
+        NmalNumber a = NmalNumber.valueOf("0.1", 2);
+        NmalNumber b = NmalNumber.valueOf("0.2", 3);
+
+        assertEquals("1.0(01)", a.add(b).toString());
+        assertEquals(2, a.add(b).radix());
+        assertEquals("0.2", b.subtract(a).multiply(4).toString());
+        assertEquals(0, a.compareTo(NmalNumber.valueOf("0.5", 10)));
+        assertNotEquals(a, a.toRadix(10));
+        assertEquals("0.5", a.toRadix(10).toString());
+        assertEquals("11", a.reciprocal().increment().toString());
+        assertEquals(5, a.range(NmalNumber.valueOf(3, 2), a).size());
+        assertEquals(5, a.range(NmalNumber.valueOf(3, 2), a.toggleSign()).size());
+        assertThrows(IllegalArgumentException.class, () -> a.range(NmalNumber.valueOf(3, 2), NmalNumber.valueOf(0, 2)));
+    }
+
+    @Test
+    public void lazyRangeTest() {
+        NmalNumber start = NmalNumber.valueOf(0, 2);
+        List<NmalNumber> range = start.range(NmalNumber.valueOf(Integer.MAX_VALUE - 1, 2));
+
+        assertEquals(Integer.MAX_VALUE - 1, range.size());
+        assertEquals(NmalNumber.valueOf(Integer.MAX_VALUE - 2, 2), range.get(Integer.MAX_VALUE - 2));
+        assertEquals(2, range.get(5).radix());
+    }
+}
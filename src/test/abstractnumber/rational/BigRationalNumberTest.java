@@ -0,0 +1,110 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.BigRationalNumber;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.NullParamenterException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BigRationalNumberTest {
+
+    @Test
+    public void compactTest() {
+        BigRationalNumber n = BigRationalNumber.valueOf(2,8);
+
+        assertTrue(n.isCompact());
+        assertEquals(RationalNumber.valueOf(1,4), n.rationalNumberValueExact());
+    }
+
+    @Test(expected = ZeroDenominatorException.class)
+    public void zeroDenominatorTest() {
+        BigRationalNumber.valueOf(BigInteger.ONE, BigInteger.ZERO);
+    }
+
+    @Test
+    public void rangeTest() {
+        BigRationalNumber start = BigRationalNumber.valueOf(Long.MAX_VALUE);
+        BigRationalNumber stop = start.add(2);
+        BigRationalNumber step = BigRationalNumber.valueOf(-1, 2);
+
+        assertEquals(4, start.range(stop, step).size());
+        assertEquals(start.add(BigRationalNumber.valueOf(3, 2)), start.range(stop, step).get(3));
+        assertEquals(List.of(BigRationalNumber.valueOf(3), BigRationalNumber.valueOf(2)),
+                BigRationalNumber.valueOf(3).range(BigRationalNumber.valueOf(1)));
+        assertTrue(start.range(start).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> start.range(stop, BigRationalNumber.ZERO));
+    }
+
+    @Test(expected = NullParamenterException.class)
+    public void nullBigDecimalTest() {
+        new BigRationalNumber((BigDecimal) null);
+    }
+
+    @Test
+    public void promotionTest() {
+        BigRationalNumber n = BigRationalNumber.valueOf(Long.MAX_VALUE).add(1);
+
+        assertFalse(n.isCompact());
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE), n.numerator());
+        assertEquals(BigInteger.ONE, n.denominator());
+    }
+
+    @Test
+    public void demotionTest() {
+        BigRationalNumber n = BigRationalNumber.valueOf(Long.MAX_VALUE).multiply(Long.MAX_VALUE);
+
+        assertFalse(n.isCompact());
+
+        BigRationalNumber back = n.divide(Long.MAX_VALUE);
+
+        assertTrue(back.isCompact());
+        assertEquals(BigRationalNumber.valueOf(Long.MAX_VALUE), back);
+    }
+
+    @Test(expected = RationalOverflowException.class)
+    public void rationalNumberValueExactTest() {
+        BigRationalNumber.valueOf(2).power(64).rationalNumberValueExact();
+    }
+
+    @Test
+    public void powerTest() {
+        BigRationalNumber n = BigRationalNumber.valueOf(2,3);
+
+        assertEquals(BigRationalNumber.valueOf(BigInteger.TWO.pow(70), BigInteger.valueOf(3).pow(70)), n.power(70));
+        assertEquals(BigRationalNumber.valueOf(9,4), n.power(-2));
+    }
+
+    @Test
+    public void addTest() {
+        BigRationalNumber n1 = BigRationalNumber.valueOf(BigInteger.ONE, BigInteger.TWO.pow(80));
+        BigRationalNumber n2 = BigRationalNumber.valueOf(BigInteger.ONE, BigInteger.TWO.pow(80));
+
+        assertEquals(BigRationalNumber.valueOf(BigInteger.ONE, BigInteger.TWO.pow(79)), n1.add(n2));
+        assertEquals(BigRationalNumber.ZERO, n1.subtract(n2));
+        assertTrue(n1.subtract(n2).isCompact());
+    }
+
+    @Test
+    public void compareToTest() {
+        BigRationalNumber n1 = BigRationalNumber.valueOf(BigInteger.TWO.pow(80));
+        BigRationalNumber n2 = BigRationalNumber.valueOf(-1,2);
+
+        assertEquals(1, n1.compareTo(n2));
+        assertEquals(-1, n2.compareTo(n1));
+        assertEquals(0, n1.compareTo(n1.duplicateThis()));
+    }
+
+    @Test
+    public void toStringTest() {
+        assertEquals("{1/2}", BigRationalNumber.valueOf(1,2).toString());
+        assertEquals("{1/1208925819614629174706176}",
+                BigRationalNumber.valueOf(BigInteger.ONE, BigInteger.TWO.pow(80)).toString());
+    }
+}
@@ -0,0 +1,101 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.CompactRational;
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CompactRationalTest {
+
+    private static final long HALF = CompactRational.valueOf(1, 2);
+    private static final long MAX_DENOMINATOR = 1L << 31;
+
+    @Test
+    public void packingTest() {
+        assertEquals(CompactRational.ZERO, CompactRational.valueOf(0, -7));
+        assertEquals(CompactRational.ONE, CompactRational.valueOf(3, 3));
+        assertEquals(HALF, CompactRational.valueOf(-4, -8));
+        assertEquals(CompactRational.valueOf(-5), CompactRational.valueOf(RationalNumber.valueOf(-5)));
+        assertEquals(-3, CompactRational.numerator(CompactRational.valueOf(6, -4)));
+        assertEquals(2, CompactRational.denominator(CompactRational.valueOf(6, -4)));
+        assertEquals(RationalNumber.valueOf(Integer.MIN_VALUE, MAX_DENOMINATOR - 1),
+                     CompactRational.rationalNumberValue(CompactRational.valueOf(Integer.MIN_VALUE, MAX_DENOMINATOR - 1)));
+        assertEquals(MAX_DENOMINATOR, CompactRational.denominator(CompactRational.valueOf(1, MAX_DENOMINATOR)));
+
+        assertTrue(CompactRational.isValid(HALF));
+        assertFalse(CompactRational.isValid(CompactRational.NOT_COMPACT));
+        assertFalse(CompactRational.isValid(2));
+        assertFalse(CompactRational.fits(RationalNumber.valueOf(1, MAX_DENOMINATOR + 1)));
+        assertFalse(CompactRational.fits(RationalNumber.valueOf(1L << 31)));
+        assertEquals("{-1/2}", CompactRational.toString(CompactRational.negate(HALF)));
+    }
+
+    @Test(expected = RationalOverflowException.class)
+    public void packingOverflowTest() {
+        CompactRational.valueOf(1L << 40, 3);
+    }
+
+    @Test(expected = ZeroDenominatorException.class)
+    public void divisionByZeroTest() {
+        CompactRational.divide(HALF, CompactRational.ZERO);
+    }
+
+    @Test
+    public void arithmeticMatchesRationalNumberTest() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100000; ++i) {
+            RationalNumber first = randomNumber(random);
+            RationalNumber second = randomNumber(random);
+            long a = CompactRational.valueOf(first);
+            long b = CompactRational.valueOf(second);
+
+            check(first.add(second), CompactRational.add(a, b));
+            check(first.subtract(second), CompactRational.subtract(a, b));
+            check(first.multiply(second), CompactRational.multiply(a, b));
+            if (second.numerator() != 0) check(first.divide(second), CompactRational.divide(a, b));
+            assertEquals(Integer.signum(first.compareTo(second)), Integer.signum(CompactRational.compare(a, b)));
+        }
+    }
+
+    private static RationalNumber randomNumber(Random random) {
+        // mostly extreme values, to exercise the fallback
+        long numerator = random.nextBoolean() ? random.nextInt() : random.nextInt(21) - 10;
+        long denominator = random.nextBoolean() ? MAX_DENOMINATOR - random.nextInt(100) : random.nextInt(12) + 1;
+        return RationalNumber.valueOf(numerator, denominator);
+    }
+
+    private static void check(RationalNumber expected, long packed) {
+        if (CompactRational.fits(expected)) assertEquals(expected, CompactRational.rationalNumberValue(packed));
+        else assertEquals(CompactRational.NOT_COMPACT, packed);
+    }
+
+    @Test
+    public void extremeValuesTest() {
+        long min = CompactRational.valueOf(Integer.MIN_VALUE);
+        assertEquals(CompactRational.NOT_COMPACT, CompactRational.negate(min));
+        assertEquals(CompactRational.NOT_COMPACT, CompactRational.add(min, CompactRational.valueOf(-1)));
+        assertEquals(CompactRational.valueOf(-3), CompactRational.reciprocal(CompactRational.valueOf(-1, 3)));
+        assertEquals(CompactRational.NOT_COMPACT, CompactRational.reciprocal(CompactRational.valueOf(1, MAX_DENOMINATOR)));
+        assertEquals(CompactRational.NOT_COMPACT, CompactRational.add(CompactRational.valueOf(1, MAX_DENOMINATOR),
+                                                                      CompactRational.valueOf(1, MAX_DENOMINATOR - 1)));
+    }
+
+    @Test
+    public void columnTest() {
+        RationalArray array = RationalArray.valueOf(RationalNumber.ONE_HALF, RationalNumber.valueOf(-2,3), RationalNumber.valueOf(7));
+        long[] column = CompactRational.valueOf(array);
+
+        assertEquals(array, CompactRational.rationalArrayValue(column));
+        assertEquals(array.sum(), CompactRational.sum(column));
+        assertEquals(RationalNumber.ZERO, CompactRational.sum(new long[10]));
+
+        long[] large = {CompactRational.valueOf(Integer.MAX_VALUE), CompactRational.valueOf(Integer.MAX_VALUE)};
+        assertEquals(RationalNumber.valueOf(2L * Integer.MAX_VALUE), CompactRational.sum(large));
+    }
+}
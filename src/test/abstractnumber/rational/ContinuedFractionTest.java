@@ -0,0 +1,68 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.BigRationalNumber;
+import org.jnum.abstractnumber.rational.ContinuedFraction;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ContinuedFractionTest {
+
+    @Test
+    public void termsTest() {
+        assertArrayEquals(new long[] {3, 7, 15, 1, 292},
+                ContinuedFraction.of(Math.PI).terms().limit(5).toArray());
+        assertArrayEquals(new long[] {-1, 1, 2},
+                ContinuedFraction.of(RationalNumber.valueOf(-1,3)).terms().toArray());
+        assertArrayEquals(new long[] {0, 1, 6, 2},
+                ContinuedFraction.of(RationalNumber.valueOf(13,15)).terms().toArray());
+    }
+
+    @Test
+    public void convergentsTest() {
+        List<RationalNumber> convergents = ContinuedFraction.of(Math.PI).convergents().limit(4).collect(Collectors.toList());
+
+        assertEquals(List.of(RationalNumber.valueOf(3), RationalNumber.valueOf(22,7),
+                RationalNumber.valueOf(333,106), RationalNumber.valueOf(355,113)), convergents);
+
+        RationalNumber value = RationalNumber.valueOf(1234567,7654321);
+        List<RationalNumber> all = ContinuedFraction.of(value).convergents().collect(Collectors.toList());
+        assertEquals(value, all.get(all.size() - 1));
+    }
+
+    @Test
+    public void convergentsStopBeforeOverflowTest() {
+        BigRationalNumber huge = new BigRationalNumber(java.math.BigInteger.TEN.pow(40).add(java.math.BigInteger.ONE),
+                java.math.BigInteger.TEN.pow(39));
+        List<RationalNumber> convergents = ContinuedFraction.of(huge).convergents().collect(Collectors.toList());
+
+        assertEquals(RationalNumber.TEN, convergents.get(0));
+        assertEquals(1, convergents.size());
+    }
+
+    @Test
+    public void evaluateTest() {
+        assertEquals(RationalNumber.valueOf(355,113), ContinuedFraction.evaluate(3, 7, 16));
+        assertEquals(RationalNumber.valueOf(-1,3), ContinuedFraction.evaluate(-1, 1, 2));
+    }
+
+    @Test
+    public void limitDenominatorTest() {
+        assertEquals(RationalNumber.valueOf(355,113), ContinuedFraction.of(Math.PI).limitDenominator(1000));
+        assertEquals(RationalNumber.valueOf(311,99), ContinuedFraction.of(Math.PI).limitDenominator(100));
+        assertEquals(RationalNumber.valueOf(1,10), ContinuedFraction.of(0.1).limitDenominator(1000000));
+        assertEquals(RationalNumber.valueOf(-355,113), ContinuedFraction.of(-Math.PI).limitDenominator(1000));
+        assertEquals(RationalNumber.valueOf(3,4), RationalNumber.valueOf(3,4).limitDenominator(4));
+        assertEquals(RationalNumber.valueOf(1,3), RationalNumber.valueOf(333333,1000000).limitDenominator(10));
+        assertEquals(RationalNumber.valueOf(355,113), RationalNumber.PI.limitDenominator(1000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nanTest() {
+        ContinuedFraction.of(Double.NaN);
+    }
+}
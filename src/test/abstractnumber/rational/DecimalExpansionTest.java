@@ -0,0 +1,88 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.DecimalExpansion;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DecimalExpansionTest {
+
+    @Test
+    public void exactTest() {
+        assertEquals("0.(142857)", RationalNumber.valueOf(1,7).toDecimalString());
+        assertEquals("0.1(6)", RationalNumber.valueOf(1,6).toDecimalString());
+        assertEquals("-2.375", RationalNumber.valueOf(-19,8).toDecimalString());
+        assertEquals("42", RationalNumber.valueOf(42).toDecimalString());
+        assertEquals("0.08(3)", RationalNumber.valueOf(1,12).toDecimalString());
+        assertEquals("-9223372036854775808", RationalNumber.valueOf(Long.MIN_VALUE).toDecimalString());
+    }
+
+    @Test
+    public void maxDigitsTest() {
+        assertEquals("0.(142857)", RationalNumber.valueOf(1,7).toDecimalString(6));
+        assertEquals("0.0625", RationalNumber.valueOf(1,16).toDecimalString(4));
+        assertThrows(ArithmeticException.class, () -> RationalNumber.valueOf(1,7).toDecimalString(5));
+        assertThrows(ArithmeticException.class, () -> RationalNumber.valueOf(1,16).toDecimalString(3));
+        assertThrows(ArithmeticException.class, () -> RationalNumber.valueOf(1, Long.MAX_VALUE).toDecimalString());
+    }
+
+    @Test
+    public void periodTest() {
+        assertEquals(6, DecimalExpansion.periodLength(RationalNumber.valueOf(3,7)));
+        assertEquals(0, DecimalExpansion.periodLength(RationalNumber.valueOf(3,80)));
+        assertEquals(4, DecimalExpansion.preperiodLength(RationalNumber.valueOf(3,80)));
+        assertEquals(96, DecimalExpansion.periodLength(RationalNumber.valueOf(1,97)));
+    }
+
+    @Test
+    public void roundedTest() {
+        assertEquals("0.14", RationalNumber.valueOf(1,7).toDecimalString(2, RoundingMode.HALF_UP));
+        assertEquals("1.00", RationalNumber.valueOf(999,1000).toDecimalString(2, RoundingMode.HALF_UP));
+        assertEquals("0.20", RationalNumber.valueOf(199,1000).toDecimalString(2, RoundingMode.UP));
+        assertEquals("0", RationalNumber.valueOf(-1,3).toDecimalString(0, RoundingMode.HALF_EVEN));
+        assertEquals("-1", RationalNumber.valueOf(-1,3).toDecimalString(0, RoundingMode.FLOOR));
+        assertEquals("2", RationalNumber.valueOf(5,2).toDecimalString(0, RoundingMode.HALF_EVEN));
+        assertEquals("10.0", RationalNumber.valueOf(1999,200).toDecimalString(1, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void roundedMatchesBigDecimalTest() {
+        Random random = new Random(3);
+        RoundingMode[] modes = {RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+                RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN};
+        for (int i = 0; i < 5000; ++i) {
+            long denominator = random.nextInt(3) == 0 ? Long.MAX_VALUE - random.nextInt(1000) : random.nextInt(2000) + 1;
+            RationalNumber number = RationalNumber.valueOf(random.nextLong() / (random.nextInt(3) == 0 ? 1 : 1000000), denominator);
+            int scale = random.nextInt(25);
+            RoundingMode mode = modes[random.nextInt(modes.length)];
+
+            String expected = new BigDecimal(number.numerator())
+                    .divide(new BigDecimal(number.denominator()), scale, mode)
+                    .toPlainString();
+            assertEquals(number + " " + scale + " " + mode, expected, number.toDecimalString(scale, mode));
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void roundingNecessaryTest() {
+        RationalNumber.valueOf(1,3).toDecimalString(5, RoundingMode.UNNECESSARY);
+    }
+
+    @Test
+    public void byteBufferTest() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        DecimalExpansion.putExact(RationalNumber.valueOf(-1,7), buffer);
+        buffer.put((byte) ' ');
+        DecimalExpansion.put(RationalNumber.valueOf(2,3), 3, RoundingMode.HALF_EVEN, buffer);
+        buffer.flip();
+
+        assertEquals("-0.(142857) 0.667", StandardCharsets.US_ASCII.decode(buffer).toString());
+    }
+}
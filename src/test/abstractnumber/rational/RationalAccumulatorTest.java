@@ -0,0 +1,98 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.BigRationalNumber;
+import org.jnum.abstractnumber.rational.RationalAccumulator;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.Assert.*;
+
+public class RationalAccumulatorTest {
+
+    @Test
+    public void addTest() {
+        RationalAccumulator accumulator = new RationalAccumulator();
+        for (long i = 1; i <= 10; ++i) accumulator.add(RationalNumber.valueOf(1, i * (i + 1)));
+
+        assertEquals(RationalNumber.valueOf(10,11), accumulator.rationalNumberValue());
+    }
+
+    @Test
+    public void reductionIntervalTest() {
+        RationalAccumulator lazy = new RationalAccumulator(RationalNumber.ONE, 0);
+        RationalAccumulator eager = new RationalAccumulator(RationalNumber.ONE, 1);
+        for (int i = 0; i < 200; ++i) {
+            lazy.multiply(RationalNumber.valueOf(3,2)).divide(RationalNumber.valueOf(3,2));
+            eager.multiply(RationalNumber.valueOf(3,2)).divide(RationalNumber.valueOf(3,2));
+        }
+
+        assertEquals(RationalNumber.ONE, lazy.rationalNumberValue());
+        assertEquals(RationalNumber.ONE, eager.rationalNumberValue());
+    }
+
+    @Test
+    public void reduceOnOverflowTest() {
+        RationalAccumulator sum = new RationalAccumulator(RationalNumber.ZERO, 0);
+        RationalAccumulator product = new RationalAccumulator(RationalNumber.ONE, 0);
+        for (long i = 1; i <= 1000; ++i) {
+            sum.add(RationalNumber.valueOf(1, i * (i + 1)));
+            product.multiply(RationalNumber.valueOf(i + 1, i));
+            assertTrue(sum.isCompact());
+            assertTrue(product.isCompact());
+        }
+
+        assertEquals(RationalNumber.valueOf(1000,1001), sum.rationalNumberValue());
+        assertEquals(RationalNumber.valueOf(1001), product.rationalNumberValue());
+    }
+
+    @Test
+    public void subtractTest() {
+        RationalAccumulator accumulator = new RationalAccumulator(RationalNumber.ONE_HALF);
+        accumulator.subtract(RationalNumber.ONE_QUARTER).subtract(1);
+
+        assertEquals(RationalNumber.valueOf(-3,4), accumulator.rationalNumberValue());
+    }
+
+    @Test
+    public void divideByNegativeTest() {
+        RationalAccumulator accumulator = new RationalAccumulator(RationalNumber.ONE_HALF);
+        accumulator.divide(RationalNumber.valueOf(-1,4));
+
+        assertEquals(RationalNumber.valueOf(-2), accumulator.rationalNumberValue());
+    }
+
+    @Test(expected = ZeroDenominatorException.class)
+    public void divideByZeroTest() {
+        new RationalAccumulator(RationalNumber.ONE).divide(0);
+    }
+
+    @Test
+    public void promotionTest() {
+        RationalAccumulator accumulator = new RationalAccumulator(RationalNumber.valueOf(Long.MAX_VALUE));
+        accumulator.multiply(4);
+
+        assertEquals(BigRationalNumber.valueOf(BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(2)),
+                accumulator.bigRationalNumberValue());
+
+        accumulator.divide(8);
+
+        assertEquals(RationalNumber.valueOf(Long.MAX_VALUE, 2), accumulator.rationalNumberValue());
+    }
+
+    @Test(expected = RationalOverflowException.class)
+    public void overflowTest() {
+        new RationalAccumulator(RationalNumber.valueOf(Long.MAX_VALUE)).add(1).rationalNumberValue();
+    }
+
+    @Test
+    public void resetTest() {
+        RationalAccumulator accumulator = new RationalAccumulator(RationalNumber.TEN);
+        accumulator.reset().add(RationalNumber.ONE_HALF);
+
+        assertEquals(RationalNumber.ONE_HALF, accumulator.rationalNumberValue());
+    }
+}
@@ -0,0 +1,64 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.BigRationalNumber;
+import org.jnum.abstractnumber.rational.RationalAdder;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RationalAdderTest {
+
+    @Test
+    public void singleThreadTest() {
+        RationalAdder adder = new RationalAdder();
+        adder.add(RationalNumber.ONE_HALF).add(RationalNumber.valueOf(1,3)).add(2).subtract(RationalNumber.valueOf(1,6));
+
+        assertEquals(RationalNumber.valueOf(8,3), adder.sum());
+        assertEquals(RationalNumber.valueOf(8,3), adder.sumThenReset());
+        assertEquals(RationalNumber.ZERO, adder.sum());
+
+        adder.subtract(RationalNumber.valueOf(Long.MIN_VALUE, 3));
+        assertEquals(BigRationalNumber.valueOf(RationalNumber.valueOf(Long.MIN_VALUE, 3)).toggleSign(), adder.bigSum());
+        adder.reset();
+        assertEquals(RationalNumber.ZERO, adder.sum());
+    }
+
+    @Test
+    public void concurrentTest() throws Exception {
+        int threads = 8;
+        int additions = 20000;
+        RationalAdder adder = new RationalAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; ++t) {
+            long denominator = t + 2;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < additions; ++i) adder.add(RationalNumber.valueOf(1, denominator));
+                return null;
+            }));
+        }
+
+        // flushes running alongside the writers must not lose nor count twice any addition
+        start.countDown();
+        RationalNumber flushed = RationalNumber.ZERO;
+        for (int i = 0; i < 50; ++i) flushed = flushed.add(adder.sumThenReset());
+        for (Future<?> future : futures) future.get();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        RationalNumber expected = RationalNumber.ZERO;
+        for (int t = 0; t < threads; ++t) expected = expected.add(RationalNumber.valueOf(additions, t + 2));
+        assertEquals(expected, flushed.add(adder.sum()));
+    }
+}
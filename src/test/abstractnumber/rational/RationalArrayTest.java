@@ -0,0 +1,183 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RationalArrayTest {
+
+    private static final List<RationalNumber> FIRST = Arrays.asList(
+            RationalNumber.valueOf(1,2),
+            RationalNumber.valueOf(-2,3),
+            RationalNumber.valueOf(5),
+            RationalNumber.valueOf(7,24));
+
+    private static final List<RationalNumber> SECOND = Arrays.asList(
+            RationalNumber.valueOf(1,4),
+            RationalNumber.valueOf(3,2),
+            RationalNumber.valueOf(-1,5),
+            RationalNumber.valueOf(2,8));
+
+    @Test
+    public void listConversionTest() {
+        RationalArray array = RationalArray.valueOf(FIRST);
+
+        assertEquals(4, array.length());
+        assertEquals(FIRST, array.toList());
+        assertEquals(-2, array.numerator(1));
+        assertEquals(3, array.denominator(1));
+    }
+
+    @Test
+    public void rawValuesAreReducedTest() {
+        RationalArray array = RationalArray.valueOf(new long[] {2, 3, 0}, new long[] {8, -6, 5});
+
+        assertEquals(Arrays.asList(RationalNumber.valueOf(1,4), RationalNumber.valueOf(-1,2), RationalNumber.ZERO),
+                array.toList());
+    }
+
+    @Test
+    public void elementWiseTest() {
+        for (int i = 0; i < FIRST.size(); ++i) {
+            RationalArray first = RationalArray.valueOf(FIRST);
+            RationalArray second = RationalArray.valueOf(SECOND);
+
+            assertEquals(FIRST.get(i).add(SECOND.get(i)), first.duplicateThis().add(second).get(i));
+            assertEquals(FIRST.get(i).subtract(SECOND.get(i)), first.duplicateThis().subtract(second).get(i));
+            assertEquals(FIRST.get(i).multiply(SECOND.get(i)), first.duplicateThis().multiply(second).get(i));
+            assertEquals(FIRST.get(i).divide(SECOND.get(i)), first.duplicateThis().divide(second).get(i));
+            assertEquals(FIRST.get(i).multiply(-6), first.duplicateThis().scale(-6).get(i));
+            assertEquals(FIRST.get(i).reciprocal(), first.duplicateThis().reciprocal().get(i));
+        }
+    }
+
+    @Test(expected = ZeroDenominatorException.class)
+    public void reciprocalOfZeroTest() {
+        new RationalArray(3).reciprocal();
+    }
+
+    @Test
+    public void partialUpdateOnOverflowTest() {
+        RationalArray array = RationalArray.valueOf(RationalNumber.ONE, RationalNumber.valueOf(Long.MAX_VALUE), RationalNumber.ONE);
+
+        assertThrows(RationalOverflowException.class, () -> array.scale(2));
+        assertEquals(RationalNumber.valueOf(2), array.get(0));
+        assertEquals(RationalNumber.valueOf(Long.MAX_VALUE), array.get(1));
+        assertEquals(RationalNumber.ONE, array.get(2));
+    }
+
+    @Test
+    public void integerScaleBoundsTest() {
+        assertEquals(RationalNumber.valueOf(Long.MIN_VALUE), RationalArray.valueOf(RationalNumber.valueOf(Long.MIN_VALUE / 2)).scale(2).get(0));
+        assertThrows(RationalOverflowException.class, () -> RationalArray.valueOf(RationalNumber.valueOf(Long.MIN_VALUE)).scale(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentLengthTest() {
+        new RationalArray(3).add(new RationalArray(2));
+    }
+
+    @Test
+    public void reductionTest() {
+        RationalArray first = RationalArray.valueOf(FIRST);
+        RationalArray second = RationalArray.valueOf(SECOND);
+
+        RationalNumber expectedDot = RationalNumber.ZERO;
+        for (int i = 0; i < FIRST.size(); ++i) expectedDot = expectedDot.add(FIRST.get(i).multiply(SECOND.get(i)));
+
+        assertEquals(expectedDot, first.dot(second));
+        assertEquals(RationalNumber.valueOf(123,24), first.sum());
+        assertEquals(RationalNumber.valueOf(-35,72), first.product());
+        assertEquals(RationalNumber.valueOf(-2,3), first.min());
+        assertEquals(RationalNumber.valueOf(5), first.max());
+    }
+
+    @Test
+    public void largeValuesCompareTest() {
+        RationalArray array = RationalArray.valueOf(
+                RationalNumber.valueOf(Long.MAX_VALUE, Long.MAX_VALUE - 1),
+                RationalNumber.valueOf(Long.MAX_VALUE - 1, Long.MAX_VALUE - 2));
+
+        assertEquals(array.get(1), array.max());
+        assertEquals(array.get(0), array.min());
+    }
+
+    private static List<RationalNumber> randomNumbers(int length, long seed) {
+        Random random = new Random(seed);
+        List<RationalNumber> numbers = new ArrayList<>(length);
+        for (int i = 0; i < length; ++i)
+            numbers.add(RationalNumber.valueOf(random.nextInt(2001) - 1000, random.nextInt(60) + 1));
+        return numbers;
+    }
+
+    @Test
+    public void sortTest() {
+        for (int length : new int[] {0, 1, 7, 33, 1000, 40000}) {
+            List<RationalNumber> numbers = randomNumbers(length, length);
+            List<RationalNumber> expected = new ArrayList<>(numbers);
+            Collections.sort(expected);
+
+            assertEquals(expected, RationalArray.valueOf(numbers).sort().toList());
+            assertEquals(expected, RationalArray.valueOf(numbers).parallelSort().toList());
+            assertTrue(RationalArray.valueOf(numbers).parallelSort().isSorted());
+        }
+        assertFalse(RationalArray.valueOf(FIRST).isSorted());
+    }
+
+    @Test
+    public void binarySearchTest() {
+        RationalArray array = RationalArray.valueOf(FIRST).sort();
+
+        assertEquals(0, array.binarySearch(RationalNumber.valueOf(-2,3)));
+        assertEquals(2, array.binarySearch(RationalNumber.ONE_HALF));
+        assertEquals(-3, array.binarySearch(RationalNumber.valueOf(1,3)));
+        assertEquals(-5, array.binarySearch(RationalNumber.valueOf(6)));
+    }
+
+    @Test
+    public void orderStatisticsTest() {
+        List<RationalNumber> numbers = randomNumbers(5001, 3);
+        List<RationalNumber> sorted = new ArrayList<>(numbers);
+        Collections.sort(sorted);
+        RationalArray array = RationalArray.valueOf(numbers);
+
+        assertEquals(sorted.get(0), array.select(0));
+        assertEquals(sorted.get(1234), array.select(1234));
+        assertEquals(sorted.get(2500), array.median());
+        assertEquals(sorted.get(5000), array.quantile(RationalNumber.ONE));
+        assertEquals(RationalArray.valueOf(numbers), array);
+
+        assertEquals(sorted.subList(0, 10), array.smallest(10).toList());
+        List<RationalNumber> largest = new ArrayList<>(sorted.subList(4990, 5001));
+        Collections.reverse(largest);
+        assertEquals(largest, array.largest(11).toList());
+        assertEquals(0, array.largest(0).length());
+        assertEquals(sorted, array.smallest(5001).toList());
+    }
+
+    @Test
+    public void interpolatedQuantileTest() {
+        RationalArray array = RationalArray.valueOf(FIRST);
+
+        assertEquals(RationalNumber.valueOf(19,48), array.median());
+        // h = 3/4 * 3 = 9/4, between 1/2 and 5
+        assertEquals(RationalNumber.valueOf(13,8), array.quantile(RationalNumber.valueOf(3,4)));
+        assertEquals(RationalNumber.valueOf(-2,3), array.quantile(RationalNumber.ZERO));
+        assertNull(new RationalArray(0).median());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void quantileOutOfRangeTest() {
+        RationalArray.valueOf(FIRST).quantile(RationalNumber.valueOf(3,2));
+    }
+}
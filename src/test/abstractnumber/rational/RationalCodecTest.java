@@ -0,0 +1,107 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalCodec;
+import org.jnum.abstractnumber.rational.RationalInputStream;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.RationalOutputStream;
+import org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RationalCodecTest {
+
+    private static final List<RationalNumber> VALUES = Arrays.asList(
+            RationalNumber.ZERO,
+            RationalNumber.ONE,
+            RationalNumber.valueOf(-32),
+            RationalNumber.valueOf(31),
+            RationalNumber.valueOf(-7,24),
+            RationalNumber.PI,
+            RationalNumber.valueOf(Long.MAX_VALUE),
+            RationalNumber.valueOf(Long.MIN_VALUE),
+            RationalNumber.valueOf(Long.MIN_VALUE + 1, Long.MAX_VALUE - 1));
+
+    @Test
+    public void byteBufferRoundTripTest() {
+        ByteBuffer buffer = ByteBuffer.allocate(VALUES.size() * RationalCodec.MAX_ENCODED_LENGTH);
+        int expectedLength = 0;
+        for (RationalNumber value : VALUES) {
+            RationalCodec.encode(value, buffer);
+            expectedLength += RationalCodec.encodedLength(value);
+        }
+
+        assertEquals(expectedLength, buffer.position());
+
+        buffer.flip();
+        for (RationalNumber value : VALUES) assertEquals(value, RationalCodec.decode(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void encodedLengthTest() {
+        assertEquals(1, RationalCodec.encodedLength(RationalNumber.valueOf(-32)));
+        assertEquals(1, RationalCodec.encodedLength(RationalNumber.valueOf(31)));
+        assertEquals(2, RationalCodec.encodedLength(RationalNumber.valueOf(32)));
+        assertEquals(2, RationalCodec.encodedLength(RationalNumber.ONE_HALF));
+        assertEquals(RationalCodec.MAX_ENCODED_LENGTH,
+                RationalCodec.encodedLength(RationalNumber.valueOf(Long.MIN_VALUE + 1, Long.MAX_VALUE - 1)));
+    }
+
+    @Test(expected = InvalidFormatStringException.class)
+    public void invalidDenominatorTest() {
+        RationalCodec.decode(ByteBuffer.wrap(new byte[] {0x03, 0x01}));
+    }
+
+    @Test
+    public void streamRoundTripTest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RationalOutputStream out = new RationalOutputStream(bytes, 32)) {
+            for (int i = 0; i < 1000; ++i)
+                for (RationalNumber value : VALUES) out.writeRationalNumber(value);
+        }
+
+        try (RationalInputStream in = new RationalInputStream(new ByteArrayInputStream(bytes.toByteArray()), 32)) {
+            for (int i = 0; i < 1000; ++i)
+                for (RationalNumber value : VALUES) assertEquals(value, in.readRationalNumber());
+            assertFalse(in.readRationalNumber(new long[2]));
+        }
+    }
+
+    @Test
+    public void readRationalArrayTest() throws IOException {
+        RationalArray array = RationalArray.valueOf(VALUES);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RationalOutputStream out = new RationalOutputStream(bytes)) {
+            out.writeRationalArray(array);
+        }
+
+        RationalArray read = new RationalArray(VALUES.size() + 1);
+        try (RationalInputStream in = new RationalInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(VALUES.size(), in.read(read));
+        }
+        for (int i = 0; i < VALUES.size(); ++i) assertEquals(VALUES.get(i), read.get(i));
+    }
+
+    @Test(expected = EOFException.class)
+    public void truncatedStreamTest() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (RationalOutputStream out = new RationalOutputStream(bytes)) {
+            out.writeRationalNumber(RationalNumber.PI);
+        }
+
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+        try (RationalInputStream in = new RationalInputStream(new ByteArrayInputStream(truncated))) {
+            in.readRationalNumber();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.BigRationalNumber;
+import org.jnum.abstractnumber.rational.RationalCollectors;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.RationalSummaryStatistics;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class RationalCollectorsTest {
+
+    private static List<RationalNumber> harmonic(int size) {
+        List<RationalNumber> values = new ArrayList<>();
+        for (long i = 1; i <= size; ++i) values.add(RationalNumber.valueOf(1, i * (i + 1)));
+        return values;
+    }
+
+    @Test
+    public void summingTest() {
+        List<RationalNumber> values = harmonic(10000);
+
+        assertEquals(RationalNumber.valueOf(10000,10001), values.stream().collect(RationalCollectors.summing()));
+        assertEquals(RationalNumber.valueOf(10000,10001), values.parallelStream().collect(RationalCollectors.summing()));
+        assertEquals(RationalNumber.ZERO, Stream.<RationalNumber>empty().collect(RationalCollectors.summing()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void summingDistinctDenominatorsWithoutAllocatingTest() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemoryEnabled());
+
+        Collector<RationalNumber, Object, RationalNumber> collector =
+                (Collector<RationalNumber, Object, RationalNumber>) RationalCollectors.summing();
+        RationalNumber[] values = harmonic(5000).toArray(new RationalNumber[0]);
+        long id = Thread.currentThread().getId();
+
+        // the first rounds warm up the accumulator, the last one is measured
+        for (int round = 0; round < 5; ++round) {
+            Object container = collector.supplier().get();
+            BiConsumer<Object, RationalNumber> accumulator = collector.accumulator();
+            long before = threads.getThreadAllocatedBytes(id);
+            for (RationalNumber value : values) accumulator.accept(container, value);
+            long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+            assertEquals(RationalNumber.valueOf(5000,5001), collector.finisher().apply(container));
+            if (round == 4) assertTrue("allocated " + allocated + " bytes", allocated < 4096);
+        }
+    }
+
+    @Test
+    public void summingBigTest() {
+        BigRationalNumber sum = Collections.nCopies(4, RationalNumber.valueOf(Long.MAX_VALUE))
+                .parallelStream()
+                .collect(RationalCollectors.summingBig());
+
+        assertEquals(BigRationalNumber.valueOf(BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(2)), sum);
+    }
+
+    @Test
+    public void multiplyingTest() {
+        RationalNumber product = RationalNumber.ONE.rangeStream(RationalNumber.valueOf(21), RationalNumber.ONE)
+                .map(RationalNumber::reciprocal)
+                .parallel()
+                .collect(RationalCollectors.multiplying());
+
+        assertEquals(RationalNumber.valueOf(1, 2432902008176640000L), product);
+    }
+
+    @Test
+    public void averagingTest() {
+        RationalNumber average = Stream.of(RationalNumber.valueOf(1,2), RationalNumber.valueOf(1,3), RationalNumber.ONE)
+                .collect(RationalCollectors.averaging());
+
+        assertEquals(RationalNumber.valueOf(11,18), average);
+    }
+
+    @Test
+    public void summarizingTest() {
+        List<RationalNumber> values = harmonic(1000);
+        RationalSummaryStatistics statistics = values.parallelStream().collect(RationalCollectors.summarizing());
+
+        assertEquals(1000, statistics.getCount());
+        assertEquals(RationalNumber.valueOf(1000,1001), statistics.getSum());
+        assertEquals(RationalNumber.valueOf(1,1000 * 1001), statistics.getMin());
+        assertEquals(RationalNumber.ONE_HALF, statistics.getMax());
+        assertEquals(RationalNumber.valueOf(1,1001), statistics.getAverage());
+    }
+
+    @Test
+    public void emptySummaryTest() {
+        RationalSummaryStatistics statistics = new RationalSummaryStatistics();
+
+        assertEquals(0, statistics.getCount());
+        assertNull(statistics.getMin());
+        assertEquals(RationalNumber.ZERO, statistics.getAverage());
+    }
+}
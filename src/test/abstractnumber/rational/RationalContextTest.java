@@ -0,0 +1,91 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalContext;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.Assert.*;
+
+public class RationalContextTest {
+
+    private static final RationalContext CENTS = RationalContext.CENTS;
+
+    @Test
+    public void conversionTest() {
+        assertEquals(1250, CENTS.parse("12.5"));
+        assertEquals(50, CENTS.valueOf(RationalNumber.ONE_HALF));
+        assertEquals(-700, CENTS.valueOf(-7));
+        assertEquals(RationalNumber.valueOf(25, 2), CENTS.rationalNumberValue(1250));
+        assertEquals("12.50", CENTS.toString(1250));
+        assertEquals("-0.05", CENTS.toString(-5));
+        assertEquals("{1/3}", new RationalContext(3).toString(1));
+
+        assertTrue(CENTS.isExact(RationalNumber.valueOf(3, 4)));
+        assertFalse(CENTS.isExact(RationalNumber.valueOf(1, 3)));
+        assertEquals(33, CENTS.valueOf(RationalNumber.valueOf(1, 3), RoundingMode.HALF_EVEN));
+        assertEquals(-34, CENTS.valueOf(RationalNumber.valueOf(-1, 3), RoundingMode.FLOOR));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void inexactConversionTest() {
+        CENTS.valueOf(RationalNumber.valueOf(1, 3));
+    }
+
+    @Test
+    public void arithmeticTest() {
+        long total = CENTS.sum(1999, 501, -250);
+        assertEquals(2250, total);
+        assertEquals(RationalNumber.valueOf(45, 2), CENTS.rationalNumberValue(total));
+        assertEquals(6750, CENTS.multiply(total, 3));
+
+        // 7.5% of 22.50 is 1.6875
+        RationalNumber rate = RationalNumber.valueOf(75, 1000);
+        assertEquals(169, CENTS.multiply(total, rate, RoundingMode.HALF_EVEN));
+        assertEquals(168, CENTS.multiply(total, rate, RoundingMode.DOWN));
+        assertEquals(5063, CENTS.multiplyValues(total, 225, RoundingMode.HALF_UP));
+        assertEquals(750, CENTS.divide(total, 3, RoundingMode.UNNECESSARY));
+        assertEquals(-562, CENTS.divide(total, -4, RoundingMode.HALF_EVEN));
+        assertEquals(0, CENTS.divide(total, Long.MIN_VALUE, RoundingMode.DOWN));
+        assertEquals(225000, CENTS.convert(total, RationalContext.BASIS_POINTS, RoundingMode.UNNECESSARY));
+        assertEquals(23, RationalContext.BASIS_POINTS.convert(2250, CENTS, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    public void roundingMatchesBigDecimalTest() {
+        long[] values = {-7, -5, -3, -1, 1, 3, 5, 7, 15, -15, 25, -25};
+        for (RoundingMode mode : RoundingMode.values()) {
+            if (mode == RoundingMode.UNNECESSARY) continue;
+            for (long value : values) {
+                long expected = BigDecimal.valueOf(value).divide(BigDecimal.TEN, 0, mode).longValueExact();
+                assertEquals(mode + " " + value, expected, CENTS.divide(value, 10, mode));
+            }
+        }
+    }
+
+    @Test
+    public void columnTest() {
+        RationalArray array = RationalArray.valueOf(RationalNumber.ONE_HALF, RationalNumber.valueOf(-3, 4), RationalNumber.TEN);
+        long[] units = CENTS.valueOf(array, RoundingMode.UNNECESSARY);
+
+        assertArrayEquals(new long[] {50, -75, 1000}, units);
+        assertEquals(array, CENTS.rationalArrayValue(units));
+        assertEquals(array.sum(), CENTS.rationalNumberValue(CENTS.sum(units)));
+    }
+
+    @Test(expected = RationalOverflowException.class)
+    public void overflowTest() {
+        CENTS.add(Long.MAX_VALUE, 1);
+    }
+
+    @Test
+    public void largeProductTest() {
+        // the product of the units overflows a long, the result does not
+        assertEquals(Long.MAX_VALUE / 10, CENTS.multiplyValues(Long.MAX_VALUE / 10, 100, RoundingMode.UNNECESSARY));
+        assertEquals(Long.MAX_VALUE / 20, CENTS.multiplyValues(Long.MAX_VALUE / 10, 50, RoundingMode.DOWN));
+    }
+}
@@ -0,0 +1,135 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.CompiledRationalExpression;
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalExpression;
+import org.jnum.abstractnumber.rational.RationalMetrics;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RationalExpressionTest {
+
+    @Test
+    public void parseAndEvaluateTest() {
+        RationalExpression expression = RationalExpression.parse("price * (1 + rate / 100) - discount");
+
+        assertEquals(Arrays.asList("price", "rate", "discount"), expression.variables());
+        assertEquals(RationalNumber.valueOf(1017, 10), expression.evaluate(Map.of(
+                "price", RationalNumber.valueOf(100),
+                "rate", RationalNumber.valueOf(22, 10),
+                "discount", RationalNumber.ONE_HALF)));
+
+        assertEquals(RationalNumber.valueOf(-9), RationalExpression.parse("-x^2").evaluate(Map.of("x", RationalNumber.valueOf(3))));
+        assertEquals(RationalNumber.valueOf(4, 9), RationalExpression.parse("x^-2").evaluate(Map.of("x", RationalNumber.valueOf(3, 2))));
+        assertEquals(RationalNumber.valueOf(7, 2), RationalExpression.parse("1.5e1 / 2 - (4)").constantValue());
+    }
+
+    @Test
+    public void constantFoldingTest() {
+        RationalExpression folded = RationalExpression.parse("2 * PI * ONE_HALF + E - E");
+        assertTrue(folded.isConstant());
+        assertEquals(RationalNumber.PI, folded.constantValue());
+
+        RationalExpression x = RationalExpression.variable("x");
+        assertEquals(x, RationalExpression.parse("(x + 0) * 1 / ONE"));
+        assertEquals(x, RationalExpression.parse("--x"));
+        assertEquals(RationalExpression.constant(0), RationalExpression.parse("ONE_HALF * ZERO"));
+        assertFalse(RationalExpression.parse("x * ZERO").isConstant());
+        assertEquals(RationalNumber.ZERO, RationalExpression.parse("x * ZERO").compile().evaluate(RationalNumber.TEN));
+        assertEquals(RationalNumber.valueOf(2), RationalExpression.parse("2 * E").divide(RationalExpression.constant(RationalNumber.E)).constantValue());
+    }
+
+    @Test
+    public void toStringRoundTripTest() {
+        RationalExpression expression = RationalExpression.parse("a / (b - 3/4) + -c^-3 * ONE_HALF");
+        assertEquals(expression, RationalExpression.parse(expression.toString()));
+
+        RationalExpression power = RationalExpression.variable("x").power(2).power(-3);
+        assertEquals("(x^2)^(-3)", power.toString());
+        assertEquals(power, RationalExpression.parse(power.toString()));
+    }
+
+    @Test
+    public void sharedDenominatorFactorsStayOnLongsTest() {
+        // the unreduced denominators multiply to 1.44e22, the result is 1/80000
+        CompiledRationalExpression compiled = RationalExpression.parse("a + b + c + d").compile();
+        RationalArray a = new RationalArray(1000);
+        RationalArray b = new RationalArray(1000);
+        RationalArray c = new RationalArray(1000);
+        RationalArray d = new RationalArray(1000);
+        for (int row = 0; row < 1000; ++row) {
+            a.set(row, row + 1, 600000);
+            b.set(row, row + 1, 400000);
+            c.set(row, row + 1, 300000);
+            d.set(row, row + 1, 200000);
+        }
+
+        RationalMetrics.Snapshot before = RationalMetrics.snapshot();
+        RationalArray results = compiled.evaluateAll(a, b, c, d);
+        RationalMetrics.Snapshot delta = RationalMetrics.snapshot().since(before);
+
+        for (int row = 0; row < 1000; ++row) assertEquals(RationalNumber.valueOf(row + 1, 80000), results.get(row));
+        assertEquals(0, delta.get(RationalMetrics.Counter.PROMOTIONS));
+    }
+
+    @Test(expected = InvalidFormatStringException.class)
+    public void invalidFormulaTest() {
+        RationalExpression.parse("x + * 2");
+    }
+
+    @Test(expected = ZeroDenominatorException.class)
+    public void constantDivisionByZeroTest() {
+        RationalExpression.parse("x / (1 - ONE)");
+    }
+
+    @Test(expected = ZeroDenominatorException.class)
+    public void divisionByZeroTest() {
+        RationalExpression.parse("1 / x").compile().evaluate(RationalNumber.ZERO);
+    }
+
+    @Test(expected = ZeroDenominatorException.class)
+    public void divisionByZeroTimesZeroTest() {
+        RationalExpression.parse("(1/x) * 0").compile().evaluate(RationalNumber.ZERO);
+    }
+
+    @Test
+    public void compiledOrderTest() {
+        CompiledRationalExpression compiled = RationalExpression.parse("a - b").compile("b", "a", "unused");
+
+        assertEquals(RationalNumber.valueOf(5, 6), compiled.evaluate(RationalNumber.ONE_QUARTER.toggleSign(), RationalNumber.valueOf(7, 12), RationalNumber.TEN));
+    }
+
+    @Test
+    public void batchMatchesChainedCallsTest() {
+        CompiledRationalExpression compiled = RationalExpression.parse("(x * y + x / 3) ^ 2 - (x * y + x / 3) / y").compile("x", "y");
+
+        Random random = new Random(9);
+        int length = 5000;
+        RationalArray xs = new RationalArray(length);
+        RationalArray ys = new RationalArray(length);
+        for (int i = 0; i < length; ++i) {
+            xs.set(i, random.nextInt(2001) - 1000, random.nextInt(100) + 1);
+            ys.set(i, random.nextInt(2000) + 1, random.nextInt(100) + 1);
+        }
+        // the unreduced square overflows, the reduced result is 3 (3 * 2^20 + 1) / 2^20
+        xs.set(0, 3, 1 << 20);
+        ys.set(0, 1 << 20, 1);
+
+        RationalArray results = compiled.evaluateAll(xs, ys);
+        for (int i = 0; i < length; ++i) {
+            RationalNumber x = xs.get(i);
+            RationalNumber y = ys.get(i);
+            RationalNumber inner = x.multiply(y).add(x.divide(RationalNumber.valueOf(3)));
+            assertEquals(inner.power(2).subtract(inner.divide(y)), results.get(i));
+        }
+        assertEquals(RationalNumber.valueOf(3 * ((3L << 20) + 1), 1 << 20), results.get(0));
+    }
+}
@@ -0,0 +1,120 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalHashMap;
+import org.jnum.abstractnumber.rational.RationalHashSet;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RationalHashMapTest {
+
+    @Test
+    public void hashCodeTest() {
+        assertEquals(RationalNumber.valueOf(2,4).hashCode(), RationalNumber.valueOf(1,2).hashCode());
+        assertNotEquals(RationalNumber.valueOf(1,2).hashCode(), RationalNumber.valueOf(2,1).hashCode());
+    }
+
+    @Test
+    public void putGetTest() {
+        RationalHashMap<String> map = new RationalHashMap<>();
+
+        assertNull(map.put(RationalNumber.ONE_HALF, "half"));
+        assertEquals("half", map.get(2, 4));
+        assertEquals("half", map.get(-3, -6));
+        assertEquals("half", map.put(1, 2, "one half"));
+        assertEquals("one half", map.get(RationalNumber.ONE_HALF));
+        assertNull(map.get(1, 3));
+        assertEquals("none", map.getOrDefault(1, 3, "none"));
+        assertEquals(1, map.size());
+        assertTrue(map.containsKey(5, 10));
+    }
+
+    @Test
+    public void concurrentReadTest() throws InterruptedException {
+        RationalHashMap<Long> map = new RationalHashMap<>();
+        for (long d = 1; d <= 1000; ++d) map.put(1, d, d);
+
+        boolean[] failed = new boolean[1];
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; ++t) {
+            long factor = t + 2;
+            readers[t] = new Thread(() -> {
+                for (int round = 0; round < 200; ++round)
+                    for (long d = 1; d <= 1000; ++d)
+                        if (!Long.valueOf(d).equals(map.get(factor, d * factor))) failed[0] = true;
+            });
+            readers[t].start();
+        }
+        for (Thread reader : readers) reader.join();
+
+        assertFalse(failed[0]);
+    }
+
+    @Test
+    public void groupingTest() {
+        RationalHashMap<List<Integer>> groups = new RationalHashMap<>();
+        for (int i = 1; i <= 12; ++i) groups.computeIfAbsent(i % 4, 4, ArrayList::new).add(i);
+
+        assertEquals(4, groups.size());
+        assertEquals(List.of(2, 6, 10), groups.get(RationalNumber.ONE_HALF));
+        assertEquals(List.of(4, 8, 12), groups.get(RationalNumber.ZERO));
+
+        RationalHashMap<Long> counts = new RationalHashMap<>();
+        for (int i = 1; i <= 12; ++i) counts.merge(i, 6, 1L, Long::sum);
+        assertEquals(Long.valueOf(1), counts.get(RationalNumber.valueOf(1,6)));
+        assertEquals(12, counts.size());
+    }
+
+    @Test
+    public void matchesHashMapTest() {
+        Random random = new Random(5);
+        RationalHashMap<Integer> map = new RationalHashMap<>();
+        Map<RationalNumber, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 100000; ++i) {
+            long numerator = random.nextInt(200) - 100;
+            long denominator = random.nextInt(50) + 1;
+            RationalNumber key = RationalNumber.valueOf(numerator, denominator);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, i), map.put(numerator, denominator, i));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), map.remove(numerator, denominator));
+                    break;
+                default:
+                    assertEquals(expected.get(key), map.get(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        Map<RationalNumber, Integer> copy = new HashMap<>();
+        map.forEach((numerator, denominator, value) -> copy.put(RationalNumber.valueOf(numerator, denominator), value));
+        assertEquals(expected, copy);
+    }
+
+    @Test
+    public void setTest() {
+        RationalHashSet set = RationalHashSet.valueOf(RationalArray.valueOf(
+                RationalNumber.ONE_HALF, RationalNumber.valueOf(2,4), RationalNumber.ONE, RationalNumber.ZERO));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(3, 6));
+        assertFalse(set.add(RationalNumber.ONE));
+        assertTrue(set.add(-1, 3));
+        assertTrue(set.remove(RationalNumber.ZERO));
+        assertFalse(set.contains(0, 5));
+        assertEquals(3, set.keys().length());
+
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+}
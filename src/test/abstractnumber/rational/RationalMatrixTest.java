@@ -0,0 +1,138 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalMatrix;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.SingularMatrixException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RationalMatrixTest {
+
+    private static RationalMatrix hilbert(int size) {
+        RationalNumber[][] entries = new RationalNumber[size][size];
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) entries[i][j] = RationalNumber.valueOf(1, i + j + 1);
+        return RationalMatrix.valueOf(entries);
+    }
+
+    @Test
+    public void determinantTest() {
+        assertEquals(RationalNumber.valueOf(-2), RationalMatrix.valueOf(new long[][] {{1,2},{3,4}}).determinant());
+        assertEquals(RationalNumber.valueOf(1,2160), hilbert(3).determinant());
+        assertEquals(RationalNumber.valueOf(1,266716800000L), hilbert(5).determinant());
+        assertEquals(RationalNumber.ZERO, RationalMatrix.valueOf(new long[][] {{1,2,3},{4,5,6},{7,8,9}}).determinant());
+        // the first pivot is zero, the rows are swapped
+        assertEquals(RationalNumber.valueOf(-1), RationalMatrix.valueOf(new long[][] {{0,1},{1,0}}).determinant());
+    }
+
+    @Test
+    public void rankTest() {
+        assertEquals(2, RationalMatrix.valueOf(new long[][] {{1,2,3},{4,5,6},{7,8,9}}).rank());
+        assertEquals(1, RationalMatrix.valueOf(new long[][] {{0,2,4},{0,1,2}}).rank());
+        assertEquals(0, RationalMatrix.zero(3, 2).rank());
+        assertEquals(6, hilbert(6).rank());
+    }
+
+    @Test
+    public void inverseTest() {
+        RationalMatrix hilbert = hilbert(6);
+        RationalMatrix inverse = hilbert.inverse();
+
+        assertEquals(RationalNumber.valueOf(36), inverse.get(0, 0));
+        assertEquals(RationalMatrix.identity(6), hilbert.multiply(inverse));
+        assertEquals(hilbert, inverse.inverse());
+    }
+
+    @Test
+    public void solveTest() {
+        RationalMatrix a = RationalMatrix.valueOf(new RationalNumber[][] {
+                {RationalNumber.valueOf(2), RationalNumber.ONE_HALF, RationalNumber.ZERO},
+                {RationalNumber.valueOf(1,3), RationalNumber.ONE, RationalNumber.valueOf(-1)},
+                {RationalNumber.ZERO, RationalNumber.valueOf(3,4), RationalNumber.valueOf(5)}
+        });
+        RationalNumber[] x = {RationalNumber.valueOf(1,7), RationalNumber.valueOf(-2), RationalNumber.valueOf(5,3)};
+        RationalMatrix b = a.multiply(RationalMatrix.column(x));
+
+        assertArrayEquals(x, a.solve(b.get(0, 0), b.get(1, 0), b.get(2, 0)));
+    }
+
+    @Test
+    public void parallelSolveTest() {
+        Random random = new Random(42);
+        int size = 40;
+        long[][] entries = new long[size][size];
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) entries[i][j] = random.nextInt(7) - 3;
+        for (int i = 0; i < size; ++i) entries[i][i] += 25;
+        RationalMatrix a = RationalMatrix.valueOf(entries);
+
+        RationalNumber[] x = new RationalNumber[size];
+        for (int i = 0; i < size; ++i) x[i] = RationalNumber.valueOf(random.nextInt(100) - 50, random.nextInt(9) + 1);
+
+        // the elimination runs on large BigIntegers, but the solution is small
+        RationalMatrix b = a.multiply(RationalMatrix.column(x));
+        assertArrayEquals(x, a.solve(columnOf(b)));
+        assertEquals(b, a.multiply(a.solve(b)));
+    }
+
+    private static RationalNumber[] columnOf(RationalMatrix column) {
+        RationalNumber[] entries = new RationalNumber[column.rows()];
+        for (int i = 0; i < entries.length; ++i) entries[i] = column.get(i, 0);
+        return entries;
+    }
+
+    @Test
+    public void solveModularTest() {
+        RationalMatrix hilbert = hilbert(8);
+        RationalMatrix identity = RationalMatrix.identity(8);
+
+        assertEquals(hilbert.solve(identity), hilbert.solveModular(identity));
+
+        RationalNumber[] x = {RationalNumber.valueOf(-3,7), RationalNumber.valueOf(1,1000000007), RationalNumber.ZERO};
+        RationalMatrix a = RationalMatrix.valueOf(new long[][] {{0,1,2},{3,0,1},{5,7,0}});
+        RationalMatrix b = a.multiply(RationalMatrix.column(x));
+        assertArrayEquals(x, a.solveModular(columnOf(b)));
+    }
+
+    @Test
+    public void largeSolveModularTest() {
+        Random random = new Random(7);
+        int size = 60;
+        RationalNumber[][] entries = new RationalNumber[size][size];
+        for (int i = 0; i < size; ++i)
+            for (int j = 0; j < size; ++j) entries[i][j] = RationalNumber.valueOf(random.nextInt(2001) - 1000, random.nextInt(3) + 1);
+        RationalMatrix a = RationalMatrix.valueOf(entries);
+
+        RationalNumber[] x = new RationalNumber[size];
+        for (int i = 0; i < size; ++i) x[i] = RationalNumber.valueOf(random.nextInt(1000) - 500, random.nextInt(4) + 1);
+        RationalMatrix b = a.multiply(RationalMatrix.column(x));
+
+        assertArrayEquals(x, a.solveModular(columnOf(b)));
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void singularModularTest() {
+        RationalMatrix.valueOf(new long[][] {{1,2,3},{4,5,6},{7,8,9}}).solveModular(RationalNumber.ONE, RationalNumber.ONE, RationalNumber.ONE);
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void singularTest() {
+        RationalMatrix.valueOf(new long[][] {{1,2},{2,4}}).inverse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shapeTest() {
+        RationalMatrix.valueOf(new long[][] {{1,2},{3}});
+    }
+
+    @Test
+    public void transposeTest() {
+        RationalMatrix matrix = RationalMatrix.valueOf(new long[][] {{1,2,3},{4,5,6}});
+
+        assertEquals(RationalMatrix.valueOf(new long[][] {{1,4},{2,5},{3,6}}), matrix.transpose());
+        assertEquals("[[1, 2, 3], [4, 5, 6]]", matrix.toString());
+    }
+}
@@ -0,0 +1,83 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalMetrics;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.RationalParser;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RationalMetricsTest {
+
+    private static void workload() {
+        RationalNumber value = RationalNumber.valueOf((1L << 61) - 1, 3);
+        value.add(RationalNumber.ONE_HALF);
+        value.multiply(RationalNumber.valueOf(2,7));
+        value.compareTo(RationalNumber.ONE);
+        RationalParser.tryParse("1/x", new long[2]);
+        try {
+            value.multiply(value);
+        } catch (ArithmeticException ignored) {
+            // counted as an overflow
+        }
+    }
+
+    @Test
+    public void snapshotTest() {
+        RationalMetrics.Snapshot before = RationalMetrics.snapshot();
+        workload();
+        RationalMetrics.Snapshot delta = RationalMetrics.snapshot().since(before);
+
+        if (RationalMetrics.isEnabled()) {
+            assertTrue(delta.get(RationalMetrics.Counter.ADD) >= 1);
+            assertTrue(delta.get(RationalMetrics.Counter.MULTIPLY) >= 2);
+            assertTrue(delta.get(RationalMetrics.Counter.GCD_CALLS) >= 1);
+            assertTrue(delta.get(RationalMetrics.Counter.GCD_ITERATIONS) >= delta.get(RationalMetrics.Counter.GCD_CALLS));
+            assertTrue(delta.get(RationalMetrics.Counter.PROMOTIONS) >= 1);
+            assertTrue(delta.get(RationalMetrics.Counter.OVERFLOWS) >= 1);
+            assertTrue(delta.get(RationalMetrics.Counter.PARSE_FAILURES) >= 1);
+        } else {
+            for (RationalMetrics.Counter counter : RationalMetrics.Counter.values())
+                assertEquals(0, delta.get(counter));
+        }
+    }
+
+    @Test
+    public void enabledInChildProcessTest() throws IOException, InterruptedException {
+        // the flag is read once per JVM: rerun this class with metrics on so the enabled branch is covered
+        if (RationalMetrics.isEnabled()) return;
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-Djnum.rational.metrics=true",
+                "-cp", System.getProperty("java.class.path"),
+                "org.junit.runner.JUnitCore", RationalMetricsTest.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertEquals(output, 0, process.waitFor());
+    }
+
+    @Test
+    public void rootIsNotAPromotionTest() {
+        RationalMetrics.Snapshot before = RationalMetrics.snapshot();
+        RationalNumber.valueOf(2).power(RationalNumber.valueOf(2,3), MathContext.DECIMAL64);
+        RationalMetrics.Snapshot delta = RationalMetrics.snapshot().since(before);
+
+        assertEquals(0, delta.get(RationalMetrics.Counter.PROMOTIONS));
+    }
+
+    @Test
+    public void toMapTest() {
+        Map<RationalMetrics.Counter, Long> map = RationalMetrics.snapshot().toMap();
+
+        assertEquals(RationalMetrics.Counter.values().length, map.size());
+        assertThrows(UnsupportedOperationException.class, () -> map.put(RationalMetrics.Counter.ADD, 1L));
+    }
+}
@@ -1,13 +1,19 @@
 package test.abstractnumber.rational;
 
 import org.jnum.abstractnumber.rational.exceptions.NotImplementedFeatureException;
+import org.jnum.abstractnumber.rational.BigRationalNumber;
 import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
 import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
 import org.jnum.abstractnumber.rational.exceptions.ZeroExponentialException;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -42,6 +48,64 @@ public class RationalNumberTest {
         assertEquals(2,n.longValue());
     }
 
+    @Test
+    public void exactDoubleConstructorTest() {
+        assertEquals(RationalNumber.valueOf(3602879701896397L, 36028797018963968L), RationalNumber.valueOf(0.1));
+        assertEquals(RationalNumber.valueOf(-5,4), RationalNumber.valueOf(-1.25));
+        assertEquals(RationalNumber.valueOf(1L << 62), RationalNumber.valueOf(0x1p62));
+        assertEquals(RationalNumber.valueOf(1, 1L << 62), RationalNumber.valueOf(0x1p-62));
+        assertEquals(RationalNumber.ZERO, RationalNumber.valueOf(-0.0));
+    }
+
+    @Test
+    public void inexactDoubleConstructorTest() {
+        assertEquals(RationalNumber.valueOf(1, 10000), RationalNumber.valueOf(1e-4));
+        assertEquals(RationalNumber.valueOf(1, 100000), RationalNumber.valueOf(1e-5));
+        assertEquals(RationalNumber.valueOf(-3, 100000), RationalNumber.valueOf(-3e-5));
+        assertEquals(RationalNumber.valueOf(0.25), RationalNumber.valueOfExact(0.25));
+    }
+
+    @Test(expected = RationalOverflowException.class)
+    public void exactDoubleConstructorOverflowTest() {
+        RationalNumber.valueOfExact(1e-5);
+    }
+
+    @Test(expected = RationalOverflowException.class)
+    public void doubleConstructorOverflowTest() {
+        RationalNumber.valueOf(1e300);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nanConstructorTest() {
+        RationalNumber.valueOf(Double.NaN);
+    }
+
+    @Test
+    public void doubleRoundTripTest() {
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < 10000; ++i) {
+            double value = Math.scalb(random.nextDouble() - 0.5, random.nextInt(60) - 8);
+            assertEquals(value, RationalNumber.valueOf(value).doubleValue(), 0);
+            assertEquals(value, BigRationalNumber.valueOf(value).doubleValue(), 0);
+            assertEquals((float) value, BigRationalNumber.valueOf((double) (float) value).floatValue(), 0);
+        }
+        assertEquals(Double.MIN_VALUE, BigRationalNumber.valueOf(Double.MIN_VALUE).doubleValue(), 0);
+        assertEquals(Double.MAX_VALUE, BigRationalNumber.valueOf(Double.MAX_VALUE).doubleValue(), 0);
+    }
+
+    @Test
+    public void correctlyRoundedDoubleValueTest() {
+        // (2^62 + 1) / 3 is not representable, the division of the rounded operands is off by one ulp
+        RationalNumber n = RationalNumber.valueOf((1L << 62) + 1, 3);
+        double expected = new BigDecimal((1L << 62) + 1).divide(new BigDecimal(3), MathContext.DECIMAL128).doubleValue();
+
+        assertEquals(expected, n.doubleValue(), 0);
+        assertEquals(Long.MAX_VALUE, RationalNumber.valueOf(Long.MAX_VALUE).doubleValue(), 0);
+        assertEquals(1.0 / 3, RationalNumber.valueOf(Long.MAX_VALUE / 3, Long.MAX_VALUE).doubleValue(), 0);
+        assertEquals(0.1f, RationalNumber.valueOf(1, 10).floatValue(), 0);
+        assertEquals((float) (1.0 / 3), RationalNumber.valueOf(Long.MAX_VALUE / 3, Long.MAX_VALUE).floatValue(), 0);
+    }
+
     @Test
     public void doubleValueTest() {
         RationalNumber n = RationalNumber.valueOf("2.5");
@@ -205,6 +269,73 @@ public class RationalNumberTest {
         n.power(exp);
     }
 
+    @Test
+    public void powerBySquaringTest() {
+        assertEquals(RationalNumber.valueOf(4052555153018976267L), RationalNumber.valueOf(3).power(39));
+        assertEquals(RationalNumber.valueOf(1, 1L << 62), RationalNumber.valueOf(1,2).power(62));
+        assertEquals(RationalNumber.MINUS_ONE, RationalNumber.MINUS_ONE.power(Long.MAX_VALUE));
+        assertEquals(RationalNumber.ONE, RationalNumber.ONE.power(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void powerWithPerfectRootTest() {
+        assertEquals(RationalNumber.valueOf(8,27), RationalNumber.valueOf(4,9).power(RationalNumber.valueOf(3,2)));
+        assertEquals(RationalNumber.valueOf(-1,2), RationalNumber.valueOf(-8).power(RationalNumber.valueOf(-1,3)));
+        assertEquals(RationalNumber.valueOf(3037000499L), RationalNumber.valueOf(3037000499L * 3037000499L).rootExact(2));
+    }
+
+    @Test
+    public void rootOfMinValueTest() {
+        RationalNumber min = RationalNumber.valueOf(Long.MIN_VALUE);
+
+        assertEquals(RationalNumber.valueOf(-(1L << 21)), min.rootExact(3));
+        assertEquals(RationalNumber.valueOf(-(1L << 21)), min.power(RationalNumber.valueOf(1,3)));
+        assertEquals(RationalNumber.valueOf(-2), min.rootExact(63));
+        assertEquals(RationalNumber.valueOf(-1, 1L << 9), min.power(RationalNumber.valueOf(-1,7)));
+        assertEquals(min, min.rootExact(1));
+        assertThrows(ArithmeticException.class, () -> min.rootExact(5));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void rootExactOfNonPerfectPowerTest() {
+        RationalNumber.valueOf(3037000499L * 3037000499L - 1).rootExact(2);
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void evenRootOfNegativeTest() {
+        RationalNumber.valueOf(-4).rootExact(2);
+    }
+
+    @Test
+    public void powerWithMathContextTest() {
+        RationalNumber sqrt2 = RationalNumber.valueOf(2).power(RationalNumber.ONE_HALF, new MathContext(10));
+        assertEquals(new BigDecimal("1.414213562"), sqrt2.bigDecimalValueWithCustomRounding(9, RoundingMode.HALF_EVEN));
+
+        RationalNumber growth = RationalNumber.valueOf(121,100).power(RationalNumber.valueOf(1,4), new MathContext(6));
+        assertEquals(new BigDecimal("1.04881"), growth.bigDecimalValueWithCustomRounding(5, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void powerWithMathContextOfNegativeBaseTest() {
+        MathContext mathContext = MathContext.DECIMAL64;
+        RationalNumber even = RationalNumber.valueOf(-2).power(RationalNumber.valueOf(2,3), mathContext);
+        RationalNumber odd = RationalNumber.valueOf(-2).power(RationalNumber.valueOf(1,3), mathContext);
+
+        assertEquals(new BigDecimal("1.587401"), even.bigDecimalValueWithCustomRounding(6, RoundingMode.HALF_EVEN));
+        assertEquals(new BigDecimal("-1.259921"), odd.bigDecimalValueWithCustomRounding(6, RoundingMode.HALF_EVEN));
+        assertEquals(RationalNumber.valueOf(4), RationalNumber.valueOf(-8).power(RationalNumber.valueOf(2,3), mathContext));
+    }
+
+    @Test
+    public void rootWithToleranceTest() {
+        RationalNumber tolerance = RationalNumber.valueOf(1,1000);
+        RationalNumber sqrt2 = RationalNumber.valueOf(2).root(2, tolerance);
+
+        assertEquals(RationalNumber.valueOf(41,29), sqrt2);
+        assertEquals(RationalNumber.valueOf(-3), RationalNumber.valueOf(-27).root(3, tolerance));
+        assertTrue(RationalNumber.valueOf(2).subtract(sqrt2.power(2)).abs().compareTo(RationalNumber.valueOf(1,100)) < 0);
+    }
+
     @Test(expected = ZeroExponentialException.class)
     public void powerWithZeroExponentAndZeroBase() {
         RationalNumber n = RationalNumber.valueOf(0);
@@ -233,4 +364,150 @@ public class RationalNumberTest {
         assertEquals(-1, n3.compareTo(n4));
         assertEquals(-1, n4.compareTo(n5));
     }
+
+    @Test
+    public void negativeDenominatorTest() {
+        RationalNumber n = RationalNumber.valueOf(1,-2);
+
+        assertEquals(-1, n.numerator());
+        assertEquals(2, n.denominator());
+        assertEquals(RationalNumber.valueOf(-1,2), RationalNumber.valueOf(2).reciprocal().toggleSign());
+        assertEquals(RationalNumber.valueOf(-1,2), RationalNumber.valueOf(-2).reciprocal());
+    }
+
+    @Test
+    public void addLongTest() {
+        RationalNumber n = RationalNumber.valueOf(1,2);
+
+        assertEquals(n, n.add(0));
+        assertEquals(RationalNumber.valueOf(7,2), n.add(3));
+        assertEquals(RationalNumber.valueOf(-5,2), n.subtract(3));
+        assertEquals(RationalNumber.valueOf(3,2), n.increment());
+        assertEquals(RationalNumber.valueOf(-1,2), n.decrement());
+    }
+
+    @Test
+    public void multiplyWithoutOverflowTest() {
+        RationalNumber n1 = RationalNumber.valueOf(Long.MAX_VALUE, 3);
+        RationalNumber n2 = RationalNumber.valueOf(3, Long.MAX_VALUE);
+
+        assertEquals(RationalNumber.ONE, n1.multiply(n2));
+        assertEquals(RationalNumber.valueOf(Long.MAX_VALUE), n1.multiply(3));
+    }
+
+    @Test
+    public void addWithIntermediateOverflowTest() {
+        long big = 3037000499L;
+        RationalNumber n1 = RationalNumber.valueOf(1, big * 2);
+        RationalNumber n2 = RationalNumber.valueOf(1, big * 3);
+
+        assertEquals(RationalNumber.valueOf(5, big * 6), n1.add(n2));
+        assertEquals(RationalNumber.valueOf(1, big * 6), n1.subtract(n2));
+    }
+
+    @Test(expected = RationalOverflowException.class)
+    public void addOverflowTest() {
+        RationalNumber.valueOf(Long.MAX_VALUE).add(1);
+    }
+
+    @Test(expected = RationalOverflowException.class)
+    public void powerOverflowTest() {
+        RationalNumber.valueOf(3).power(64);
+    }
+
+    @Test
+    public void bigDecimalWithLargeScaleTest() {
+        RationalNumber n = RationalNumber.valueOf(new BigDecimal("0.500000000000000000000000"));
+
+        assertEquals(RationalNumber.ONE_HALF, n);
+        assertEquals(RationalNumber.valueOf(1000), RationalNumber.valueOf(new BigDecimal("1E+3")));
+    }
+
+    @Test
+    public void compareToNegativeTest() {
+        RationalNumber n1 = RationalNumber.valueOf(1,4);
+        RationalNumber n2 = RationalNumber.valueOf(-1,2);
+
+        assertEquals(1, n1.compareTo(n2));
+        assertEquals(-1, n2.compareTo(n1));
+        assertEquals(0, n2.compareTo(RationalNumber.valueOf(-2,4)));
+    }
+
+    @Test
+    public void compareToCloseValuesTest() {
+        RationalNumber n1 = RationalNumber.valueOf(Long.MAX_VALUE, Long.MAX_VALUE - 1);
+        RationalNumber n2 = RationalNumber.valueOf(Long.MAX_VALUE - 1, Long.MAX_VALUE - 2);
+        RationalNumber n3 = RationalNumber.valueOf(-1, Long.MAX_VALUE);
+        RationalNumber n4 = RationalNumber.valueOf(-1, Long.MAX_VALUE - 1);
+
+        assertEquals(-1, n1.compareTo(n2));
+        assertEquals(1, n2.compareTo(n1));
+        assertEquals(1, n3.compareTo(n4));
+        assertEquals(-1, n4.compareTo(n3));
+    }
+
+    @Test
+    public void rangeTest() {
+        RationalNumber n = RationalNumber.valueOf(1,2);
+
+        assertEquals(Arrays.asList(RationalNumber.valueOf(1,2), RationalNumber.valueOf(3,2), RationalNumber.valueOf(5,2)),
+                n.range(RationalNumber.valueOf(3)));
+        assertEquals(Arrays.asList(RationalNumber.valueOf(1,2), RationalNumber.valueOf(-1,2)),
+                n.range(RationalNumber.valueOf(-1), 1));
+        assertTrue(n.range(n).isEmpty());
+    }
+
+    @Test
+    public void staticRangeTest() {
+        List<RationalNumber> range = RationalNumber.range(RationalNumber.ZERO, RationalNumber.ONE, RationalNumber.valueOf(1,4));
+
+        assertEquals(4, range.size());
+        assertEquals(RationalNumber.valueOf(3,4), range.get(3));
+        assertEquals(Arrays.asList(RationalNumber.ONE, RationalNumber.valueOf(3,4)),
+                RationalNumber.range(RationalNumber.ONE, RationalNumber.valueOf(1,2), RationalNumber.valueOf(-1,4)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroStepRangeTest() {
+        RationalNumber.ONE.range(RationalNumber.TEN, RationalNumber.ZERO);
+    }
+
+    @Test
+    public void rangeElementWithOverflowingOffsetTest() {
+        List<RationalNumber> range = RationalNumber.range(
+                RationalNumber.valueOf(Long.MIN_VALUE), RationalNumber.valueOf(Long.MAX_VALUE), RationalNumber.valueOf(1L << 60));
+
+        assertEquals(16, range.size());
+        assertEquals(RationalNumber.valueOf(7L << 60), range.get(15));
+    }
+
+    @Test
+    public void rangeStreamTest() {
+        RationalNumber step = RationalNumber.valueOf(1,3);
+        long count = RationalNumber.rangeStream(RationalNumber.ZERO, RationalNumber.valueOf(100000), step)
+                .parallel()
+                .count();
+
+        assertEquals(300000, count);
+
+        List<RationalNumber> sequential = RationalNumber.ZERO.rangeStream(RationalNumber.valueOf(1000), step)
+                .collect(Collectors.toList());
+        List<RationalNumber> parallel = RationalNumber.ZERO.range(RationalNumber.valueOf(1000), step)
+                .parallelStream()
+                .collect(Collectors.toList());
+
+        assertEquals(sequential, parallel);
+        assertEquals(RationalNumber.valueOf(2999,3), parallel.get(2999));
+    }
+
+    @Test
+    public void valueOfCacheTest() {
+        assertSame(RationalNumber.ONE, RationalNumber.valueOf(1));
+        assertSame(RationalNumber.ONE_HALF, RationalNumber.valueOf(50,100));
+        assertSame(RationalNumber.valueOf(-3,100), RationalNumber.valueOf(6,-200));
+        assertSame(RationalNumber.ONE_QUARTER, RationalNumber.ONE_HALF.multiply(RationalNumber.ONE_HALF));
+        assertSame(RationalNumber.ZERO, RationalNumber.ONE_HALF.subtract(RationalNumber.ONE_HALF));
+        assertNotSame(RationalNumber.valueOf(1,1000), RationalNumber.valueOf(1,1000));
+        assertEquals(RationalNumber.valueOf(1,1000), RationalNumber.valueOf(1,1000));
+    }
 }
@@ -0,0 +1,115 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.RationalParser;
+import org.jnum.abstractnumber.rational.exceptions.InvalidFormatStringException;
+import org.jnum.abstractnumber.rational.exceptions.RationalOverflowException;
+import org.jnum.abstractnumber.rational.exceptions.ZeroDenominatorException;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class RationalParserTest {
+
+    @Test
+    public void decimalTest() {
+        assertEquals(RationalNumber.valueOf(-12), RationalParser.parse("-12"));
+        assertEquals(RationalNumber.valueOf(3,2), RationalParser.parse(" 1.5 "));
+        assertEquals(RationalNumber.valueOf(1,4), RationalParser.parse(".25"));
+        assertEquals(RationalNumber.valueOf(5), RationalParser.parse("+5."));
+        assertEquals(RationalNumber.ZERO, RationalParser.parse("-0.000"));
+    }
+
+    @Test
+    public void scientificNotationTest() {
+        assertEquals(RationalNumber.valueOf(3,2000), RationalParser.parse("1.5e-3"));
+        assertEquals(RationalNumber.valueOf(1500), RationalParser.parse("1.5E3"));
+        assertEquals(RationalNumber.valueOf(1,100000), RationalParser.parse("1.0E-5"));
+    }
+
+    @Test
+    public void fractionTest() {
+        assertEquals(RationalNumber.valueOf(3,4), RationalParser.parse("6/8"));
+        assertEquals(RationalNumber.valueOf(-3,4), RationalParser.parse("-1.5 / 2"));
+        assertEquals(RationalNumber.valueOf(-3,4), RationalParser.parse("3/-4"));
+    }
+
+    @Test
+    public void toStringRoundTripTest() {
+        RationalNumber n1 = RationalNumber.valueOf(-7,24);
+        RationalNumber n2 = RationalNumber.valueOf(42);
+
+        assertEquals(n1, RationalParser.parse(n1.toString()));
+        assertEquals(n2, RationalParser.parse(n2.toString()));
+        assertEquals(n1, RationalNumber.valueOf(n1.toString()));
+    }
+
+    @Test
+    public void arrayRangeTest() {
+        char[] chars = "x{1/3}y".toCharArray();
+        byte[] bytes = "12;-0.5;3".getBytes(StandardCharsets.US_ASCII);
+
+        assertEquals(RationalNumber.valueOf(1,3), RationalParser.parse(chars, 1, 5));
+        assertEquals(RationalNumber.valueOf(-1,2), RationalParser.parse(bytes, 3, 4));
+    }
+
+    @Test
+    public void overflowingDigitsTest() {
+        assertEquals(RationalNumber.ONE_HALF, RationalParser.parse("0.5000000000000000000000000"));
+        assertEquals(RationalNumber.valueOf(Long.MIN_VALUE), RationalParser.parse("-9223372036854775808"));
+        assertEquals(RationalNumber.ONE, RationalParser.parse("1e30/1e30"));
+    }
+
+    @Test
+    public void trailingFractionZerosTest() {
+        String zeros = "0".repeat(10_001);
+
+        assertEquals(RationalNumber.ONE, RationalParser.parse("1." + zeros));
+        assertEquals(RationalNumber.valueOf(1,400), RationalParser.parse("2.5" + zeros + "e-3"));
+        assertFalse(RationalParser.tryParse("0." + zeros + "1", new long[2]));
+    }
+
+    @Test(expected = RationalOverflowException.class)
+    public void notRepresentableTest() {
+        RationalParser.parse("1e19");
+    }
+
+    @Test(expected = ZeroDenominatorException.class)
+    public void zeroDenominatorTest() {
+        RationalParser.parse("1/0");
+    }
+
+    @Test(expected = InvalidFormatStringException.class)
+    public void invalidFormatTest() {
+        RationalParser.parse("1x5");
+    }
+
+    @Test
+    public void tryParseTest() {
+        long[] result = new long[2];
+
+        assertTrue(RationalParser.tryParse("{-7/24}", result));
+        assertEquals(-7, result[0]);
+        assertEquals(24, result[1]);
+
+        for (String invalid : new String[] {"", " ", ".", "1.2.3", "1/2/3", "{1/2", "1/2}", "1e", "--1", "1/0", "1e19", "abc"})
+            assertFalse(invalid, RationalParser.tryParse(invalid, result));
+    }
+
+    @Test
+    public void parseAllTest() {
+        RationalArray target = new RationalArray(3);
+        boolean[] invalid = new boolean[3];
+
+        assertEquals(1, RationalParser.parseAll(Arrays.asList("1/2", "oops", "0.25"), target, invalid));
+        assertEquals(RationalNumber.ONE_HALF, target.get(0));
+        assertEquals(RationalNumber.ONE_QUARTER, target.get(2));
+        assertFalse(invalid[0]);
+        assertTrue(invalid[1]);
+        assertFalse(invalid[2]);
+    }
+}
@@ -0,0 +1,82 @@
+package test.abstractnumber.rational;
+
+import org.jnum.abstractnumber.rational.RationalArray;
+import org.jnum.abstractnumber.rational.RationalNumber;
+import org.jnum.abstractnumber.rational.RationalSegment;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RationalSegmentTest {
+
+    private static final List<RationalNumber> VALUES = Arrays.asList(
+            RationalNumber.valueOf(1,2),
+            RationalNumber.valueOf(-2,3),
+            RationalNumber.valueOf(5),
+            RationalNumber.valueOf(7,24));
+
+    @Test
+    public void allocateDirectTest() {
+        RationalSegment segment = RationalSegment.allocateDirect(3);
+
+        assertEquals(3, segment.length());
+        assertEquals(RationalNumber.ZERO, segment.get(2));
+
+        segment.set(1, 6, -4);
+
+        assertEquals(-3, segment.numerator(1));
+        assertEquals(2, segment.denominator(1));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void indexOutOfBoundsTest() {
+        RationalSegment.allocateDirect(3).get(3);
+    }
+
+    @Test
+    public void bulkOperationsTest() {
+        RationalArray array = RationalArray.valueOf(VALUES);
+        RationalSegment segment = RationalSegment.valueOf(array);
+        RationalSegment other = RationalSegment.valueOf(array.duplicateThis().reciprocal());
+
+        assertEquals(array, segment.toRationalArray());
+        assertEquals(array.duplicateThis().reciprocal(), RationalSegment.valueOf(array).reciprocal().toRationalArray());
+        assertEquals(array.dot(array.duplicateThis().reciprocal()), segment.dot(other));
+        assertEquals(array.sum(), segment.sum());
+        assertEquals(array.product(), segment.product());
+        assertEquals(array.min(), segment.min());
+        assertEquals(array.max(), segment.max());
+
+        segment.multiply(other);
+        for (int i = 0; i < VALUES.size(); ++i) assertEquals(RationalNumber.ONE, segment.get(i));
+
+        segment.scale(3).add(RationalNumber.ONE_HALF);
+        for (int i = 0; i < VALUES.size(); ++i) assertEquals(RationalNumber.valueOf(7,2), segment.get(i));
+    }
+
+    @Test
+    public void mappedFileTest() throws IOException {
+        Path file = Files.createTempFile("rational-segment", ".bin");
+        try {
+            RationalSegment written = RationalSegment.create(file, VALUES.size());
+            for (int i = 0; i < VALUES.size(); ++i) written.set(i, VALUES.get(i));
+            written.force();
+
+            assertEquals(VALUES.size() * RationalSegment.BYTES, Files.size(file));
+
+            RationalSegment read = RationalSegment.map(file, FileChannel.MapMode.READ_ONLY);
+
+            assertEquals(VALUES, read.toRationalArray().toList());
+            assertEquals(RationalArray.valueOf(VALUES).sum(), read.sum());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}